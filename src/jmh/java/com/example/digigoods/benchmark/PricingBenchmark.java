@@ -0,0 +1,92 @@
+package com.example.digigoods.benchmark;
+
+import com.example.digigoods.service.BigDecimalPricing;
+import com.example.digigoods.service.PricingEngine;
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH comparison of {@link BigDecimal} pricing and {@link PricingEngine} for one cart.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+  @Param({"5", "50", "500"})
+  private int lines;
+
+  private long[] lineCents;
+  private int[] lineBasisPoints;
+  private int[] generalBasisPoints;
+  private BigDecimal[] linePrices;
+  private BigDecimal[] linePercentages;
+  private BigDecimal[] generalPercentages;
+
+  /**
+   * Create a random cart with the configured number of lines.
+   */
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    lineCents = new long[lines];
+    lineBasisPoints = new int[lines];
+    linePrices = new BigDecimal[lines];
+    linePercentages = new BigDecimal[lines];
+    for (int i = 0; i < lines; i++) {
+      lineCents[i] = random.nextLong(100, 100_000);
+      lineBasisPoints[i] = random.nextBoolean() ? 0 : random.nextInt(1, 5_000);
+      linePrices[i] = PricingEngine.toAmount(lineCents[i]);
+      linePercentages[i] = BigDecimal.valueOf(lineBasisPoints[i], 2);
+    }
+    generalBasisPoints = new int[] {1_000, 550};
+    generalPercentages = new BigDecimal[] {new BigDecimal("10.00"), new BigDecimal("5.50")};
+  }
+
+  /**
+   * Price the cart with BigDecimal arithmetic.
+   *
+   * @return whether the maximum discount is exceeded, to keep the result alive
+   */
+  @Benchmark
+  public boolean bigDecimal() {
+    BigDecimal original = BigDecimalPricing.originalSubtotal(linePrices);
+    BigDecimal finalPrice = BigDecimalPricing.finalPrice(linePrices, linePercentages,
+        generalPercentages);
+    return BigDecimalPricing.exceedsMaximumDiscount(original, finalPrice);
+  }
+
+  /**
+   * Price the cart with long cents and basis points.
+   *
+   * @return whether the maximum discount is exceeded, to keep the result alive
+   */
+  @Benchmark
+  public boolean longCents() {
+    long original = 0;
+    long finalPrice = 0;
+    for (int i = 0; i < lineCents.length; i++) {
+      original += lineCents[i];
+      finalPrice += PricingEngine.applyDiscount(lineCents[i], lineBasisPoints[i]);
+    }
+    for (int basisPoints : generalBasisPoints) {
+      finalPrice = PricingEngine.applyDiscount(finalPrice, basisPoints);
+    }
+    return PricingEngine.discountBasisPoints(original, finalPrice) > 7_500;
+  }
+}
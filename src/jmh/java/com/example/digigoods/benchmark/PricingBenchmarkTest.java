@@ -0,0 +1,23 @@
+package com.example.digigoods.benchmark;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs {@link PricingBenchmark} as part of {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class PricingBenchmarkTest {
+
+  @Test
+  @DisplayName("BigDecimal versus long-cents pricing")
+  void pricingBenchmark() throws Exception {
+    new Runner(new OptionsBuilder()
+        .include(PricingBenchmark.class.getName())
+        .build())
+        .run();
+  }
+}
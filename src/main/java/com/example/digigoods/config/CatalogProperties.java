@@ -0,0 +1,40 @@
+package com.example.digigoods.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the public catalog endpoints.
+ */
+@Data
+@ConfigurationProperties(prefix = "digigoods.catalog")
+public class CatalogProperties {
+
+  /**
+   * Cache-Control header of catalog responses. Responses carry an ETag of their body,
+   * so {@code no-cache} lets browsers and CDNs revalidate them with a cheap
+   * conditional request; a {@code max-age} lets them skip the request altogether.
+   */
+  private String cacheControl = "no-cache";
+
+  private Snapshot snapshot = new Snapshot();
+
+  /**
+   * Settings for the pre-rendered catalog snapshot.
+   */
+  @Data
+  public static class Snapshot {
+
+    /**
+     * Whether catalog requests are answered from the pre-rendered snapshot.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Age after which the snapshot is rebuilt even without a catalog change, to pick up
+     * stock and discount usage updated outside JPA and changes made on other nodes.
+     */
+    private Duration maxAge = Duration.ofSeconds(5);
+  }
+}
@@ -0,0 +1,126 @@
+package com.example.digigoods.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for checkout processing.
+ */
+@Data
+@ConfigurationProperties(prefix = "digigoods.checkout")
+public class CheckoutProperties {
+
+  /**
+   * How validated orders are written to the database.
+   */
+  private Mode mode = Mode.PER_REQUEST;
+
+  /**
+   * Whether the products and discounts of a cart are loaded concurrently when it is priced
+   * outside a transaction, as in short-write mode.
+   */
+  private boolean concurrentLoading = false;
+
+  /**
+   * Whether the stages of each checkout are recorded as Micrometer timers.
+   */
+  private boolean stageMetrics = true;
+
+  private GroupCommit groupCommit = new GroupCommit();
+
+  private Async async = new Async();
+
+  private Quote quote = new Quote();
+
+  /**
+   * Checkout write modes.
+   */
+  public enum Mode {
+
+    /**
+     * Each checkout validates and writes its order in its own transaction.
+     */
+    PER_REQUEST,
+
+    /**
+     * Validated orders are queued and written by a single writer in shared transactions.
+     */
+    GROUP_COMMIT,
+
+    /**
+     * Products and discounts are read and the order is priced without holding a
+     * connection, only the order and its stock and usage updates are written in a
+     * transaction.
+     */
+    SHORT_WRITE,
+
+    /**
+     * The order is validated, priced and written by the {@code place_order} database
+     * function in one round trip. Checkouts with a reservation, and any checkout while hot
+     * stock or hot discount quotas are enabled, are processed per request.
+     */
+    SINGLE_ROUND_TRIP
+  }
+
+  /**
+   * Settings for the group-commit writer.
+   */
+  @Data
+  public static class GroupCommit {
+
+    /**
+     * Maximum number of orders written in one transaction.
+     */
+    private int maxBatchSize = 64;
+
+    /**
+     * Maximum time the writer waits for more orders before writing a batch.
+     */
+    private Duration maxWait = Duration.ofMillis(5);
+
+    /**
+     * Maximum number of validated orders waiting for the writer.
+     */
+    private int queueCapacity = 1024;
+  }
+
+  /**
+   * Settings for asynchronous checkouts accepted with 202 Accepted.
+   */
+  @Data
+  public static class Async {
+
+    /**
+     * Maximum number of asynchronous checkouts processed at the same time.
+     */
+    private int workers = 32;
+
+    /**
+     * Maximum number of accepted checkouts waiting for a worker.
+     */
+    private int queueCapacity = 1000;
+
+    /**
+     * How long the status of a finished checkout can still be polled.
+     */
+    private Duration statusRetention = Duration.ofHours(1);
+  }
+
+  /**
+   * Settings for price quotes returned by POST /orders/quote.
+   */
+  @Data
+  public static class Quote {
+
+    /**
+     * How long a quote token can be redeemed at checkout.
+     */
+    private Duration ttl = Duration.ofMinutes(2);
+
+    /**
+     * Secret used to sign quote tokens.
+     */
+    private String secret;
+  }
+}
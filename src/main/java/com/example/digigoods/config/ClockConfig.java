@@ -0,0 +1,23 @@
+package com.example.digigoods.config;
+
+import java.time.Clock;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Clock configuration, so services reading the time can be given a fixed clock in tests.
+ */
+@Configuration
+public class ClockConfig {
+
+  /**
+   * Clock of the system default time zone, the zone order dates and discount validity are
+   * interpreted in.
+   *
+   * @return the system clock
+   */
+  @Bean
+  public Clock clock() {
+    return Clock.systemDefaultZone();
+  }
+}
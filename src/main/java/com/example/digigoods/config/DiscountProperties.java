@@ -0,0 +1,64 @@
+package com.example.digigoods.config;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for discounts.
+ */
+@Data
+@ConfigurationProperties(prefix = "digigoods.discount")
+public class DiscountProperties {
+
+  private HotQuota hotQuota = new HotQuota();
+  private Index index = new Index();
+
+  /**
+   * Settings for mass-campaign discounts served from leased in-memory use quotas.
+   */
+  @Data
+  public static class HotQuota {
+
+    /**
+     * Whether hot quota mode is enabled.
+     */
+    private boolean enabled = false;
+
+    /**
+     * IDs of the discounts whose remaining uses are leased into memory.
+     */
+    private Set<Long> discountIds = new HashSet<>();
+
+    /**
+     * Number of uses leased from the database per refill.
+     */
+    private int leaseSize = 100;
+
+    /**
+     * Time after which unused leased uses are returned to the database.
+     */
+    private Duration leaseTtl = Duration.ofSeconds(30);
+
+    /**
+     * Number of counter cells a lease is striped across.
+     */
+    private int stripes = Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * Settings for the in-memory index of product-specific discounts.
+   */
+  @Data
+  public static class Index {
+
+    /**
+     * Time after which the index reads the discount version again, to notice discounts
+     * changed on other nodes or through SQL. Changes made through JPA on this node are
+     * noticed at once.
+     */
+    private Duration versionCheckInterval = Duration.ofSeconds(1);
+  }
+}
@@ -0,0 +1,33 @@
+package com.example.digigoods.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for idempotent checkout requests.
+ */
+@Data
+@ConfigurationProperties(prefix = "digigoods.idempotency")
+public class IdempotencyProperties {
+
+  /**
+   * Maximum number of completed responses kept in the in-memory front cache.
+   */
+  private int cacheSize = 10_000;
+
+  /**
+   * How long idempotency keys are remembered.
+   */
+  private Duration retention = Duration.ofHours(24);
+
+  /**
+   * How long a replay waits for the original request still running on this node.
+   */
+  private Duration inFlightWait = Duration.ofSeconds(30);
+
+  /**
+   * Age after which a pending key is considered abandoned and may be taken over.
+   */
+  private Duration pendingTimeout = Duration.ofMinutes(5);
+}
@@ -0,0 +1,63 @@
+package com.example.digigoods.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for products.
+ */
+@Data
+@ConfigurationProperties(prefix = "digigoods.product")
+public class ProductProperties {
+
+  private Cache cache = new Cache();
+  private Export export = new Export();
+
+  /**
+   * Settings for the read-through product and catalog page cache.
+   */
+  @Data
+  public static class Cache {
+
+    /**
+     * Whether product and catalog page reads are served from the cache.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of cached products, and of cached pages; the least recently read are
+     * evicted first.
+     */
+    private int maxSize = 10_000;
+
+    /**
+     * Age after which a cached catalog page is refreshed in the background.
+     */
+    private Duration maxAge = Duration.ofSeconds(30);
+
+    /**
+     * Time past {@code max-age} a cached catalog page is still served while it cannot be
+     * loaded, for example because the database is unavailable.
+     */
+    private Duration staleIfError = Duration.ofMinutes(5);
+  }
+
+  /**
+   * Settings for the streamed catalog export.
+   */
+  @Data
+  public static class Export {
+
+    /**
+     * Maximum number of exports streamed at once; each holds a database connection.
+     */
+    private int maxConcurrent = 4;
+
+    /**
+     * Time an export may take before it is aborted; other asynchronous requests keep the
+     * container default.
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+  }
+}
@@ -0,0 +1,23 @@
+package com.example.digigoods.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for stock reservations.
+ */
+@Data
+@ConfigurationProperties(prefix = "digigoods.reservation")
+public class ReservationProperties {
+
+  /**
+   * How long reserved stock is held before it is released again.
+   */
+  private Duration ttl = Duration.ofMinutes(10);
+
+  /**
+   * Maximum number of expired reservation rows released per sweeper transaction.
+   */
+  private int sweepBatchSize = 500;
+}
@@ -0,0 +1,14 @@
+package com.example.digigoods.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled background tasks unless {@code digigoods.scheduling.enabled} is false.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "digigoods.scheduling.enabled", matchIfMissing = true)
+public class SchedulingConfig {
+}
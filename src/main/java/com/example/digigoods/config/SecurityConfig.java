@@ -1,5 +1,6 @@
 package com.example.digigoods.config;
 
+import com.example.digigoods.model.Role;
 import com.example.digigoods.security.JwtAuthenticationEntryPoint;
 import com.example.digigoods.security.JwtAuthenticationFilter;
 import org.springframework.context.annotation.Bean;
@@ -46,7 +47,8 @@ public class SecurityConfig {
     http.csrf(csrf -> csrf.disable())
         .authorizeHttpRequests(authz -> authz
             .requestMatchers("/auth/**").permitAll()
-            .requestMatchers("/actuator/**").permitAll()
+            .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+            .requestMatchers("/actuator/**").hasRole(Role.ADMIN.name())
             .requestMatchers("/products").permitAll()
             .requestMatchers("/discounts").permitAll()
             .requestMatchers("/users/*/profile").authenticated()
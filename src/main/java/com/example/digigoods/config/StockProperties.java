@@ -0,0 +1,49 @@
+package com.example.digigoods.config;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for stock handling.
+ */
+@Data
+@ConfigurationProperties(prefix = "digigoods.stock")
+public class StockProperties {
+
+  private HotSku hotSku = new HotSku();
+
+  /**
+   * Settings for products served from leased in-memory stock quotas.
+   */
+  @Data
+  public static class HotSku {
+
+    /**
+     * Whether hot SKU mode is enabled.
+     */
+    private boolean enabled = false;
+
+    /**
+     * IDs of the products whose stock is leased into memory.
+     */
+    private Set<Long> productIds = new HashSet<>();
+
+    /**
+     * Number of units leased from the database per refill.
+     */
+    private int leaseSize = 100;
+
+    /**
+     * Time after which unused leased stock is returned to the database.
+     */
+    private Duration leaseTtl = Duration.ofSeconds(30);
+
+    /**
+     * Number of counter cells a lease is striped across.
+     */
+    private int stripes = Runtime.getRuntime().availableProcessors();
+  }
+}
@@ -0,0 +1,228 @@
+package com.example.digigoods.controller;
+
+import com.example.digigoods.config.CatalogProperties;
+import com.example.digigoods.dto.ProductSummary;
+import com.example.digigoods.service.CatalogSnapshots;
+import com.example.digigoods.service.CatalogSnapshots.RenderedJson;
+import com.example.digigoods.service.CatalogSnapshots.RenderedPage;
+import com.example.digigoods.service.ProductCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Conditional responses of the public catalog endpoints.
+ *
+ * <p>Every response carries a strong ETag and the configured
+ * {@code digigoods.catalog.cache-control} header. A request whose If-None-Match lists the
+ * tag of the current body is answered with 304.
+ *
+ * <p>Pre-rendered snapshots are served in the encoding the client accepts, each encoding
+ * with its own tag derived from the hash of the rendered body, and are compared without
+ * reading the catalog. A snapshot is only rebuilt after a change made on this node or once
+ * it is {@code digigoods.catalog.snapshot.max-age} old, so changes made on other nodes or
+ * through SQL are answered with the previous body, or 304, for up to that long.
+ *
+ * <p>Live product pages are tagged with the product version of the catalog_versions row the
+ * page was loaded at, its sort order, cursor and page size, and which of its products are in
+ * stock, as stock changes do not bump the version. The tag is compared before the page is
+ * rendered, so a 304 costs the version read of the {@link ProductCache} and no rendering.
+ * The live discount list, only served when snapshots are disabled, is rendered first and
+ * tagged with the hash of its body, as its remaining uses change on every checkout.
+ */
+@Component
+class CatalogResponses {
+
+  private static final String GZIP = "gzip";
+  private static final int PAGE_HASH_LENGTH = 16;
+
+  private final ObjectMapper objectMapper;
+  private final String cacheControl;
+
+  CatalogResponses(ObjectMapper objectMapper, CatalogProperties properties) {
+    this.objectMapper = objectMapper;
+    this.cacheControl = properties.getCacheControl();
+  }
+
+  /**
+   * Respond with a page of products from the snapshot if there is one, otherwise from the
+   * page cache. The body is the JSON array of the products on the page; the cursor of the
+   * next page is sent in a {@code Link} header with {@code rel="next"}.
+   *
+   * @param snapshot the pre-rendered page, or empty to read the page cache
+   * @param live reads the page through the page cache
+   * @param sort the sort order of the page
+   * @param cursor the cursor of the page, or null for the first page
+   * @param limit the page size
+   * @param ifNoneMatch the If-None-Match request header, or null
+   * @param acceptEncoding the Accept-Encoding request header, or null
+   * @return the response
+   */
+  ResponseEntity<?> respondWithPage(Optional<RenderedPage> snapshot,
+                                    Supplier<ProductCache.CachedPage> live, String sort,
+                                    String cursor, int limit, String ifNoneMatch,
+                                    String acceptEncoding) {
+    if (snapshot.isPresent()) {
+      return respondWithSnapshot(snapshot.get().items(), snapshot.get().next(), ifNoneMatch,
+          acceptEncoding);
+    }
+
+    ProductCache.CachedPage page = live.get();
+    String etag = pageTag(page, sort, cursor, limit);
+    if (matches(ifNoneMatch, etag)) {
+      return notModified(etag).build();
+    }
+    return ok(etag, page.page().getNext()).body(render(page.page().getItems()));
+  }
+
+  /**
+   * Respond from the snapshot if there is one, otherwise from the live catalog.
+   *
+   * @param snapshot the pre-rendered response, or empty to read the live catalog
+   * @param live reads the live catalog
+   * @param ifNoneMatch the If-None-Match request header, or null
+   * @param acceptEncoding the Accept-Encoding request header, or null
+   * @return the response
+   */
+  ResponseEntity<?> respond(Optional<RenderedJson> snapshot, Supplier<?> live,
+                            String ifNoneMatch, String acceptEncoding) {
+    if (snapshot.isPresent()) {
+      return respondWithSnapshot(snapshot.get(), null, ifNoneMatch, acceptEncoding);
+    }
+
+    byte[] body = render(live.get());
+    String etag = etag(CatalogSnapshots.contentTag(body), "");
+    if (matches(ifNoneMatch, etag)) {
+      return notModified(etag).build();
+    }
+    return ok(etag, null).body(body);
+  }
+
+  private byte[] render(Object value) {
+    try {
+      return objectMapper.writeValueAsBytes(value);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Rendering the catalog response failed", e);
+    }
+  }
+
+  private ResponseEntity.BodyBuilder ok(String etag, String next) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_JSON)
+        .eTag(etag)
+        .header(HttpHeaders.CACHE_CONTROL, cacheControl);
+    if (next != null) {
+      // Same request with the cursor replaced, so sort order and page size carry over
+      String uri = ServletUriComponentsBuilder.fromCurrentRequest()
+          .replaceQueryParam("cursor", next)
+          .build()
+          .toUriString();
+      response.header(HttpHeaders.LINK, "<" + uri + ">; rel=\"next\"");
+    }
+    return response;
+  }
+
+  private ResponseEntity<?> respondWithSnapshot(RenderedJson json, String next,
+                                              String ifNoneMatch, String acceptEncoding) {
+    boolean gzip = acceptsGzip(acceptEncoding);
+    String etag = etag(json.contentTag(), gzip ? "-" + GZIP : "");
+    if (matches(ifNoneMatch, etag)) {
+      return notModified(etag).header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+    }
+
+    ResponseEntity.BodyBuilder response = ok(etag, next)
+        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (gzip) {
+      return response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(json.gzip());
+    }
+    return response.body(json.identity());
+  }
+
+  private ResponseEntity.BodyBuilder notModified(String etag) {
+    return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+        .eTag(etag)
+        .header(HttpHeaders.CACHE_CONTROL, cacheControl);
+  }
+
+  private static String etag(String contentTag, String suffix) {
+    return "\"" + contentTag + suffix + "\"";
+  }
+
+  /**
+   * Derive the tag of a live product page, without rendering it.
+   */
+  static String pageTag(ProductCache.CachedPage page, String sort, String cursor, int limit) {
+    StringBuilder key = new StringBuilder()
+        .append(sort.toLowerCase(Locale.ROOT)).append('|')
+        .append(cursor != null ? cursor : "").append('|')
+        .append(limit).append('|');
+    for (ProductSummary item : page.page().getItems()) {
+      key.append(item.isInStock() ? '1' : '0');
+    }
+    String pageHash = CatalogSnapshots.contentTag(
+        key.toString().getBytes(StandardCharsets.UTF_8));
+    return etag("p" + page.version() + "-" + pageHash.substring(0, PAGE_HASH_LENGTH), "");
+  }
+
+  /**
+   * Check whether an If-None-Match header lists the entity tag, using the weak comparison
+   * RFC 9110 prescribes for If-None-Match.
+   */
+  static boolean matches(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      String tag = candidate.trim();
+      if (tag.equals("*")) {
+        return true;
+      }
+      if (tag.startsWith("W/")) {
+        tag = tag.substring(2);
+      }
+      if (tag.equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Check whether an Accept-Encoding header allows gzip, explicitly or through {@code *},
+   * with a non-zero quality.
+   */
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.split(";");
+      String name = parts[0].trim();
+      if (!name.equalsIgnoreCase(GZIP) && !name.equals("*")) {
+        continue;
+      }
+      return parts.length < 2 || !isZeroQuality(parts[1].trim());
+    }
+    return false;
+  }
+
+  private static boolean isZeroQuality(String parameter) {
+    if (!parameter.startsWith("q=")) {
+      return false;
+    }
+    try {
+      return Double.parseDouble(parameter.substring(2)) == 0;
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+}
@@ -1,15 +1,28 @@
 package com.example.digigoods.controller;
 
+import com.example.digigoods.dto.AsyncOrderResponse;
+import com.example.digigoods.dto.BatchCheckoutRequest;
+import com.example.digigoods.dto.BatchCheckoutResponse;
 import com.example.digigoods.dto.CheckoutRequest;
 import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.dto.OrderStatusResponse;
+import com.example.digigoods.dto.QuoteResponse;
 import com.example.digigoods.exception.MissingJwtTokenException;
+import com.example.digigoods.model.AsyncCheckoutStatus;
+import com.example.digigoods.service.AsyncCheckoutService;
+import com.example.digigoods.service.BatchCheckoutService;
 import com.example.digigoods.service.CheckoutService;
+import com.example.digigoods.service.IdempotencyService;
 import com.example.digigoods.service.JwtService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.net.URI;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -20,41 +33,140 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/orders")
 public class CheckoutController {
 
+  private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
   private final CheckoutService checkoutService;
   private final JwtService jwtService;
+  private final IdempotencyService idempotencyService;
+  private final AsyncCheckoutService asyncCheckoutService;
+  private final BatchCheckoutService batchCheckoutService;
 
-  public CheckoutController(CheckoutService checkoutService, JwtService jwtService) {
+  public CheckoutController(CheckoutService checkoutService, JwtService jwtService,
+                            IdempotencyService idempotencyService,
+                            AsyncCheckoutService asyncCheckoutService,
+                            BatchCheckoutService batchCheckoutService) {
     this.checkoutService = checkoutService;
     this.jwtService = jwtService;
+    this.idempotencyService = idempotencyService;
+    this.asyncCheckoutService = asyncCheckoutService;
+    this.batchCheckoutService = batchCheckoutService;
   }
 
   /**
    * Create order endpoint.
    *
+   * <p>When an {@code Idempotency-Key} header is sent, retries with the same key return the
+   * response of the first successful checkout instead of creating another order.
+   *
    * @param checkoutRequest the checkout request
+   * @param idempotencyKey the optional idempotency key
    * @param request the HTTP servlet request
    * @return order response
    */
   @PostMapping
   public ResponseEntity<OrderResponse> createOrder(
       @Valid @RequestBody CheckoutRequest checkoutRequest,
+      @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
       HttpServletRequest request) {
-    // Extract user ID from JWT token
-    String token = extractTokenFromRequest(request);
-    if (token == null) {
-      throw new MissingJwtTokenException();
-    }
-    Long authenticatedUserId = jwtService.extractUserId(token);
+    Long authenticatedUserId = extractAuthenticatedUserId(request);
 
-    OrderResponse response = checkoutService.processCheckout(checkoutRequest, authenticatedUserId);
+    OrderResponse response = checkout(checkoutRequest, idempotencyKey, authenticatedUserId);
     return ResponseEntity.ok(response);
   }
 
-  private String extractTokenFromRequest(HttpServletRequest request) {
+  /**
+   * Quote order endpoint.
+   *
+   * <p>Prices the cart without placing the order. The returned quote token can be sent
+   * with the checkout request to skip re-pricing while the catalog is unchanged.
+   *
+   * @param checkoutRequest the checkout request to price
+   * @param request the HTTP servlet request
+   * @return price breakdown and quote token
+   */
+  @PostMapping("/quote")
+  public ResponseEntity<QuoteResponse> quoteOrder(
+      @Valid @RequestBody CheckoutRequest checkoutRequest, HttpServletRequest request) {
+    Long authenticatedUserId = extractAuthenticatedUserId(request);
+
+    return ResponseEntity.ok(checkoutService.quote(checkoutRequest, authenticatedUserId));
+  }
+
+  /**
+   * Create orders in batch endpoint.
+   *
+   * <p>Each order of the batch succeeds or fails on its own, the response reports the
+   * outcome per order. Malformed orders reject the whole batch with 400 Bad Request.
+   *
+   * @param batchRequest the checkout requests
+   * @param request the HTTP servlet request
+   * @return the outcome of each order, in the order of the requests
+   */
+  @PostMapping("/batch")
+  public ResponseEntity<BatchCheckoutResponse> createOrders(
+      @Valid @RequestBody BatchCheckoutRequest batchRequest, HttpServletRequest request) {
+    Long authenticatedUserId = extractAuthenticatedUserId(request);
+
+    return ResponseEntity.ok(
+        batchCheckoutService.processBatch(batchRequest.getOrders(), authenticatedUserId));
+  }
+
+  /**
+   * Create order asynchronously endpoint.
+   *
+   * <p>The checkout is accepted with 202 Accepted and processed in the background. Its
+   * outcome is polled from the status URL returned in the {@code Location} header.
+   *
+   * @param checkoutRequest the checkout request
+   * @param idempotencyKey the optional idempotency key
+   * @param request the HTTP servlet request
+   * @return accepted response with the order token
+   */
+  @PostMapping("/async")
+  public ResponseEntity<AsyncOrderResponse> createOrderAsync(
+      @Valid @RequestBody CheckoutRequest checkoutRequest,
+      @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+      HttpServletRequest request) {
+    Long authenticatedUserId = extractAuthenticatedUserId(request);
+
+    String orderToken = asyncCheckoutService.submit(checkoutRequest, authenticatedUserId,
+        () -> checkout(checkoutRequest, idempotencyKey, authenticatedUserId));
+    return ResponseEntity.accepted()
+        .location(URI.create("/orders/" + orderToken + "/status"))
+        .body(new AsyncOrderResponse(orderToken, AsyncCheckoutStatus.PENDING));
+  }
+
+  /**
+   * Get asynchronous order status endpoint.
+   *
+   * @param orderToken the order token
+   * @param request the HTTP servlet request
+   * @return order status response
+   */
+  @GetMapping("/{orderToken}/status")
+  public ResponseEntity<OrderStatusResponse> getOrderStatus(@PathVariable String orderToken,
+                                                            HttpServletRequest request) {
+    Long authenticatedUserId = extractAuthenticatedUserId(request);
+
+    return ResponseEntity.ok(asyncCheckoutService.getStatus(orderToken, authenticatedUserId));
+  }
+
+  private OrderResponse checkout(CheckoutRequest checkoutRequest, String idempotencyKey,
+                                 Long authenticatedUserId) {
+    if (idempotencyKey == null) {
+      return checkoutService.processCheckout(checkoutRequest, authenticatedUserId);
+    }
+    return idempotencyService.execute(authenticatedUserId, idempotencyKey, checkoutRequest,
+        onWritten -> checkoutService.processCheckout(checkoutRequest, authenticatedUserId,
+            onWritten));
+  }
+
+  private Long extractAuthenticatedUserId(HttpServletRequest request) {
+    // Extract user ID from JWT token
     String bearerToken = request.getHeader("Authorization");
-    if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
-      return bearerToken.substring(7);
+    if (bearerToken == null || !bearerToken.startsWith("Bearer ")) {
+      throw new MissingJwtTokenException();
     }
-    return null;
+    return jwtService.extractUserId(bearerToken.substring(7));
   }
 }
@@ -1,10 +1,11 @@
 package com.example.digigoods.controller;
 
-import com.example.digigoods.model.Discount;
+import com.example.digigoods.service.CatalogSnapshots;
 import com.example.digigoods.service.DiscountService;
-import java.util.List;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -16,19 +17,30 @@ import org.springframework.web.bind.annotation.RestController;
 public class DiscountController {
 
   private final DiscountService discountService;
+  private final CatalogSnapshots catalogSnapshots;
+  private final CatalogResponses catalogResponses;
 
-  public DiscountController(DiscountService discountService) {
+  public DiscountController(DiscountService discountService, CatalogSnapshots catalogSnapshots,
+                            CatalogResponses catalogResponses) {
     this.discountService = discountService;
+    this.catalogSnapshots = catalogSnapshots;
+    this.catalogResponses = catalogResponses;
   }
 
   /**
-   * Get all discounts endpoint.
+   * Get all discounts endpoint, served from the catalog snapshot when it is enabled.
+   * Answers 304 when If-None-Match lists the current catalog ETag.
    *
+   * @param ifNoneMatch the If-None-Match request header
+   * @param acceptEncoding the Accept-Encoding request header
    * @return list of all discounts
    */
   @GetMapping
-  public ResponseEntity<List<Discount>> getAllDiscounts() {
-    List<Discount> discounts = discountService.getAllDiscounts();
-    return ResponseEntity.ok(discounts);
+  public ResponseEntity<?> getAllDiscounts(
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+      String acceptEncoding) {
+    return catalogResponses.respond(catalogSnapshots.discounts(),
+        discountService::getAllDiscounts, ifNoneMatch, acceptEncoding);
   }
 }
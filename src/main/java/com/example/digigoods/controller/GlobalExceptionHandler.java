@@ -1,10 +1,18 @@
 package com.example.digigoods.controller;
 
 import com.example.digigoods.dto.ErrorResponse;
+import com.example.digigoods.exception.CheckoutOverloadedException;
 import com.example.digigoods.exception.ExcessiveDiscountException;
+import com.example.digigoods.exception.ExportOverloadedException;
+import com.example.digigoods.exception.IdempotencyConflictException;
 import com.example.digigoods.exception.InsufficientStockException;
 import com.example.digigoods.exception.InvalidDiscountException;
+import com.example.digigoods.exception.InvalidExportFormatException;
+import com.example.digigoods.exception.InvalidIdempotencyKeyException;
+import com.example.digigoods.exception.InvalidPageRequestException;
+import com.example.digigoods.exception.InvalidReservationException;
 import com.example.digigoods.exception.MissingJwtTokenException;
+import com.example.digigoods.exception.OrderStatusNotFoundException;
 import com.example.digigoods.exception.ProductNotFoundException;
 import com.example.digigoods.exception.UnauthorizedAccessException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,9 +31,9 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
-  @ExceptionHandler(ProductNotFoundException.class)
-  public ResponseEntity<ErrorResponse> handleProductNotFoundException(
-      ProductNotFoundException ex, HttpServletRequest request) {
+  @ExceptionHandler({ProductNotFoundException.class, OrderStatusNotFoundException.class})
+  public ResponseEntity<ErrorResponse> handleNotFoundExceptions(
+      RuntimeException ex, HttpServletRequest request) {
     ErrorResponse error = new ErrorResponse(
         HttpStatus.NOT_FOUND.value(),
         "Not Found",
@@ -36,7 +44,9 @@ public class GlobalExceptionHandler {
   }
 
   @ExceptionHandler({InvalidDiscountException.class, ExcessiveDiscountException.class,
-                     InsufficientStockException.class})
+                     InsufficientStockException.class, InvalidReservationException.class,
+                     InvalidIdempotencyKeyException.class, InvalidPageRequestException.class,
+                     InvalidExportFormatException.class})
   public ResponseEntity<ErrorResponse> handleBadRequestExceptions(
       RuntimeException ex, HttpServletRequest request) {
     ErrorResponse error = new ErrorResponse(
@@ -48,6 +58,42 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
   }
 
+  @ExceptionHandler(IdempotencyConflictException.class)
+  public ResponseEntity<ErrorResponse> handleIdempotencyConflictException(
+      IdempotencyConflictException ex, HttpServletRequest request) {
+    ErrorResponse error = new ErrorResponse(
+        HttpStatus.CONFLICT.value(),
+        "Conflict",
+        ex.getMessage(),
+        request.getRequestURI()
+    );
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+  }
+
+  @ExceptionHandler(CheckoutOverloadedException.class)
+  public ResponseEntity<ErrorResponse> handleCheckoutOverloadedException(
+      CheckoutOverloadedException ex, HttpServletRequest request) {
+    ErrorResponse error = new ErrorResponse(
+        HttpStatus.SERVICE_UNAVAILABLE.value(),
+        "Service Unavailable",
+        ex.getMessage(),
+        request.getRequestURI()
+    );
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+  }
+
+  @ExceptionHandler(ExportOverloadedException.class)
+  public ResponseEntity<ErrorResponse> handleExportOverloadedException(
+      ExportOverloadedException ex, HttpServletRequest request) {
+    ErrorResponse error = new ErrorResponse(
+        HttpStatus.SERVICE_UNAVAILABLE.value(),
+        "Service Unavailable",
+        ex.getMessage(),
+        request.getRequestURI()
+    );
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+  }
+
   @ExceptionHandler(UnauthorizedAccessException.class)
   public ResponseEntity<ErrorResponse> handleUnauthorizedAccessException(
       UnauthorizedAccessException ex, HttpServletRequest request) {
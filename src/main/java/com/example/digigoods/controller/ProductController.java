@@ -1,12 +1,25 @@
 package com.example.digigoods.controller;
 
-import com.example.digigoods.model.Product;
-import com.example.digigoods.service.ProductService;
-import java.util.List;
+import com.example.digigoods.config.ProductProperties;
+import com.example.digigoods.service.CatalogSnapshots;
+import com.example.digigoods.service.CatalogSnapshots.RenderedPage;
+import com.example.digigoods.service.ProductCatalogService;
+import com.example.digigoods.service.ProductExportService;
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Controller for product endpoints.
@@ -15,20 +28,89 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/products")
 public class ProductController {
 
-  private final ProductService productService;
+  private final ProductCatalogService productCatalogService;
+  private final ProductExportService productExportService;
+  private final CatalogSnapshots catalogSnapshots;
+  private final CatalogResponses catalogResponses;
+  private final ProductProperties.Export exportProperties;
 
-  public ProductController(ProductService productService) {
-    this.productService = productService;
+  public ProductController(ProductCatalogService productCatalogService,
+                           ProductExportService productExportService,
+                           CatalogSnapshots catalogSnapshots,
+                           CatalogResponses catalogResponses,
+                           ProductProperties productProperties) {
+    this.productCatalogService = productCatalogService;
+    this.productExportService = productExportService;
+    this.catalogSnapshots = catalogSnapshots;
+    this.catalogResponses = catalogResponses;
+    this.exportProperties = productProperties.getExport();
   }
 
   /**
-   * Get all products endpoint.
+   * Get products endpoint, one page at a time. First pages at the default page size are
+   * served from the catalog snapshot when it is enabled, other pages from the page cache.
+   * Answers 304 when If-None-Match lists the current ETag of the page.
    *
-   * @return list of all products
+   * @param sort the sort order, one of {@code id}, {@code price} or {@code name}
+   * @param cursor the {@code next} cursor of the previous page, absent for the first page
+   * @param limit the maximum number of products on the page
+   * @param ifNoneMatch the If-None-Match request header
+   * @param acceptEncoding the Accept-Encoding request header
+   * @return the products on the page, with a {@code Link} header to the next page if there
+   *         is one
    */
   @GetMapping
-  public ResponseEntity<List<Product>> getAllProducts() {
-    List<Product> products = productService.getAllProducts();
-    return ResponseEntity.ok(products);
+  public ResponseEntity<?> getProducts(
+      @RequestParam(defaultValue = "id") String sort,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "" + ProductCatalogService.DEFAULT_PAGE_SIZE) int limit,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+      String acceptEncoding) {
+    Optional<RenderedPage> snapshot =
+        cursor == null && limit == ProductCatalogService.DEFAULT_PAGE_SIZE
+            ? catalogSnapshots.firstProductPage(sort) : Optional.empty();
+    return catalogResponses.respondWithPage(snapshot,
+        () -> productCatalogService.getCachedPage(sort, cursor, limit), sort, cursor, limit,
+        ifNoneMatch, acceptEncoding);
+  }
+
+  /**
+   * Export all products endpoint, streamed as they are read from the database. Answers 503
+   * when the maximum number of exports are already streaming. Only this endpoint gets the
+   * long export timeout; other asynchronous requests keep the container default.
+   *
+   * @param format the export format, {@code ndjson} or {@code csv}
+   * @param request the HTTP request
+   * @return the streamed catalog
+   */
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> exportProducts(
+      @RequestParam(defaultValue = "ndjson") String format, HttpServletRequest request) {
+    ProductExportService.Format exportFormat = productExportService.parseFormat(format);
+    ProductExportService.ExportSlot slot = productExportService.reserveSlot();
+
+    WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+    asyncManager.getAsyncWebRequest().setTimeout(exportProperties.getTimeout().toMillis());
+    // Also release the slot when the export times out or fails before it starts writing
+    asyncManager.registerCallableInterceptor(ProductExportService.ExportSlot.class,
+        new CallableProcessingInterceptor() {
+          @Override
+          public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+            slot.release();
+          }
+        });
+
+    return ResponseEntity.ok()
+        .contentType(exportFormat.mediaType())
+        .header(HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=products." + exportFormat.fileExtension())
+        .body(out -> {
+          try {
+            productExportService.export(exportFormat, out);
+          } finally {
+            slot.release();
+          }
+        });
   }
 }
@@ -0,0 +1,76 @@
+package com.example.digigoods.controller;
+
+import com.example.digigoods.dto.ReservationRequest;
+import com.example.digigoods.dto.ReservationResponse;
+import com.example.digigoods.exception.MissingJwtTokenException;
+import com.example.digigoods.service.JwtService;
+import com.example.digigoods.service.ReservationService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller for stock reservation endpoints.
+ */
+@RestController
+@RequestMapping("/reservations")
+public class ReservationController {
+
+  private final ReservationService reservationService;
+  private final JwtService jwtService;
+
+  public ReservationController(ReservationService reservationService, JwtService jwtService) {
+    this.reservationService = reservationService;
+    this.jwtService = jwtService;
+  }
+
+  /**
+   * Create reservation endpoint.
+   *
+   * @param reservationRequest the reservation request
+   * @param request the HTTP servlet request
+   * @return reservation response
+   */
+  @PostMapping
+  public ResponseEntity<ReservationResponse> createReservation(
+      @Valid @RequestBody ReservationRequest reservationRequest,
+      HttpServletRequest request) {
+    Long authenticatedUserId = extractAuthenticatedUserId(request);
+
+    ReservationResponse response = reservationService.reserve(reservationRequest,
+        authenticatedUserId);
+    return ResponseEntity.status(HttpStatus.CREATED).body(response);
+  }
+
+  /**
+   * Release reservation endpoint.
+   *
+   * @param reservationId the reservation ID
+   * @param request the HTTP servlet request
+   * @return empty response
+   */
+  @DeleteMapping("/{reservationId}")
+  public ResponseEntity<Void> releaseReservation(@PathVariable String reservationId,
+                                                 HttpServletRequest request) {
+    Long authenticatedUserId = extractAuthenticatedUserId(request);
+
+    reservationService.release(reservationId, authenticatedUserId);
+    return ResponseEntity.noContent().build();
+  }
+
+  private Long extractAuthenticatedUserId(HttpServletRequest request) {
+    // Extract user ID from JWT token
+    String bearerToken = request.getHeader("Authorization");
+    if (bearerToken == null || !bearerToken.startsWith("Bearer ")) {
+      throw new MissingJwtTokenException();
+    }
+    return jwtService.extractUserId(bearerToken.substring(7));
+  }
+}
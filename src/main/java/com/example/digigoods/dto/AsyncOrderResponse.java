@@ -0,0 +1,18 @@
+package com.example.digigoods.dto;
+
+import com.example.digigoods.model.AsyncCheckoutStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for an accepted asynchronous checkout.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AsyncOrderResponse {
+
+  private String orderToken;
+  private AsyncCheckoutStatus status;
+}
@@ -0,0 +1,23 @@
+package com.example.digigoods.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a batch of checkout requests placed in one call.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCheckoutRequest {
+
+  @NotEmpty(message = "Orders cannot be empty")
+  @Size(max = 500, message = "At most 500 orders can be placed per batch")
+  @Valid
+  private List<CheckoutRequest> orders;
+}
@@ -0,0 +1,31 @@
+package com.example.digigoods.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one cart line, a product and the ordered quantity.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartLine {
+
+  /**
+   * Maximum quantity of a line, and of a whole cart, small enough that no cart total can
+   * overflow.
+   */
+  public static final int MAX_QUANTITY = 10_000;
+
+  @NotNull(message = "Product ID is required")
+  private Long productId;
+
+  @NotNull(message = "Quantity is required")
+  @Positive(message = "Quantity must be positive")
+  @Max(value = MAX_QUANTITY, message = "Quantity cannot exceed " + MAX_QUANTITY)
+  private Integer quantity;
+}
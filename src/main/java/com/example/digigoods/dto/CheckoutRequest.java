@@ -1,14 +1,21 @@
 package com.example.digigoods.dto;
 
-import jakarta.validation.constraints.NotEmpty;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotNull;
 import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 /**
  * DTO for checkout request.
+ *
+ * <p>The cart is given as {@code lines} with a quantity per product, or in the older
+ * format as {@code productIds} repeating an ID once per unit. Both may be combined.
  */
 @Data
 @NoArgsConstructor
@@ -18,8 +25,99 @@ public class CheckoutRequest {
   @NotNull(message = "User ID is required")
   private Long userId;
 
-  @NotEmpty(message = "Product IDs cannot be empty")
   private List<Long> productIds;
 
   private List<String> discountCodes;
+
+  private String reservationId;
+
+  private String quoteToken;
+
+  @Valid
+  private List<CartLine> lines;
+
+  /**
+   * Constructor for a checkout request without a stock reservation.
+   *
+   * @param userId the user ID
+   * @param productIds the product IDs (with duplicates for quantity)
+   * @param discountCodes the discount codes
+   */
+  public CheckoutRequest(Long userId, List<Long> productIds, List<String> discountCodes) {
+    this(userId, productIds, discountCodes, null);
+  }
+
+  /**
+   * Constructor for a checkout request without a price quote.
+   *
+   * @param userId the user ID
+   * @param productIds the product IDs (with duplicates for quantity)
+   * @param discountCodes the discount codes
+   * @param reservationId the stock reservation ID, or null
+   */
+  public CheckoutRequest(Long userId, List<Long> productIds, List<String> discountCodes,
+                         String reservationId) {
+    this(userId, productIds, discountCodes, reservationId, null);
+  }
+
+  /**
+   * Constructor for a checkout request in the product ID format.
+   *
+   * @param userId the user ID
+   * @param productIds the product IDs (with duplicates for quantity)
+   * @param discountCodes the discount codes
+   * @param reservationId the stock reservation ID, or null
+   * @param quoteToken the price quote token, or null
+   */
+  public CheckoutRequest(Long userId, List<Long> productIds, List<String> discountCodes,
+                         String reservationId, String quoteToken) {
+    this(userId, productIds, discountCodes, reservationId, quoteToken, null);
+  }
+
+  @JsonIgnore
+  @AssertTrue(message = "Product IDs or lines cannot be empty")
+  public boolean isCartPresent() {
+    return (productIds != null && !productIds.isEmpty()) || (lines != null && !lines.isEmpty());
+  }
+
+  /**
+   * Check that the cart holds at most {@link CartLine#MAX_QUANTITY} units over both cart
+   * formats, so that quantities and prices computed from it cannot overflow.
+   *
+   * @return whether the total quantity is within the limit
+   */
+  @JsonIgnore
+  @AssertTrue(message = "Total quantity cannot exceed " + CartLine.MAX_QUANTITY)
+  public boolean isTotalQuantityWithinLimit() {
+    long total = productIds == null ? 0 : productIds.size();
+    if (lines != null) {
+      for (CartLine line : lines) {
+        if (line.getQuantity() != null) {
+          total += line.getQuantity();
+        }
+      }
+    }
+    return total <= CartLine.MAX_QUANTITY;
+  }
+
+  /**
+   * Sum up the ordered quantity per product over both cart formats.
+   *
+   * @return quantity per product ID, sorted by product ID
+   * @throws ArithmeticException if a quantity overflows, which a validated request cannot
+   */
+  public SortedMap<Long, Integer> quantities() {
+    SortedMap<Long, Integer> quantities = new TreeMap<>();
+    if (productIds != null) {
+      for (Long productId : productIds) {
+        quantities.merge(productId, 1, Math::addExact);
+      }
+    }
+    if (lines != null) {
+      for (CartLine line : lines) {
+        quantities.merge(line.getProductId(), line.getQuantity(), Math::addExact);
+      }
+    }
+    return quantities;
+  }
 }
@@ -0,0 +1,21 @@
+package com.example.digigoods.dto;
+
+import com.example.digigoods.model.AsyncCheckoutStatus;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the status of an asynchronous checkout.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusResponse {
+
+  private String orderToken;
+  private AsyncCheckoutStatus status;
+  private String message;
+  private BigDecimal finalPrice;
+}
@@ -0,0 +1,22 @@
+package com.example.digigoods.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one page of the product catalog.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPage {
+
+  private List<ProductSummary> items;
+
+  /**
+   * Cursor of the next page, null on the last page.
+   */
+  private String next;
+}
@@ -0,0 +1,20 @@
+package com.example.digigoods.dto;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a product in the catalog, without its stock numbers.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummary {
+
+  private Long id;
+  private String name;
+  private BigDecimal price;
+  private boolean inStock;
+}
@@ -0,0 +1,27 @@
+package com.example.digigoods.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a price quote.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteResponse {
+
+  private BigDecimal originalSubtotal;
+  private BigDecimal productDiscount;
+  private BigDecimal generalDiscount;
+  private BigDecimal finalPrice;
+  private String quoteToken;
+
+  @JsonSerialize(using = LocalDateTimeSerializer.class)
+  private LocalDateTime expiresAt;
+}
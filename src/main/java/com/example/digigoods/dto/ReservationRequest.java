@@ -0,0 +1,23 @@
+package com.example.digigoods.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for stock reservation request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationRequest {
+
+  @NotNull(message = "User ID is required")
+  private Long userId;
+
+  @NotEmpty(message = "Product IDs cannot be empty")
+  private List<Long> productIds;
+}
@@ -0,0 +1,22 @@
+package com.example.digigoods.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for stock reservation response.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationResponse {
+
+  private String reservationId;
+
+  @JsonSerialize(using = LocalDateTimeSerializer.class)
+  private LocalDateTime expiresAt;
+}
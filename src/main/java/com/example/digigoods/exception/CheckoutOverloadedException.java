@@ -0,0 +1,15 @@
+package com.example.digigoods.exception;
+
+/**
+ * Exception thrown when checkout cannot accept more work right now.
+ */
+public class CheckoutOverloadedException extends RuntimeException {
+
+  public CheckoutOverloadedException(String message) {
+    super(message);
+  }
+
+  public CheckoutOverloadedException() {
+    super("Checkout is temporarily overloaded, please retry later");
+  }
+}
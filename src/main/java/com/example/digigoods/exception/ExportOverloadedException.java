@@ -0,0 +1,11 @@
+package com.example.digigoods.exception;
+
+/**
+ * Exception thrown when the maximum number of catalog exports are already streaming.
+ */
+public class ExportOverloadedException extends RuntimeException {
+
+  public ExportOverloadedException(int maxConcurrent) {
+    super("Already streaming " + maxConcurrent + " exports, please retry later");
+  }
+}
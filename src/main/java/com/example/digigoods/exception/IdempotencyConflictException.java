@@ -0,0 +1,15 @@
+package com.example.digigoods.exception;
+
+/**
+ * Exception thrown when an idempotency key cannot be applied to a request.
+ */
+public class IdempotencyConflictException extends RuntimeException {
+
+  public IdempotencyConflictException(String message) {
+    super(message);
+  }
+
+  public IdempotencyConflictException() {
+    super("A request with this idempotency key is still being processed");
+  }
+}
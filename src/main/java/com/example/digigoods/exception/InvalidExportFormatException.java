@@ -0,0 +1,11 @@
+package com.example.digigoods.exception;
+
+/**
+ * Exception thrown when the catalog export is requested in an unsupported format.
+ */
+public class InvalidExportFormatException extends RuntimeException {
+
+  public InvalidExportFormatException(String format) {
+    super("Export format must be ndjson or csv, not: " + format);
+  }
+}
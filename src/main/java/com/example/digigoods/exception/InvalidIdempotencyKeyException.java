@@ -0,0 +1,15 @@
+package com.example.digigoods.exception;
+
+/**
+ * Exception thrown when an idempotency key header is malformed.
+ */
+public class InvalidIdempotencyKeyException extends RuntimeException {
+
+  public InvalidIdempotencyKeyException(String message) {
+    super(message);
+  }
+
+  public InvalidIdempotencyKeyException() {
+    super("Idempotency key must be between 1 and 255 characters");
+  }
+}
@@ -0,0 +1,11 @@
+package com.example.digigoods.exception;
+
+/**
+ * Exception thrown when a page of a listing is requested with invalid parameters.
+ */
+public class InvalidPageRequestException extends RuntimeException {
+
+  public InvalidPageRequestException(String message) {
+    super(message);
+  }
+}
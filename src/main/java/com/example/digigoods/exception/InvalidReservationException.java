@@ -0,0 +1,15 @@
+package com.example.digigoods.exception;
+
+/**
+ * Exception thrown when a stock reservation cannot be used.
+ */
+public class InvalidReservationException extends RuntimeException {
+
+  public InvalidReservationException(String message) {
+    super(message);
+  }
+
+  public InvalidReservationException(String reservationId, String reason) {
+    super("Invalid reservation '" + reservationId + "': " + reason);
+  }
+}
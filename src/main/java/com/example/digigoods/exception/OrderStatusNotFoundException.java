@@ -0,0 +1,11 @@
+package com.example.digigoods.exception;
+
+/**
+ * Exception thrown when the status of an asynchronous checkout is not found.
+ */
+public class OrderStatusNotFoundException extends RuntimeException {
+
+  public OrderStatusNotFoundException(String orderToken) {
+    super("Order status not found for token: " + orderToken);
+  }
+}
@@ -0,0 +1,10 @@
+package com.example.digigoods.model;
+
+/**
+ * Processing status of an asynchronous checkout.
+ */
+public enum AsyncCheckoutStatus {
+  PENDING,
+  COMPLETED,
+  FAILED
+}
@@ -1,7 +1,9 @@
 package com.example.digigoods.model;
 
+import com.example.digigoods.service.CatalogChangeListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
@@ -10,6 +12,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -17,12 +20,15 @@ import java.util.HashSet;
 import java.util.Set;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 /**
  * Discount entity representing a discount in the system.
  */
 @Entity
+@EntityListeners(CatalogChangeListener.class)
 @Table(name = "discounts")
 @Data
 @NoArgsConstructor
@@ -30,7 +36,8 @@ import lombok.NoArgsConstructor;
 public class Discount {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "discounts_seq")
+  @SequenceGenerator(name = "discounts_seq", sequenceName = "discounts_seq", allocationSize = 50)
   private Long id;
 
   @Column(nullable = false, unique = true)
@@ -52,6 +59,9 @@ public class Discount {
   @Column(name = "remaining_uses", nullable = false)
   private Integer remainingUses;
 
+  // Excluded so that hashing a discount does not load its applicable products
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
   @ManyToMany
   @JoinTable(
       name = "discount_applicable_products",
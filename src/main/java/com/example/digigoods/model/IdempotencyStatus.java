@@ -0,0 +1,9 @@
+package com.example.digigoods.model;
+
+/**
+ * Enum representing the state of a request recorded under an idempotency key.
+ */
+public enum IdempotencyStatus {
+  PENDING,
+  COMPLETED
+}
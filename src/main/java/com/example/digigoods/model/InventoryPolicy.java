@@ -0,0 +1,18 @@
+package com.example.digigoods.model;
+
+/**
+ * Enum representing how the stock of a product is tracked.
+ */
+public enum InventoryPolicy {
+
+  /**
+   * Units are counted, an order fails when too few units are left.
+   */
+  FINITE,
+
+  /**
+   * Units are never counted, e.g. licenses and downloads. Orders never read or write the
+   * stock of the product.
+   */
+  UNLIMITED
+}
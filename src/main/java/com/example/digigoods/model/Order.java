@@ -1,6 +1,8 @@
 package com.example.digigoods.model;
 
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -10,10 +12,13 @@ import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -30,20 +35,17 @@ import lombok.NoArgsConstructor;
 public class Order {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+  @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
   private Long id;
 
   @ManyToOne
   @JoinColumn(name = "user_id", nullable = false)
   private User user;
 
-  @ManyToMany
-  @JoinTable(
-      name = "order_products",
-      joinColumns = @JoinColumn(name = "order_id"),
-      inverseJoinColumns = @JoinColumn(name = "product_id")
-  )
-  private Set<Product> products = new HashSet<>();
+  @ElementCollection
+  @CollectionTable(name = "order_lines", joinColumns = @JoinColumn(name = "order_id"))
+  private List<OrderLine> lines = new ArrayList<>();
 
   @ManyToMany
   @JoinTable(
@@ -1,10 +1,17 @@
 package com.example.digigoods.model;
 
+import com.example.digigoods.service.CatalogChangeListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
 import lombok.AllArgsConstructor;
@@ -13,8 +20,11 @@ import lombok.NoArgsConstructor;
 
 /**
  * Product entity representing a product in the system.
+ *
+ * <p>Stock numbers are not serialized, clients only see whether a product is in stock.
  */
 @Entity
+@EntityListeners(CatalogChangeListener.class)
 @Table(name = "products")
 @Data
 @NoArgsConstructor
@@ -22,7 +32,8 @@ import lombok.NoArgsConstructor;
 public class Product {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+  @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
   private Long id;
 
   @Column(nullable = false)
@@ -31,6 +42,57 @@ public class Product {
   @Column(nullable = false, precision = 10, scale = 2)
   private BigDecimal price;
 
+  @JsonIgnore
   @Column(nullable = false)
   private Integer stock;
+
+  @JsonIgnore
+  @Column(name = "reserved_stock", nullable = false)
+  private Integer reservedStock = 0;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "inventory_policy", nullable = false)
+  private InventoryPolicy inventoryPolicy = InventoryPolicy.FINITE;
+
+  /**
+   * Constructor for a product without reserved stock.
+   *
+   * @param id product ID
+   * @param name product name
+   * @param price product price
+   * @param stock units in stock
+   */
+  public Product(Long id, String name, BigDecimal price, Integer stock) {
+    this(id, name, price, stock, 0, InventoryPolicy.FINITE);
+  }
+
+  /**
+   * Get the stock that is neither sold nor held by a reservation.
+   *
+   * @return available stock
+   */
+  @JsonIgnore
+  public Integer getAvailableStock() {
+    return stock - reservedStock;
+  }
+
+  /**
+   * Check whether orders skip the stock of this product.
+   *
+   * @return true if the product has unlimited inventory
+   */
+  @JsonIgnore
+  public boolean isUnlimited() {
+    return inventoryPolicy == InventoryPolicy.UNLIMITED;
+  }
+
+  /**
+   * Check whether at least one unit can currently be ordered.
+   *
+   * @return true if the product has unlimited inventory or available stock
+   */
+  @JsonProperty("inStock")
+  public boolean isInStock() {
+    return isUnlimited() || getAvailableStock() > 0;
+  }
 }
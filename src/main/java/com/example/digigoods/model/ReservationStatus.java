@@ -0,0 +1,11 @@
+package com.example.digigoods.model;
+
+/**
+ * Enum representing the lifecycle state of a stock reservation.
+ */
+public enum ReservationStatus {
+  HELD,
+  CONFIRMED,
+  RELEASED,
+  EXPIRED
+}
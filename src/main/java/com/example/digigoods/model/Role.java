@@ -0,0 +1,17 @@
+package com.example.digigoods.model;
+
+/**
+ * Enum representing what a user is allowed to do.
+ */
+public enum Role {
+
+  /**
+   * Customer, can browse the catalog and place orders.
+   */
+  USER,
+
+  /**
+   * Operator, can also read the actuator metrics.
+   */
+  ADMIN
+}
@@ -0,0 +1,68 @@
+package com.example.digigoods.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+/**
+ * JDBC repository for the catalog_versions row, bumped by database triggers whenever the
+ * product or discount catalog changes.
+ */
+@Repository
+public class CatalogVersionRepository {
+
+  private static final String FIND_SQL =
+      "SELECT products, discounts FROM catalog_versions WHERE id = 1";
+  private static final RowMapper<Versions> VERSIONS_MAPPER =
+      (rs, rowNum) -> new Versions(rs.getLong("products"), rs.getLong("discounts"));
+
+  private final JdbcTemplate jdbcTemplate;
+  private volatile String shareLockSql;
+
+  public CatalogVersionRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Read the current catalog versions.
+   *
+   * @return the product and discount versions
+   */
+  public Versions find() {
+    return jdbcTemplate.queryForObject(FIND_SQL, VERSIONS_MAPPER);
+  }
+
+  /**
+   * Read the current catalog versions and lock the row against changes until the current
+   * transaction ends. Catalog changes wait for the lock, as their triggers update the row.
+   *
+   * <p>PostgreSQL takes a shared lock, so readers do not block each other. Databases without
+   * shared row locks, like H2, take an exclusive one.
+   *
+   * @return the product and discount versions
+   */
+  public Versions lockShared() {
+    return jdbcTemplate.queryForObject(shareLockSql(), VERSIONS_MAPPER);
+  }
+
+  private String shareLockSql() {
+    String sql = shareLockSql;
+    if (sql == null) {
+      String database = jdbcTemplate.execute((ConnectionCallback<String>)
+          connection -> connection.getMetaData().getDatabaseProductName());
+      sql = FIND_SQL + ("PostgreSQL".equals(database) ? " FOR SHARE" : " FOR UPDATE");
+      shareLockSql = sql;
+    }
+    return sql;
+  }
+
+  /**
+   * Catalog versions as stored in the database.
+   *
+   * @param products the product version
+   * @param discounts the discount version
+   */
+  public record Versions(long products, long discounts) {
+  }
+}
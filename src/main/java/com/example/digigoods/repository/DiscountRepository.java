@@ -1,9 +1,13 @@
 package com.example.digigoods.repository;
 
 import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.DiscountType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -23,8 +27,30 @@ public interface DiscountRepository extends JpaRepository<Discount, Long> {
   /**
    * Find all discounts by their codes.
    *
-   * @param codes the list of discount codes
+   * @param codes the discount codes
    * @return list of discounts
    */
-  List<Discount> findAllByCodeIn(List<String> codes);
+  List<Discount> findAllByCodeIn(Collection<String> codes);
+
+  /**
+   * Find the applicable product IDs of all discounts of a type.
+   *
+   * <p>Discounts without applicable products are returned once with a null product ID.
+   *
+   * @param type the discount type
+   * @return one row per discount and applicable product
+   */
+  @Query("SELECT d.id AS discountId, p.id AS productId FROM Discount d "
+      + "LEFT JOIN d.applicableProducts p WHERE d.type = :type")
+  List<ApplicableProduct> findApplicableProducts(@Param("type") DiscountType type);
+
+  /**
+   * Projection of a discount ID and one of its applicable product IDs.
+   */
+  interface ApplicableProduct {
+
+    Long getDiscountId();
+
+    Long getProductId();
+  }
 }
@@ -0,0 +1,86 @@
+package com.example.digigoods.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * JDBC repository for atomic usage updates on the discounts table.
+ *
+ * <p>These are plain SQL updates, so they do not count as catalog changes for
+ * {@link com.example.digigoods.service.CatalogVersions}.
+ */
+@Repository
+public class DiscountUsageRepository {
+
+  private static final String DECREMENT_USES_SQL =
+      "UPDATE discounts SET remaining_uses = remaining_uses - ? "
+          + "WHERE id = ? AND remaining_uses >= ?";
+
+  private static final String LOCK_USES_SQL =
+      "SELECT remaining_uses FROM discounts WHERE id = ? FOR UPDATE";
+
+  private static final String INCREMENT_USES_SQL =
+      "UPDATE discounts SET remaining_uses = remaining_uses + ? WHERE id = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public DiscountUsageRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Conditionally deduct uses from each discount in a single JDBC batch.
+   *
+   * <p>Rows are updated in the iteration order of the given map, so callers should pass
+   * a map sorted by discount ID to keep row lock acquisition order consistent across
+   * transactions.
+   *
+   * @param uses uses to deduct per discount ID, sorted by discount ID
+   * @return update count per discount, in the iteration order of the map (0 means the
+   *         discount does not exist or has too few remaining uses)
+   */
+  public int[] decrementRemainingUses(SortedMap<Long, Integer> uses) {
+    List<Object[]> batchArgs = new ArrayList<>(uses.size());
+    for (Map.Entry<Long, Integer> entry : uses.entrySet()) {
+      batchArgs.add(new Object[]{entry.getValue(), entry.getKey(), entry.getValue()});
+    }
+    return jdbcTemplate.batchUpdate(DECREMENT_USES_SQL, batchArgs);
+  }
+
+  /**
+   * Take up to the given number of uses out of a discount's remaining uses.
+   *
+   * <p>The discount row is locked for the rest of the current transaction, so this should
+   * be called from a short transaction of its own.
+   *
+   * @param discountId the discount ID
+   * @param maxUses the maximum number of uses to take
+   * @return the uses actually taken, 0 if the discount has no remaining uses or is missing
+   */
+  public int leaseUses(Long discountId, int maxUses) {
+    List<Integer> remaining = jdbcTemplate.queryForList(LOCK_USES_SQL, Integer.class,
+        discountId);
+    if (remaining.isEmpty()) {
+      return 0;
+    }
+    int granted = Math.max(0, Math.min(maxUses, remaining.get(0)));
+    if (granted > 0) {
+      jdbcTemplate.update(DECREMENT_USES_SQL, granted, discountId, granted);
+    }
+    return granted;
+  }
+
+  /**
+   * Add uses back to a discount.
+   *
+   * @param discountId the discount ID
+   * @param uses the number of uses to add
+   */
+  public void incrementRemainingUses(Long discountId, int uses) {
+    jdbcTemplate.update(INCREMENT_USES_SQL, uses, discountId);
+  }
+}
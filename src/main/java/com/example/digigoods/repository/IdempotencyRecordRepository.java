@@ -0,0 +1,93 @@
+package com.example.digigoods.repository;
+
+import com.example.digigoods.model.IdempotencyRecord;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository interface for IdempotencyRecord entity.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+  /**
+   * Find the record of a user's idempotency key.
+   *
+   * @param userId the user ID
+   * @param idempotencyKey the idempotency key
+   * @return an Optional containing the record if found
+   */
+  Optional<IdempotencyRecord> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+  /**
+   * Complete a pending key with the response of its checkout.
+   *
+   * <p>Runs in the transaction writing the order, so the key is completed if and only if
+   * the order is committed.
+   *
+   * @param id the record ID
+   * @param attempt the attempt that ran the checkout
+   * @param responseMessage the response message
+   * @param finalPrice the final price of the order
+   * @return 1 if the key was completed, 0 if it is no longer pending under this attempt
+   */
+  @Transactional
+  @Modifying
+  @Query("UPDATE IdempotencyRecord r SET r.status = "
+      + "com.example.digigoods.model.IdempotencyStatus.COMPLETED, "
+      + "r.responseMessage = :responseMessage, r.finalPrice = :finalPrice "
+      + "WHERE r.id = :id AND r.attempt = :attempt "
+      + "AND r.status = com.example.digigoods.model.IdempotencyStatus.PENDING")
+  int complete(@Param("id") Long id, @Param("attempt") int attempt,
+               @Param("responseMessage") String responseMessage,
+               @Param("finalPrice") BigDecimal finalPrice);
+
+  /**
+   * Take over a pending key abandoned before a point in time, starting its next attempt.
+   *
+   * @param id the record ID
+   * @param attempt the attempt seen as abandoned
+   * @param abandonedBefore the point in time before which the attempt started
+   * @param now the start of the next attempt
+   * @return 1 if the key was taken over, 0 if it was completed, failed or taken over since
+   */
+  @Transactional
+  @Modifying
+  @Query("UPDATE IdempotencyRecord r SET r.attempt = r.attempt + 1, r.createdAt = :now "
+      + "WHERE r.id = :id AND r.attempt = :attempt AND r.createdAt < :abandonedBefore "
+      + "AND r.status = com.example.digigoods.model.IdempotencyStatus.PENDING")
+  int takeOver(@Param("id") Long id, @Param("attempt") int attempt,
+               @Param("abandonedBefore") LocalDateTime abandonedBefore,
+               @Param("now") LocalDateTime now);
+
+  /**
+   * Forget a pending key whose checkout failed, so the client can retry it.
+   *
+   * @param id the record ID
+   * @param attempt the attempt that ran the checkout
+   * @return 1 if the key was deleted, 0 if it was taken over since
+   */
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.attempt = :attempt "
+      + "AND r.status = com.example.digigoods.model.IdempotencyStatus.PENDING")
+  int deletePending(@Param("id") Long id, @Param("attempt") int attempt);
+
+  /**
+   * Delete all records created before a point in time.
+   *
+   * @param time the point in time
+   * @return number of records deleted
+   */
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :time")
+  int deleteAllCreatedBefore(@Param("time") LocalDateTime time);
+}
@@ -0,0 +1,108 @@
+package com.example.digigoods.repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SortedMap;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * JDBC repository calling the {@code place_order} database function, which validates,
+ * prices and writes a checkout in one round trip.
+ *
+ * <p>On PostgreSQL the function is created by Liquibase. Other databases must provide a
+ * function of the same name and result columns.
+ */
+@Repository
+public class PlaceOrderRepository {
+
+  private static final String PLACE_ORDER_SQL = "SELECT * FROM place_order(?, ?, ?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public PlaceOrderRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Place an order in one database call.
+   *
+   * <p>A failed checkout may leave some of its updates behind, so the caller must roll
+   * back the transaction when the result is not {@link Status#CREATED}.
+   *
+   * @param userId the ID of the ordering user
+   * @param quantities quantity per product ID, sorted by product ID
+   * @param discountCodes the discount codes, in the order they are applied
+   * @param today the date discounts must be valid on
+   * @param maxDiscountBasisPoints the largest allowed discount of the original subtotal
+   * @return the outcome of the checkout
+   */
+  public Result placeOrder(Long userId, SortedMap<Long, Integer> quantities,
+                           List<String> discountCodes, LocalDate today,
+                           int maxDiscountBasisPoints) {
+    return jdbcTemplate.execute((Connection connection) -> {
+      try (PreparedStatement statement = connection.prepareStatement(PLACE_ORDER_SQL)) {
+        Array productIds = connection.createArrayOf("BIGINT",
+            quantities.keySet().toArray(Long[]::new));
+        Array productQuantities = connection.createArrayOf("INTEGER",
+            quantities.values().toArray(Integer[]::new));
+        Array codes = connection.createArrayOf("VARCHAR",
+            discountCodes.toArray(String[]::new));
+        statement.setLong(1, userId);
+        statement.setArray(2, productIds);
+        statement.setArray(3, productQuantities);
+        statement.setArray(4, codes);
+        statement.setDate(5, Date.valueOf(today));
+        statement.setInt(6, maxDiscountBasisPoints);
+        try (ResultSet rs = statement.executeQuery()) {
+          if (!rs.next()) {
+            throw new IllegalStateException("place_order returned no result");
+          }
+          return new Result(
+              Status.valueOf(rs.getString("status")),
+              rs.getString("detail"),
+              rs.getObject("product_id", Long.class),
+              rs.getObject("requested", Integer.class),
+              rs.getObject("available", Integer.class),
+              rs.getLong("original_subtotal"),
+              rs.getLong("final_price"));
+        }
+      }
+    });
+  }
+
+  /**
+   * Outcome of a {@code place_order} call.
+   *
+   * @param status whether the order was created, or why not
+   * @param detail the missing product IDs, or the rejected discount code
+   * @param productId the product with insufficient stock
+   * @param requested the requested quantity of that product
+   * @param available the available stock of that product
+   * @param originalSubtotal the subtotal before discounts in cents, if created
+   * @param finalPrice the final price in cents, if created
+   */
+  public record Result(Status status, String detail, Long productId, Integer requested,
+                       Integer available, long originalSubtotal, long finalPrice) {
+  }
+
+  /**
+   * Statuses returned by {@code place_order}.
+   */
+  public enum Status {
+    CREATED,
+    PRODUCT_NOT_FOUND,
+    DISCOUNT_NOT_FOUND,
+    DISCOUNT_DUPLICATE,
+    DISCOUNT_NOT_YET_VALID,
+    DISCOUNT_EXPIRED,
+    DISCOUNT_NO_REMAINING_USES,
+    EXCESSIVE_DISCOUNT,
+    INSUFFICIENT_STOCK
+  }
+}
@@ -0,0 +1,51 @@
+package com.example.digigoods.repository;
+
+import com.example.digigoods.dto.ProductSummary;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.function.Consumer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+/**
+ * JDBC repository reading the whole product catalog as a stream.
+ */
+@Repository
+public class ProductExportRepository {
+
+  /**
+   * Number of rows fetched from the database per round trip.
+   */
+  static final int FETCH_SIZE = 1_000;
+
+  private static final String FIND_SUMMARIES_SQL =
+      "SELECT id, name, price, CASE WHEN inventory_policy = 'UNLIMITED' "
+          + "OR stock > reserved_stock THEN TRUE ELSE FALSE END AS in_stock "
+          + "FROM products ORDER BY id";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public ProductExportRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Pass every product summary, ordered by ID, to the given action.
+   *
+   * <p>Rows are read through a forward-only, read-only cursor {@link #FETCH_SIZE} rows at a
+   * time, and only the current row is held in memory. PostgreSQL only honours the fetch size
+   * inside a transaction, so callers should run this in a read-only transaction.
+   *
+   * @param action the action to run for each product summary
+   */
+  public void forEachSummary(Consumer<ProductSummary> action) {
+    jdbcTemplate.query(connection -> {
+      PreparedStatement statement = connection.prepareStatement(FIND_SUMMARIES_SQL,
+          ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      statement.setFetchSize(FETCH_SIZE);
+      return statement;
+    }, (RowCallbackHandler) rs -> action.accept(new ProductSummary(rs.getLong("id"),
+        rs.getString("name"), rs.getBigDecimal("price"), rs.getBoolean("in_stock"))));
+  }
+}
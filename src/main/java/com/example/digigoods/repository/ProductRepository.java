@@ -1,21 +1,71 @@
 package com.example.digigoods.repository;
 
+import com.example.digigoods.dto.ProductSummary;
 import com.example.digigoods.model.Product;
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
  * Repository interface for Product entity.
+ *
+ * <p>Catalog pages are read with keyset queries, which continue after the last row of the
+ * previous page instead of skipping an offset. Each sort order has an index covering its
+ * sort key and the ID.
  */
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+  String SUMMARY = "SELECT new com.example.digigoods.dto.ProductSummary(p.id, p.name, p.price, "
+      + "CASE WHEN p.inventoryPolicy = com.example.digigoods.model.InventoryPolicy.UNLIMITED "
+      + "OR p.stock > p.reservedStock THEN true ELSE false END) FROM Product p ";
+
   /**
    * Find all products by their IDs.
    *
-   * @param ids the list of product IDs
+   * @param ids the product IDs
    * @return list of products
    */
-  List<Product> findAllByIdIn(List<Long> ids);
+  List<Product> findAllByIdIn(Collection<Long> ids);
+
+  /**
+   * Find the next page of product summaries ordered by ID.
+   *
+   * @param afterId the ID of the last product of the previous page
+   * @param limit the maximum number of products
+   * @return product summaries
+   */
+  @Query(SUMMARY + "WHERE p.id > :afterId ORDER BY p.id")
+  List<ProductSummary> findSummariesOrderedById(@Param("afterId") long afterId, Limit limit);
+
+  /**
+   * Find the next page of product summaries ordered by price, then ID.
+   *
+   * @param afterPrice the price of the last product of the previous page
+   * @param afterId the ID of the last product of the previous page
+   * @param limit the maximum number of products
+   * @return product summaries
+   */
+  @Query(SUMMARY + "WHERE (p.price, p.id) > (:afterPrice, :afterId) ORDER BY p.price, p.id")
+  List<ProductSummary> findSummariesOrderedByPrice(@Param("afterPrice") BigDecimal afterPrice,
+                                                   @Param("afterId") long afterId,
+                                                   Limit limit);
+
+  /**
+   * Find the next page of product summaries ordered by name, then ID.
+   *
+   * @param afterName the name of the last product of the previous page
+   * @param afterId the ID of the last product of the previous page
+   * @param limit the maximum number of products
+   * @return product summaries
+   */
+  @Query(SUMMARY + "WHERE (p.name, p.id) > (:afterName, :afterId) ORDER BY p.name, p.id")
+  List<ProductSummary> findSummariesOrderedByName(@Param("afterName") String afterName,
+                                                  @Param("afterId") long afterId,
+                                                  Limit limit);
 }
@@ -0,0 +1,186 @@
+package com.example.digigoods.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * JDBC repository for atomic stock updates on the products table.
+ */
+@Repository
+public class ProductStockRepository {
+
+  private static final String DECREMENT_STOCK_SQL =
+      "UPDATE products SET stock = stock - ? "
+          + "WHERE id = ? AND inventory_policy = 'FINITE' AND stock - reserved_stock >= ?";
+
+  private static final String RESERVE_STOCK_SQL =
+      "UPDATE products SET reserved_stock = reserved_stock + ? "
+          + "WHERE id = ? AND stock - reserved_stock >= ?";
+
+  private static final String RELEASE_RESERVED_STOCK_SQL =
+      "UPDATE products SET reserved_stock = reserved_stock - ? "
+          + "WHERE id = ? AND reserved_stock >= ?";
+
+  private static final String COMMIT_RESERVED_STOCK_SQL =
+      "UPDATE products SET stock = stock - ?, reserved_stock = reserved_stock - ? "
+          + "WHERE id = ? AND reserved_stock >= ? AND stock >= ?";
+
+  private static final String LOCK_STOCK_SQL =
+      "SELECT CASE WHEN inventory_policy = 'UNLIMITED' THEN ? ELSE stock - reserved_stock END "
+          + "FROM products WHERE id = ? FOR UPDATE";
+
+  private static final String INCREMENT_STOCK_SQL =
+      "UPDATE products SET stock = stock + ? WHERE id = ? AND inventory_policy = 'FINITE'";
+
+  private static final String FIND_STOCK_SQL =
+      "SELECT id, stock - reserved_stock AS available FROM products WHERE id IN (:ids)";
+
+  private static final String FIND_UNLIMITED_IDS_SQL =
+      "SELECT id FROM products WHERE id IN (:ids) AND inventory_policy = 'UNLIMITED'";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+  public ProductStockRepository(JdbcTemplate jdbcTemplate,
+                                NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+  }
+
+  /**
+   * Conditionally decrement stock for each product in a single JDBC batch.
+   *
+   * <p>Rows are updated in the iteration order of the given map, so callers should pass
+   * a map sorted by product ID to keep row lock acquisition order consistent across
+   * transactions.
+   *
+   * <p>Products with unlimited inventory are never decremented, whatever the caller
+   * assumed their inventory policy to be.
+   *
+   * @param quantities requested quantity per product ID, sorted by product ID
+   * @return update count per product, in the iteration order of the map (0 means the
+   *         product does not exist, has insufficient stock or has unlimited inventory)
+   */
+  public int[] decrementStock(SortedMap<Long, Integer> quantities) {
+    return jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, batchArgs(quantities));
+  }
+
+  /**
+   * Conditionally add to the reserved stock of each product in a single JDBC batch.
+   *
+   * @param quantities quantity to reserve per product ID, sorted by product ID
+   * @return update count per product, in the iteration order of the map (0 means the
+   *         product does not exist or has insufficient available stock)
+   */
+  public int[] reserveStock(SortedMap<Long, Integer> quantities) {
+    return jdbcTemplate.batchUpdate(RESERVE_STOCK_SQL, batchArgs(quantities));
+  }
+
+  /**
+   * Release reserved stock of each product in a single JDBC batch.
+   *
+   * @param quantities quantity to release per product ID, sorted by product ID
+   * @return update count per product, in the iteration order of the map
+   */
+  public int[] releaseReservedStock(SortedMap<Long, Integer> quantities) {
+    return jdbcTemplate.batchUpdate(RELEASE_RESERVED_STOCK_SQL, batchArgs(quantities));
+  }
+
+  /**
+   * Turn reserved stock into sold stock for each product in a single JDBC batch.
+   *
+   * @param quantities reserved quantity to sell per product ID, sorted by product ID
+   * @return update count per product, in the iteration order of the map
+   */
+  public int[] commitReservedStock(SortedMap<Long, Integer> quantities) {
+    List<Object[]> batchArgs = new ArrayList<>(quantities.size());
+    for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+      Integer quantity = entry.getValue();
+      batchArgs.add(new Object[]{quantity, quantity, entry.getKey(), quantity, quantity});
+    }
+    return jdbcTemplate.batchUpdate(COMMIT_RESERVED_STOCK_SQL, batchArgs);
+  }
+
+  /**
+   * Read the currently available stock, excluding reserved units, for the given products.
+   *
+   * @param productIds the product IDs
+   * @return available stock per product ID; missing products are absent from the map
+   */
+  public Map<Long, Integer> findStockByIds(Collection<Long> productIds) {
+    Map<Long, Integer> stock = new HashMap<>();
+    if (productIds.isEmpty()) {
+      return stock;
+    }
+    namedParameterJdbcTemplate.query(FIND_STOCK_SQL,
+        new MapSqlParameterSource("ids", productIds),
+        rs -> {
+          stock.put(rs.getLong("id"), rs.getInt("available"));
+        });
+    return stock;
+  }
+
+  /**
+   * Find which of the given products have unlimited inventory.
+   *
+   * @param productIds the product IDs
+   * @return IDs of the products with unlimited inventory
+   */
+  public List<Long> findUnlimitedIds(Collection<Long> productIds) {
+    if (productIds.isEmpty()) {
+      return List.of();
+    }
+    return namedParameterJdbcTemplate.queryForList(FIND_UNLIMITED_IDS_SQL,
+        new MapSqlParameterSource("ids", productIds), Long.class);
+  }
+
+  /**
+   * Take up to the given quantity out of a product's stock.
+   *
+   * <p>The product row is locked for the rest of the current transaction, so this should
+   * be called from a short transaction of its own. A product with unlimited inventory grants
+   * the whole quantity without its stock being decremented.
+   *
+   * @param productId the product ID
+   * @param maxQuantity the maximum quantity to take
+   * @return the quantity actually taken, 0 if the product has no available stock or is missing
+   */
+  public int leaseStock(Long productId, int maxQuantity) {
+    List<Integer> stock = jdbcTemplate.queryForList(LOCK_STOCK_SQL, Integer.class, maxQuantity,
+        productId);
+    if (stock.isEmpty()) {
+      return 0;
+    }
+    int granted = Math.min(maxQuantity, stock.get(0));
+    if (granted > 0) {
+      jdbcTemplate.update(DECREMENT_STOCK_SQL, granted, productId, granted);
+    }
+    return granted;
+  }
+
+  /**
+   * Add quantity back to a product's stock, unless it has unlimited inventory.
+   *
+   * @param productId the product ID
+   * @param quantity the quantity to add
+   */
+  public void incrementStock(Long productId, int quantity) {
+    jdbcTemplate.update(INCREMENT_STOCK_SQL, quantity, productId);
+  }
+
+  private static List<Object[]> batchArgs(SortedMap<Long, Integer> quantities) {
+    List<Object[]> batchArgs = new ArrayList<>(quantities.size());
+    for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+      batchArgs.add(new Object[]{entry.getValue(), entry.getKey(), entry.getValue()});
+    }
+    return batchArgs;
+  }
+}
@@ -0,0 +1,61 @@
+package com.example.digigoods.repository;
+
+import com.example.digigoods.model.ReservationStatus;
+import com.example.digigoods.model.StockReservation;
+import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for StockReservation entity.
+ */
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+  /**
+   * Find all rows of a reservation in the given status.
+   *
+   * @param reservationKey the reservation key
+   * @param status the reservation status
+   * @return list of reservation rows
+   */
+  List<StockReservation> findAllByReservationKeyAndStatus(String reservationKey,
+                                                          ReservationStatus status);
+
+  /**
+   * Find and lock reservation rows in the given status that expired before a point in time.
+   *
+   * @param status the reservation status
+   * @param time the point in time
+   * @param pageable the batch to fetch
+   * @return list of locked reservation rows
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  List<StockReservation> findAllByStatusAndExpiresAtBeforeOrderById(ReservationStatus status,
+                                                                   LocalDateTime time,
+                                                                   Pageable pageable);
+
+  /**
+   * Move all rows of a reservation from one status to another, skipping expired rows.
+   *
+   * @param reservationKey the reservation key
+   * @param from the expected current status
+   * @param to the new status
+   * @param now the current time
+   * @return number of rows updated
+   */
+  @Modifying
+  @Query("UPDATE StockReservation r SET r.status = :to "
+      + "WHERE r.reservationKey = :reservationKey AND r.status = :from AND r.expiresAt > :now")
+  int transitionStatus(@Param("reservationKey") String reservationKey,
+                       @Param("from") ReservationStatus from,
+                       @Param("to") ReservationStatus to,
+                       @Param("now") LocalDateTime now);
+}
@@ -2,7 +2,8 @@ package com.example.digigoods.security;
 
 import com.example.digigoods.model.User;
 import com.example.digigoods.repository.UserRepository;
-import java.util.ArrayList;
+import java.util.List;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -28,7 +29,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     return new org.springframework.security.core.userdetails.User(
         user.getUsername(),
         user.getPassword(),
-        new ArrayList<>()
+        List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
     );
   }
 }
@@ -0,0 +1,178 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.config.CheckoutProperties;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.dto.OrderStatusResponse;
+import com.example.digigoods.exception.CheckoutOverloadedException;
+import com.example.digigoods.exception.OrderStatusNotFoundException;
+import com.example.digigoods.exception.UnauthorizedAccessException;
+import com.example.digigoods.model.AsyncCheckoutStatus;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service running checkouts in the background so request threads are not held during them.
+ *
+ * <p>Accepted checkouts are queued to a bounded pool of virtual-thread workers and tracked
+ * by an order token that clients poll for the outcome. When the queue is full, new
+ * checkouts are rejected instead of piling up. Statuses are kept in memory on the node
+ * that accepted the checkout and are forgotten after the configured retention.
+ */
+@Service
+public class AsyncCheckoutService {
+
+  private static final Logger log = LoggerFactory.getLogger(AsyncCheckoutService.class);
+
+  private final CheckoutProperties.Async properties;
+  private final Clock clock;
+  private final ThreadPoolExecutor executor;
+  private final Map<String, AsyncCheckout> checkouts = new ConcurrentHashMap<>();
+
+  @Autowired
+  public AsyncCheckoutService(CheckoutProperties checkoutProperties) {
+    this(checkoutProperties, Clock.systemUTC());
+  }
+
+  AsyncCheckoutService(CheckoutProperties checkoutProperties, Clock clock) {
+    this.properties = checkoutProperties.getAsync();
+    this.clock = clock;
+    this.executor = new ThreadPoolExecutor(properties.getWorkers(), properties.getWorkers(),
+        0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+        Thread.ofVirtual().name("checkout-async-", 0).factory());
+  }
+
+  /**
+   * Accept a checkout for background processing.
+   *
+   * @param request the checkout request
+   * @param authenticatedUserId the ID of the authenticated user
+   * @param checkout the checkout to run
+   * @return the order token to poll the status with
+   * @throws UnauthorizedAccessException if user tries to place an order for another user
+   * @throws CheckoutOverloadedException if too many checkouts are already waiting
+   */
+  public String submit(CheckoutRequest request, Long authenticatedUserId,
+                       Supplier<OrderResponse> checkout) {
+    if (!request.getUserId().equals(authenticatedUserId)) {
+      throw new UnauthorizedAccessException("User cannot place order for another user");
+    }
+
+    String orderToken = UUID.randomUUID().toString();
+    AsyncCheckout asyncCheckout = new AsyncCheckout(authenticatedUserId);
+    checkouts.put(orderToken, asyncCheckout);
+    try {
+      executor.execute(() -> run(asyncCheckout, checkout));
+    } catch (RejectedExecutionException e) {
+      checkouts.remove(orderToken);
+      throw new CheckoutOverloadedException();
+    }
+    return orderToken;
+  }
+
+  /**
+   * Get the status of an asynchronous checkout.
+   *
+   * @param orderToken the order token returned when the checkout was accepted
+   * @param authenticatedUserId the ID of the authenticated user
+   * @return the checkout status, with the order response once it has completed
+   * @throws OrderStatusNotFoundException if the token is unknown, expired or belongs to
+   *         another user
+   */
+  public OrderStatusResponse getStatus(String orderToken, Long authenticatedUserId) {
+    AsyncCheckout asyncCheckout = checkouts.get(orderToken);
+    // Do not reveal other users' tokens
+    if (asyncCheckout == null || !asyncCheckout.userId.equals(authenticatedUserId)) {
+      throw new OrderStatusNotFoundException(orderToken);
+    }
+    return asyncCheckout.toResponse(orderToken);
+  }
+
+  /**
+   * Forget the statuses of checkouts that finished before the retention period.
+   */
+  @Scheduled(fixedDelayString = "${digigoods.checkout.async.purge-interval-ms:60000}")
+  public void purgeFinished() {
+    Instant finishedBefore = clock.instant().minus(properties.getStatusRetention());
+    checkouts.values().removeIf(asyncCheckout -> asyncCheckout.finishedBefore(finishedBefore));
+  }
+
+  /**
+   * Stop accepting checkouts and wait briefly for the running ones.
+   */
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+        log.warn("{} asynchronous checkouts did not finish before shutdown",
+            executor.getQueue().size() + executor.getActiveCount());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void run(AsyncCheckout asyncCheckout, Supplier<OrderResponse> checkout) {
+    try {
+      asyncCheckout.complete(checkout.get(), clock.instant());
+    } catch (RuntimeException e) {
+      asyncCheckout.fail(CheckoutFailures.clientMessage(e), clock.instant());
+    }
+  }
+
+  private static final class AsyncCheckout {
+
+    private final Long userId;
+    private volatile AsyncCheckoutStatus status = AsyncCheckoutStatus.PENDING;
+    private volatile OrderResponse response;
+    private volatile String failureMessage;
+    private volatile Instant finishedAt;
+
+    private AsyncCheckout(Long userId) {
+      this.userId = userId;
+    }
+
+    private void complete(OrderResponse orderResponse, Instant now) {
+      response = orderResponse;
+      finishedAt = now;
+      status = AsyncCheckoutStatus.COMPLETED;
+    }
+
+    private void fail(String message, Instant now) {
+      failureMessage = message;
+      finishedAt = now;
+      status = AsyncCheckoutStatus.FAILED;
+    }
+
+    private boolean finishedBefore(Instant time) {
+      Instant finished = finishedAt;
+      return finished != null && finished.isBefore(time);
+    }
+
+    private OrderStatusResponse toResponse(String orderToken) {
+      // Read the status first, it is written last
+      AsyncCheckoutStatus current = status;
+      return switch (current) {
+        case PENDING -> new OrderStatusResponse(orderToken, current, null, null);
+        case COMPLETED -> new OrderStatusResponse(orderToken, current, response.getMessage(),
+            response.getFinalPrice());
+        case FAILED -> new OrderStatusResponse(orderToken, current, failureMessage, null);
+      };
+    }
+  }
+}
@@ -0,0 +1,176 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.dto.BatchCheckoutResponse;
+import com.example.digigoods.dto.BatchOrderResult;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.DiscountType;
+import com.example.digigoods.model.Product;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service placing many orders in one call.
+ *
+ * <p>The products and discounts of all carts are loaded with one query each, then the
+ * carts are validated and priced in parallel from memory. The valid orders are written in
+ * one transaction with aggregated stock and discount updates. If that transaction fails,
+ * the orders are written one by one, so a cart that cannot be placed only fails itself.
+ * Quote tokens are not redeemed, every cart is priced against the current catalog.
+ */
+@Service
+public class BatchCheckoutService {
+
+  private static final Logger log = LoggerFactory.getLogger(BatchCheckoutService.class);
+
+  private final CheckoutService checkoutService;
+  private final ProductService productService;
+  private final DiscountService discountService;
+  private final DiscountIndex discountIndex;
+  private final OrderWriter orderWriter;
+  private final TransactionTemplate transactionTemplate;
+  private final TransactionTemplate readOnlyTransactionTemplate;
+
+  public BatchCheckoutService(CheckoutService checkoutService,
+                              ProductService productService,
+                              DiscountService discountService,
+                              DiscountIndex discountIndex,
+                              OrderWriter orderWriter,
+                              PlatformTransactionManager transactionManager) {
+    this.checkoutService = checkoutService;
+    this.productService = productService;
+    this.discountService = discountService;
+    this.discountIndex = discountIndex;
+    this.orderWriter = orderWriter;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate.setReadOnly(true);
+  }
+
+  /**
+   * Process a batch of checkout requests.
+   *
+   * @param requests the checkout requests
+   * @param authenticatedUserId the ID of the authenticated user
+   * @return the outcome of each order, in the order of the requests
+   */
+  public BatchCheckoutResponse processBatch(List<CheckoutRequest> requests,
+                                            Long authenticatedUserId) {
+    CheckoutCatalog catalog = readOnlyTransactionTemplate.execute(
+        status -> loadCatalog(requests));
+
+    // Pricing only reads the loaded entities, so the carts are independent of each other
+    List<Outcome> outcomes = IntStream.range(0, requests.size())
+        .parallel()
+        .mapToObj(index -> price(index, requests.get(index), authenticatedUserId, catalog))
+        .toList();
+
+    write(outcomes.stream().filter(outcome -> outcome.pricedOrder != null).toList());
+
+    List<BatchOrderResult> results = new ArrayList<>(outcomes.size());
+    int created = 0;
+    for (Outcome outcome : outcomes) {
+      BatchOrderResult result = outcome.toResult();
+      if (result.isCreated()) {
+        created++;
+      }
+      results.add(result);
+    }
+    return new BatchCheckoutResponse(created, results.size() - created, results);
+  }
+
+  private CheckoutCatalog loadCatalog(List<CheckoutRequest> requests) {
+    Set<Long> productIds = new HashSet<>();
+    Set<String> discountCodes = new HashSet<>();
+    for (CheckoutRequest request : requests) {
+      productIds.addAll(request.quantities().keySet());
+      if (request.getDiscountCodes() != null) {
+        discountCodes.addAll(request.getDiscountCodes());
+      }
+    }
+
+    List<Product> products = productService.findProductsByIds(productIds);
+    List<Discount> discounts = discountService.findDiscountsByCodes(discountCodes);
+
+    // Build the discount index once here instead of in one of the pricing threads
+    discountIndex.forDiscounts(discounts.stream()
+        .filter(discount -> discount.getType() == DiscountType.PRODUCT_SPECIFIC)
+        .toList());
+    return CheckoutCatalog.preloaded(products, discounts, discountService);
+  }
+
+  private Outcome price(int index, CheckoutRequest request, Long authenticatedUserId,
+                        CheckoutCatalog catalog) {
+    Outcome outcome = new Outcome(index);
+    try {
+      outcome.pricedOrder = checkoutService.priceOrder(request, authenticatedUserId, catalog);
+    } catch (RuntimeException e) {
+      outcome.failureMessage = CheckoutFailures.clientMessage(e);
+    }
+    return outcome;
+  }
+
+  private void write(List<Outcome> priced) {
+    if (priced.isEmpty()) {
+      return;
+    }
+
+    List<PricedOrder> orders = priced.stream().map(outcome -> outcome.pricedOrder).toList();
+    try {
+      List<OrderResponse> responses =
+          transactionTemplate.execute(status -> orderWriter.writeAll(orders));
+      for (int i = 0; i < priced.size(); i++) {
+        priced.get(i).response = responses.get(i);
+      }
+    } catch (RuntimeException e) {
+      if (priced.size() == 1) {
+        priced.get(0).failureMessage = CheckoutFailures.clientMessage(e);
+        return;
+      }
+
+      // Find out which orders failed by writing them one by one
+      log.debug("Batch of {} orders failed, retrying individually", priced.size(), e);
+      for (Outcome outcome : priced) {
+        writeAlone(outcome);
+      }
+    }
+  }
+
+  private void writeAlone(Outcome outcome) {
+    try {
+      outcome.response = transactionTemplate.execute(
+          status -> orderWriter.write(outcome.pricedOrder));
+    } catch (RuntimeException e) {
+      outcome.failureMessage = CheckoutFailures.clientMessage(e);
+    }
+  }
+
+  private static final class Outcome {
+
+    private final int index;
+    private PricedOrder pricedOrder;
+    private OrderResponse response;
+    private String failureMessage;
+
+    private Outcome(int index) {
+      this.index = index;
+    }
+
+    private BatchOrderResult toResult() {
+      if (response != null) {
+        return new BatchOrderResult(index, true, response.getMessage(),
+            response.getFinalPrice());
+      }
+      return new BatchOrderResult(index, false, failureMessage, null);
+    }
+  }
+}
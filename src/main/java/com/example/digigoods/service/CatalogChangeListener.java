@@ -0,0 +1,40 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.Product;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener recording product and discount changes in the local change counter of
+ * {@link CatalogVersions}. The catalog versions themselves are bumped by database triggers.
+ *
+ * <p>Hibernate creates the listener while building the entity manager factory, so its
+ * dependency, which reaches the database through it, is injected lazily.
+ */
+@Component
+public class CatalogChangeListener {
+
+  private final CatalogVersions catalogVersions;
+
+  public CatalogChangeListener(@Lazy CatalogVersions catalogVersions) {
+    this.catalogVersions = catalogVersions;
+  }
+
+  /**
+   * Record a created, updated or removed catalog entity.
+   *
+   * @param entity the product or discount
+   */
+  @PostPersist
+  @PostUpdate
+  @PostRemove
+  public void onChange(Object entity) {
+    if (entity instanceof Product || entity instanceof Discount) {
+      catalogVersions.changedLocally();
+    }
+  }
+}
@@ -0,0 +1,218 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.config.CatalogProperties;
+import com.example.digigoods.dto.ProductPage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Pre-rendered JSON of the public catalog responses.
+ *
+ * <p>The discount list and the first page of every product sort order at the default page
+ * size are serialized once per snapshot, each as identity and gzip bytes, and served as
+ * they are. The first request builds the snapshot. Afterwards a request that finds a
+ * catalog change made on this node, or the snapshot older than
+ * {@code digigoods.catalog.snapshot.max-age}, is still answered from the current snapshot
+ * while one background rebuild replaces it. The age limit bounds how long stock and
+ * remaining uses, which are updated outside JPA, and changes made on other nodes are out
+ * of date. Only the local change counter of {@link CatalogVersions} is checked per request,
+ * so serving a snapshot does not query the database.
+ */
+@Service
+public class CatalogSnapshots {
+
+  private static final Logger log = LoggerFactory.getLogger(CatalogSnapshots.class);
+
+  private final ProductCatalogService productCatalogService;
+  private final DiscountService discountService;
+  private final CatalogVersions catalogVersions;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transactionTemplate;
+  private final CatalogProperties.Snapshot properties;
+  private final Clock clock;
+  private final Executor rebuildExecutor;
+  private final AtomicBoolean rebuilding = new AtomicBoolean();
+  private volatile Snapshot snapshot;
+
+  @Autowired
+  public CatalogSnapshots(ProductCatalogService productCatalogService,
+                          DiscountService discountService, CatalogVersions catalogVersions,
+                          ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                          CatalogProperties properties) {
+    this(productCatalogService, discountService, catalogVersions, objectMapper,
+        transactionManager, properties, Clock.systemUTC(),
+        task -> Thread.ofVirtual().name("catalog-snapshot-rebuild").start(task));
+  }
+
+  CatalogSnapshots(ProductCatalogService productCatalogService,
+                   DiscountService discountService, CatalogVersions catalogVersions,
+                   ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                   CatalogProperties properties, Clock clock, Executor rebuildExecutor) {
+    this.productCatalogService = productCatalogService;
+    this.discountService = discountService;
+    this.catalogVersions = catalogVersions;
+    this.objectMapper = objectMapper;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+    this.properties = properties.getSnapshot();
+    this.clock = clock;
+    this.rebuildExecutor = rebuildExecutor;
+  }
+
+  /**
+   * Get the rendered list of all discounts.
+   *
+   * @return the rendered discounts, or empty if snapshots are disabled
+   */
+  public Optional<RenderedJson> discounts() {
+    if (!properties.isEnabled()) {
+      return Optional.empty();
+    }
+    return Optional.of(current().discounts());
+  }
+
+  /**
+   * Get the rendered first page of the product catalog at the default page size.
+   *
+   * @param sort the sort order
+   * @return the rendered page, or empty if snapshots are disabled or the sort order is
+   *         unknown
+   */
+  public Optional<RenderedPage> firstProductPage(String sort) {
+    if (!properties.isEnabled()) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(current().firstProductPages().get(sort.toLowerCase(Locale.ROOT)));
+  }
+
+  private Snapshot current() {
+    Snapshot current = snapshot;
+    if (current == null) {
+      synchronized (this) {
+        if (snapshot == null) {
+          snapshot = build();
+        }
+        return snapshot;
+      }
+    }
+
+    if (current.localChanges() != catalogVersions.localChanges()
+        || current.builtAt().plus(properties.getMaxAge()).isBefore(clock.instant())) {
+      rebuildInBackground();
+    }
+    return current;
+  }
+
+  private void rebuildInBackground() {
+    if (!rebuilding.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      rebuildExecutor.execute(() -> {
+        try {
+          snapshot = build();
+        } catch (RuntimeException e) {
+          log.warn("Rebuilding the catalog snapshot failed, serving the previous one", e);
+        } finally {
+          rebuilding.set(false);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      rebuilding.set(false);
+    }
+  }
+
+  private Snapshot build() {
+    // Taken before reading, so a change committed meanwhile triggers another rebuild
+    long localChanges = catalogVersions.localChanges();
+    Instant builtAt = clock.instant();
+    return transactionTemplate.execute(status -> {
+      Map<String, RenderedPage> firstProductPages = new HashMap<>();
+      for (String sort : ProductCatalogService.SORT_ORDERS) {
+        ProductPage page = productCatalogService.getPage(sort, null,
+            ProductCatalogService.DEFAULT_PAGE_SIZE);
+        firstProductPages.put(sort, new RenderedPage(render(page.getItems()), page.getNext()));
+      }
+      return new Snapshot(localChanges, builtAt,
+          render(discountService.getAllDiscounts()), Map.copyOf(firstProductPages));
+    });
+  }
+
+  private RenderedJson render(Object value) {
+    byte[] identity;
+    try {
+      identity = objectMapper.writeValueAsBytes(value);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Rendering the catalog snapshot failed", e);
+    }
+
+    ByteArrayOutputStream gzip = new ByteArrayOutputStream(identity.length / 4 + 64);
+    try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+      out.write(identity);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return new RenderedJson(contentTag(identity), identity, gzip.toByteArray());
+  }
+
+  /**
+   * Derive a tag from the rendered bytes of a response body. Equal bodies get equal tags,
+   * whichever node rendered them and however their data was changed.
+   *
+   * @param body the rendered body
+   * @return the URL-safe Base64 encoded SHA-256 hash of the body
+   */
+  public static String contentTag(byte[] body) {
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private record Snapshot(long localChanges, Instant builtAt,
+                          RenderedJson discounts, Map<String, RenderedPage> firstProductPages) {
+  }
+
+  /**
+   * One rendered page of the product catalog.
+   *
+   * @param items the rendered products of the page
+   * @param next the cursor of the next page, or null on the last page
+   */
+  public record RenderedPage(RenderedJson items, String next) {
+  }
+
+  /**
+   * One rendered JSON response body.
+   *
+   * @param contentTag the {@link #contentTag(byte[])} of the uncompressed JSON
+   * @param identity the uncompressed JSON
+   * @param gzip the gzip compressed JSON
+   */
+  public record RenderedJson(String contentTag, byte[] identity, byte[] gzip) {
+  }
+}
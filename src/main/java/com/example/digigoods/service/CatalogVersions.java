@@ -0,0 +1,87 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.repository.CatalogVersionRepository;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Versions of the product and discount catalog.
+ *
+ * <p>The versions are kept in the catalog_versions row of the database, bumped by triggers
+ * whenever a product or discount column prices or discount rules depend on changes, whether
+ * the change is made through JPA on any node, plain SQL or a migration. Stock and remaining
+ * uses change on every checkout and are left out. A version read before reading catalog
+ * data is therefore guaranteed to differ from the current version once a change to that
+ * data has been committed, and versions read on different nodes can be compared.
+ *
+ * <p>Reading the version costs a query. Callers that only need a cheap hint of changes made
+ * on this node, to refresh derived data early, use {@link #localChanges()} instead. It is
+ * bumped by {@link CatalogChangeListener} when a change is flushed and once more after its
+ * transaction completes.
+ */
+@Service
+public class CatalogVersions {
+
+  private final CatalogVersionRepository catalogVersionRepository;
+  private final AtomicLong localChanges = new AtomicLong();
+
+  public CatalogVersions(CatalogVersionRepository catalogVersionRepository) {
+    this.catalogVersionRepository = catalogVersionRepository;
+  }
+
+  /**
+   * Read the current catalog version from the database.
+   *
+   * @return the current version
+   */
+  public Version current() {
+    CatalogVersionRepository.Versions versions = catalogVersionRepository.find();
+    return new Version(versions.products(), versions.discounts());
+  }
+
+  /**
+   * Read the current catalog version from the database and keep it from changing until the
+   * current transaction ends.
+   *
+   * @return the current version
+   */
+  public Version lockCurrent() {
+    CatalogVersionRepository.Versions versions = catalogVersionRepository.lockShared();
+    return new Version(versions.products(), versions.discounts());
+  }
+
+  /**
+   * Get the number of catalog changes made through JPA on this node.
+   *
+   * @return the counter, only meaningful when compared to an earlier value on this node
+   */
+  public long localChanges() {
+    return localChanges.get();
+  }
+
+  /**
+   * Record a change to a product or discount made through JPA on this node.
+   */
+  public void changedLocally() {
+    localChanges.incrementAndGet();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          localChanges.incrementAndGet();
+        }
+      });
+    }
+  }
+
+  /**
+   * Catalog version at one point in time.
+   *
+   * @param products the product version
+   * @param discounts the discount version
+   */
+  public record Version(long products, long discounts) {
+  }
+}
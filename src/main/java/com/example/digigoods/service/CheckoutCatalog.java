@@ -0,0 +1,101 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.exception.InvalidDiscountException;
+import com.example.digigoods.exception.ProductNotFoundException;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.Product;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Source of the products and discounts a checkout is priced with.
+ *
+ * <p>A single checkout reads them from the database. A batch of checkouts loads the
+ * products and discounts of all its carts up front and prices each cart from memory.
+ */
+interface CheckoutCatalog {
+
+  /**
+   * Get products by their IDs and validate they exist.
+   *
+   * @param productIds the distinct product IDs
+   * @return list of products
+   * @throws ProductNotFoundException if any product is not found
+   */
+  List<Product> getProducts(Collection<Long> productIds);
+
+  /**
+   * Get discounts by their codes and validate they can be used.
+   *
+   * @param discountCodes the discount codes, or null
+   * @return list of valid discounts
+   * @throws InvalidDiscountException if any discount is unknown or invalid
+   */
+  List<Discount> getValidDiscounts(List<String> discountCodes);
+
+  /**
+   * Create a catalog reading from the database on every call.
+   *
+   * @param productService the product service
+   * @param discountService the discount service
+   * @return the catalog
+   */
+  static CheckoutCatalog live(ProductService productService, DiscountService discountService) {
+    return new CheckoutCatalog() {
+      @Override
+      public List<Product> getProducts(Collection<Long> productIds) {
+        return productService.getProductsByIds(productIds);
+      }
+
+      @Override
+      public List<Discount> getValidDiscounts(List<String> discountCodes) {
+        return discountService.validateAndGetDiscounts(discountCodes);
+      }
+    };
+  }
+
+  /**
+   * Create a catalog serving already loaded products and discounts.
+   *
+   * @param products the loaded products
+   * @param discounts the loaded discounts
+   * @param discountService the discount service validating the discounts
+   * @return the catalog
+   */
+  static CheckoutCatalog preloaded(List<Product> products, List<Discount> discounts,
+                                   DiscountService discountService) {
+    Map<Long, Product> productsById = products.stream()
+        .collect(Collectors.toMap(Product::getId, Function.identity()));
+    Map<String, Discount> discountsByCode = discounts.stream()
+        .collect(Collectors.toMap(Discount::getCode, Function.identity()));
+
+    return new CheckoutCatalog() {
+      @Override
+      public List<Product> getProducts(Collection<Long> productIds) {
+        List<Product> found = new ArrayList<>(productIds.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long productId : productIds) {
+          Product product = productsById.get(productId);
+          if (product == null) {
+            missingIds.add(productId);
+          } else {
+            found.add(product);
+          }
+        }
+        if (!missingIds.isEmpty()) {
+          throw new ProductNotFoundException("Products not found with IDs: " + missingIds);
+        }
+        return found;
+      }
+
+      @Override
+      public List<Discount> getValidDiscounts(List<String> discountCodes) {
+        return discountService.validateDiscounts(discountCodes, discountsByCode);
+      }
+    };
+  }
+}
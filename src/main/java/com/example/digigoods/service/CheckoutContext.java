@@ -0,0 +1,67 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.Product;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * State of one checkout passed through the checkout stages.
+ *
+ * <p>Each entity is loaded once by the stage that needs it first and read from the context
+ * by the later stages. The cart is reduced to a quantity per distinct product up front, so
+ * the stages run once per product rather than once per unit. Unit prices are converted to
+ * cents once when the products are set.
+ */
+@Getter
+final class CheckoutContext {
+
+  private final CheckoutRequest request;
+  private final SortedMap<Long, Integer> quantities;
+  private List<Product> products = List.of();
+  private Map<Long, Long> unitPrices = Map.of();
+  private List<Discount> discounts = List.of();
+
+  @Setter
+  private long originalSubtotal;
+
+  @Setter
+  private long productDiscountedSubtotal;
+
+  @Setter
+  private long finalPrice;
+
+  CheckoutContext(CheckoutRequest request) {
+    this.request = request;
+    this.quantities = request.quantities();
+  }
+
+  void setProducts(List<Product> products) {
+    Map<Long, Long> prices = new HashMap<>(products.size() * 2);
+    for (Product product : products) {
+      prices.put(product.getId(), PricingEngine.toCents(product.getPrice()));
+    }
+    this.products = products;
+    this.unitPrices = prices;
+  }
+
+  void setDiscounts(List<Discount> discounts) {
+    this.discounts = discounts;
+  }
+
+  long unitPriceOf(Long productId) {
+    return unitPrices.get(productId);
+  }
+
+  PricedOrder toPricedOrder() {
+    return new PricedOrder(request, quantities, products, discounts,
+        PricingEngine.toAmount(originalSubtotal),
+        PricingEngine.toAmount(productDiscountedSubtotal),
+        PricingEngine.toAmount(finalPrice));
+  }
+}
@@ -0,0 +1,33 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.exception.OrderStatusNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Failure messages of checkouts whose outcome is reported in a response body instead of
+ * through the exception handler.
+ */
+final class CheckoutFailures {
+
+  private static final Logger log = LoggerFactory.getLogger(CheckoutFailures.class);
+
+  private CheckoutFailures() {
+  }
+
+  /**
+   * Get the message to report to the client for a failed checkout.
+   *
+   * @param e the exception that failed the checkout
+   * @return the exception message, or a generic message for unexpected exceptions
+   */
+  static String clientMessage(RuntimeException e) {
+    // Application exceptions carry messages meant for the client, anything else does not
+    if (e.getClass().getPackageName().equals(
+        OrderStatusNotFoundException.class.getPackageName())) {
+      return e.getMessage();
+    }
+    log.error("Checkout failed unexpectedly", e);
+    return "An unexpected error occurred";
+  }
+}
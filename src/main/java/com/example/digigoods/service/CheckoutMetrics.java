@@ -0,0 +1,153 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.config.CheckoutProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Micrometer timers for the stages of a checkout.
+ *
+ * <p>Each stage is recorded by the {@code digigoods.checkout.stage} timer, tagged with the
+ * stage and whether it succeeded, and publishes a percentile histogram. A failing stage also
+ * increments {@code digigoods.checkout.failures}, tagged with the stage and the simple name
+ * of the exception class. When {@code digigoods.checkout.stage-metrics} is disabled the
+ * stages run without being timed and no meters are registered.
+ */
+@Component
+public class CheckoutMetrics {
+
+  private final MeterRegistry meterRegistry;
+  private final boolean enabled;
+  private final Map<Stage, Timer> succeeded = new EnumMap<>(Stage.class);
+  private final Map<Stage, Timer> failed = new EnumMap<>(Stage.class);
+  private final Map<Stage, Map<Class<?>, Counter>> failures = new EnumMap<>(Stage.class);
+
+  public CheckoutMetrics(MeterRegistry meterRegistry, CheckoutProperties properties) {
+    this.meterRegistry = meterRegistry;
+    this.enabled = properties.isStageMetrics();
+    if (enabled) {
+      for (Stage stage : Stage.values()) {
+        succeeded.put(stage, stageTimer(stage, "success"));
+        failed.put(stage, stageTimer(stage, "failure"));
+        failures.put(stage, new ConcurrentHashMap<>());
+      }
+    }
+  }
+
+  /**
+   * Run a stage returning a result and record how long it took.
+   *
+   * @param stage the checkout stage
+   * @param work the work of the stage
+   * @param <T> the type of the result
+   * @return the result of the stage
+   */
+  public <T> T record(Stage stage, Supplier<T> work) {
+    if (!enabled) {
+      return work.get();
+    }
+    long start = System.nanoTime();
+    try {
+      T result = work.get();
+      succeeded.get(stage).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      return result;
+    } catch (RuntimeException e) {
+      failed.get(stage).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      failures.get(stage)
+          .computeIfAbsent(e.getClass(), exceptionType -> failureCounter(stage, exceptionType))
+          .increment();
+      throw e;
+    }
+  }
+
+  /**
+   * Run a stage without a result and record how long it took.
+   *
+   * @param stage the checkout stage
+   * @param work the work of the stage
+   */
+  public void run(Stage stage, Runnable work) {
+    record(stage, () -> {
+      work.run();
+      return null;
+    });
+  }
+
+  private Counter failureCounter(Stage stage, Class<?> exceptionType) {
+    return Counter.builder("digigoods.checkout.failures")
+        .description("Checkouts failed per stage and exception type")
+        .tag("stage", stage.tagValue())
+        .tag("exception", exceptionType.getSimpleName())
+        .register(meterRegistry);
+  }
+
+  private Timer stageTimer(Stage stage, String outcome) {
+    return Timer.builder("digigoods.checkout.stage")
+        .description("Duration of the stages of a checkout")
+        .tag("stage", stage.tagValue())
+        .tag("outcome", outcome)
+        .publishPercentileHistogram()
+        .publishPercentiles(0.5, 0.99)
+        .register(meterRegistry);
+  }
+
+  /**
+   * The stages of a checkout, in the order they run.
+   */
+  public enum Stage {
+
+    /**
+     * 1. Authentication &amp; Authorization.
+     */
+    AUTHORIZATION("authorization"),
+
+    /**
+     * 2. Product Validation, loading the products of the cart.
+     */
+    PRODUCT_VALIDATION("product-validation"),
+
+    /**
+     * 3. Original Subtotal Calculation.
+     */
+    SUBTOTAL("subtotal"),
+
+    /**
+     * 4. Discount Validation, loading the discounts of the codes.
+     */
+    DISCOUNT_VALIDATION("discount-validation"),
+
+    /**
+     * 5. Discount Application.
+     */
+    DISCOUNT_APPLICATION("discount-application"),
+
+    /**
+     * 6. Maximum Discount Rule.
+     */
+    MAXIMUM_DISCOUNT("maximum-discount"),
+
+    /**
+     * 7. Final Commit, writing the order with its stock and discount usage updates. In the
+     * per-request and short-write modes the stage ends before the transaction commits, in
+     * single-round-trip mode it covers stages 2 to 7, which run in the database.
+     */
+    COMMIT("commit");
+
+    private final String tagValue;
+
+    Stage(String tagValue) {
+      this.tagValue = tagValue;
+    }
+
+    String tagValue() {
+      return tagValue;
+    }
+  }
+}
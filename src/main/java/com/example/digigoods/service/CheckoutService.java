@@ -1,48 +1,115 @@
 package com.example.digigoods.service;
 
+import com.example.digigoods.config.CheckoutProperties;
+import com.example.digigoods.config.DiscountProperties;
+import com.example.digigoods.config.StockProperties;
 import com.example.digigoods.dto.CheckoutRequest;
 import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.dto.QuoteResponse;
 import com.example.digigoods.exception.ExcessiveDiscountException;
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.exception.InvalidDiscountException;
+import com.example.digigoods.exception.ProductNotFoundException;
 import com.example.digigoods.exception.UnauthorizedAccessException;
 import com.example.digigoods.model.Discount;
 import com.example.digigoods.model.DiscountType;
-import com.example.digigoods.model.Order;
 import com.example.digigoods.model.Product;
-import com.example.digigoods.model.User;
-import com.example.digigoods.repository.OrderRepository;
-import com.example.digigoods.repository.UserRepository;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.HashSet;
+import com.example.digigoods.repository.PlaceOrderRepository;
+import com.example.digigoods.service.CheckoutMetrics.Stage;
+import com.example.digigoods.service.DiscountIndex.ProductDiscounts;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Service for checkout operations.
+ *
+ * <p>In the default per-request mode each checkout runs in its own transaction. In
+ * group-commit mode the checkout is validated and priced in a read-only transaction and
+ * its order is written by the {@link GroupCommitWriter} together with other orders. In
+ * short-write mode the reads and pricing run outside a transaction, each read borrowing a
+ * connection only for its own query. The write transaction then locks the catalog version
+ * row, prices again if the catalog has changed since, and writes the order with its
+ * conditional stock and discount usage updates. Catalog changes wait for the lock, so the
+ * order is written against the catalog it was priced with. In single-round-trip mode the
+ * {@code place_order} database function runs steps 2 to 7 in one call.
+ *
+ * <p>With {@code digigoods.checkout.concurrent-loading} the products and discounts of a
+ * cart are loaded at the same time on virtual threads when the cart is priced outside a
+ * transaction, as in short-write mode. Each load then borrows a pool connection only for
+ * its own query. A cart priced inside a transaction is loaded serially on the connection of
+ * that transaction, so a checkout never holds a connection while waiting for another.
+ *
+ * <p>A checkout presenting a quote token redeemed by the {@link QuoteService} skips
+ * re-pricing and uses the quoted prices.
+ *
+ * <p>The duration and failures of each stage are recorded by {@link CheckoutMetrics}.
  */
 @Service
 public class CheckoutService {
 
-  private static final BigDecimal MAX_DISCOUNT_PERCENTAGE = new BigDecimal("75.00");
-  private static final BigDecimal HUNDRED = new BigDecimal("100.00");
+  private static final int MAX_DISCOUNT_BASIS_POINTS = 7_500;
 
   private final ProductService productService;
   private final DiscountService discountService;
-  private final OrderRepository orderRepository;
-  private final UserRepository userRepository;
+  private final DiscountIndex discountIndex;
+  private final OrderWriter orderWriter;
+  private final GroupCommitWriter groupCommitWriter;
+  private final QuoteService quoteService;
+  private final CatalogVersions catalogVersions;
+  private final CheckoutProperties properties;
+  private final TransactionTemplate transactionTemplate;
+  private final TransactionTemplate readOnlyTransactionTemplate;
+  private final CheckoutCatalog liveCatalog;
+  private final PlaceOrderRepository placeOrderRepository;
+  private final StockProperties stockProperties;
+  private final DiscountProperties discountProperties;
+  private final CheckoutMetrics metrics;
 
   public CheckoutService(ProductService productService,
                          DiscountService discountService,
-                         OrderRepository orderRepository,
-                         UserRepository userRepository) {
+                         DiscountIndex discountIndex,
+                         OrderWriter orderWriter,
+                         GroupCommitWriter groupCommitWriter,
+                         QuoteService quoteService,
+                         CatalogVersions catalogVersions,
+                         CheckoutProperties properties,
+                         PlatformTransactionManager transactionManager,
+                         PlaceOrderRepository placeOrderRepository,
+                         StockProperties stockProperties,
+                         DiscountProperties discountProperties,
+                         CheckoutMetrics metrics) {
     this.productService = productService;
     this.discountService = discountService;
-    this.orderRepository = orderRepository;
-    this.userRepository = userRepository;
+    this.discountIndex = discountIndex;
+    this.orderWriter = orderWriter;
+    this.groupCommitWriter = groupCommitWriter;
+    this.quoteService = quoteService;
+    this.catalogVersions = catalogVersions;
+    this.properties = properties;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate.setReadOnly(true);
+    this.liveCatalog = CheckoutCatalog.live(productService, discountService);
+    this.placeOrderRepository = placeOrderRepository;
+    this.stockProperties = stockProperties;
+    this.discountProperties = discountProperties;
+    this.metrics = metrics;
   }
 
   /**
@@ -52,143 +119,325 @@ public class CheckoutService {
    * @param authenticatedUserId the ID of the authenticated user
    * @return order response
    */
-  @Transactional
   public OrderResponse processCheckout(CheckoutRequest request, Long authenticatedUserId) {
+    return processCheckout(request, authenticatedUserId, response -> {});
+  }
+
+  /**
+   * Process checkout request, running a callback in the transaction writing the order.
+   *
+   * <p>The callback runs after the order was written and before it is committed. If it
+   * throws, the order is rolled back and the checkout fails with its exception.
+   *
+   * @param request the checkout request
+   * @param authenticatedUserId the ID of the authenticated user
+   * @param onWritten the callback, given the response of the written order
+   * @return order response
+   */
+  public OrderResponse processCheckout(CheckoutRequest request, Long authenticatedUserId,
+                                       Consumer<OrderResponse> onWritten) {
+    return switch (properties.getMode()) {
+      case GROUP_COMMIT -> {
+        PricedOrder pricedOrder = readOnlyTransactionTemplate.execute(
+            status -> priceOrRedeemQuote(request, authenticatedUserId,
+                catalogVersions::current));
+        yield metrics.record(Stage.COMMIT,
+            () -> awaitGroupCommit(groupCommitWriter.submit(pricedOrder, onWritten)));
+      }
+      case SHORT_WRITE -> shortWriteCheckout(request, authenticatedUserId, onWritten);
+      case SINGLE_ROUND_TRIP -> canPlaceInOneRoundTrip(request)
+          ? singleRoundTripCheckout(request, authenticatedUserId, onWritten)
+          : perRequestCheckout(request, authenticatedUserId, onWritten);
+      case PER_REQUEST -> perRequestCheckout(request, authenticatedUserId, onWritten);
+    };
+  }
+
+  /**
+   * Price a checkout request without placing the order.
+   *
+   * @param request the checkout request
+   * @param authenticatedUserId the ID of the authenticated user
+   * @return the price breakdown and a quote token redeemable at checkout
+   */
+  public QuoteResponse quote(CheckoutRequest request, Long authenticatedUserId) {
+    // Taken before reading the catalog, so a concurrent change invalidates the quote
+    CatalogVersions.Version version = catalogVersions.current();
+    PricedOrder pricedOrder = readOnlyTransactionTemplate.execute(
+        status -> priceOrder(request, authenticatedUserId, liveCatalog));
+    return quoteService.issue(pricedOrder, version);
+  }
+
+  private OrderResponse perRequestCheckout(CheckoutRequest request, Long authenticatedUserId,
+                                           Consumer<OrderResponse> onWritten) {
+    return transactionTemplate.execute(status -> {
+      // A redeemed quote is only trusted while the version it was priced at stays locked
+      PricedOrder pricedOrder = priceOrRedeemQuote(request, authenticatedUserId,
+          catalogVersions::lockCurrent);
+      return metrics.record(Stage.COMMIT, () -> write(pricedOrder, onWritten));
+    });
+  }
+
+  private OrderResponse write(PricedOrder pricedOrder, Consumer<OrderResponse> onWritten) {
+    OrderResponse response = orderWriter.write(pricedOrder);
+    onWritten.accept(response);
+    return response;
+  }
+
+  private OrderResponse shortWriteCheckout(CheckoutRequest request, Long authenticatedUserId,
+                                           Consumer<OrderResponse> onWritten) {
+    // Taken before reading the catalog, so a concurrent change is noticed when writing
+    CatalogVersions.Version version = catalogVersions.current();
+    PricedOrder pricedOrder = priceOrRedeemQuote(request, authenticatedUserId,
+        () -> version);
+
+    return transactionTemplate.execute(status -> {
+      CatalogVersions.Version locked = catalogVersions.lockCurrent();
+      if (!locked.equals(version)) {
+        // Prices or discounts changed while pricing, price again with the current catalog
+        PricedOrder repriced = priceOrRedeemQuote(request, authenticatedUserId,
+            () -> locked);
+        return metrics.record(Stage.COMMIT, () -> write(repriced, onWritten));
+      }
+      return metrics.record(Stage.COMMIT, () -> write(pricedOrder, onWritten));
+    });
+  }
+
+  private boolean canPlaceInOneRoundTrip(CheckoutRequest request) {
+    // Reservations, quotes and leased stock or uses are only known to the application
+    return request.getReservationId() == null
+        && request.getQuoteToken() == null
+        && !stockProperties.getHotSku().isEnabled()
+        && !discountProperties.getHotQuota().isEnabled();
+  }
+
+  private OrderResponse singleRoundTripCheckout(CheckoutRequest request,
+                                                Long authenticatedUserId,
+                                                Consumer<OrderResponse> onWritten) {
     // 1. Authentication & Authorization
     validateUserAuthorization(request.getUserId(), authenticatedUserId);
 
-    // 2. Product Validation
-    List<Product> products = productService.getProductsByIds(request.getProductIds());
+    // 2. to 7. in the database, a failure is thrown to roll back its partial updates
+    List<String> discountCodes = request.getDiscountCodes() != null
+        ? request.getDiscountCodes() : List.of();
+    return metrics.record(Stage.COMMIT,
+        () -> transactionTemplate.execute(status -> {
+          PlaceOrderRepository.Result placed = placeOrderRepository.placeOrder(
+              request.getUserId(), request.quantities(), discountCodes,
+              LocalDate.now(), MAX_DISCOUNT_BASIS_POINTS);
+          if (placed.status() != PlaceOrderRepository.Status.CREATED) {
+            throw placeOrderFailure(placed);
+          }
+          OrderResponse response = new OrderResponse(OrderWriter.SUCCESS_MESSAGE,
+              PricingEngine.toAmount(placed.finalPrice()));
+          onWritten.accept(response);
+          return response;
+        }));
+  }
 
-    // 3. Original Subtotal Calculation
-    BigDecimal originalSubtotal = calculateOriginalSubtotal(request.getProductIds(), products);
+  private static RuntimeException placeOrderFailure(PlaceOrderRepository.Result result) {
+    return switch (result.status()) {
+      case PRODUCT_NOT_FOUND -> new ProductNotFoundException(
+          "Products not found with IDs: [" + result.detail() + "]");
+      case DISCOUNT_NOT_FOUND -> new InvalidDiscountException(result.detail(),
+          "discount code not found");
+      case DISCOUNT_DUPLICATE -> new InvalidDiscountException(result.detail(),
+          "discount code was given more than once");
+      case DISCOUNT_NOT_YET_VALID -> new InvalidDiscountException(result.detail(),
+          "discount is not yet valid");
+      case DISCOUNT_EXPIRED -> new InvalidDiscountException(result.detail(),
+          "discount has expired");
+      case DISCOUNT_NO_REMAINING_USES -> new InvalidDiscountException(result.detail(),
+          "discount has no remaining uses");
+      case EXCESSIVE_DISCOUNT -> new ExcessiveDiscountException();
+      case INSUFFICIENT_STOCK -> new InsufficientStockException(
+          result.productId(), result.requested(), result.available());
+      case CREATED -> new IllegalStateException("Order was created");
+    };
+  }
 
-    // 4. Discount Validation
-    List<Discount> discounts = discountService.validateAndGetDiscounts(request.getDiscountCodes());
+  private PricedOrder priceOrRedeemQuote(CheckoutRequest request, Long authenticatedUserId,
+                                         Supplier<CatalogVersions.Version> currentVersion) {
+    if (request.getQuoteToken() != null) {
+      validateUserAuthorization(request.getUserId(), authenticatedUserId);
+      Optional<QuoteService.Quote> quote = quoteService.redeem(request, currentVersion);
+      if (quote.isPresent()) {
+        return quotedOrder(request, quote.get());
+      }
+    }
+    return priceOrder(request, authenticatedUserId, liveCatalog);
+  }
+
+  private PricedOrder quotedOrder(CheckoutRequest request, QuoteService.Quote quote) {
+    // Steps 3 to 6 were done when quoting, the order only needs its products and discounts
+    CheckoutContext context = new CheckoutContext(request);
+    context.setProducts(productService.getProductsByIds(context.getQuantities().keySet()));
+    context.setDiscounts(discountService.getDiscountsByIds(quote.discountIds()));
+    context.setOriginalSubtotal(quote.originalSubtotal());
+    context.setProductDiscountedSubtotal(quote.productDiscountedSubtotal());
+    context.setFinalPrice(quote.finalPrice());
+    return context.toPricedOrder();
+  }
+
+  /**
+   * Validate and price a checkout request.
+   *
+   * @param request the checkout request
+   * @param authenticatedUserId the ID of the authenticated user
+   * @param catalog the source of the products and discounts of the cart
+   * @return the priced order, ready to be written
+   */
+  PricedOrder priceOrder(CheckoutRequest request, Long authenticatedUserId,
+                         CheckoutCatalog catalog) {
+    CheckoutContext context = new CheckoutContext(request);
+
+    // 1. Authentication & Authorization
+    validateUserAuthorization(request.getUserId(), authenticatedUserId);
+
+    // 2. Product Validation and 4. Discount Validation
+    loadProductsAndDiscounts(context, catalog);
+
+    // 3. Original Subtotal Calculation
+    context.setOriginalSubtotal(
+        metrics.record(Stage.SUBTOTAL, () -> calculateOriginalSubtotal(context)));
 
     // 5. Discount Application
-    BigDecimal finalPrice = applyDiscounts(request.getProductIds(), products, discounts,
-        originalSubtotal);
+    metrics.run(Stage.DISCOUNT_APPLICATION, () -> applyDiscounts(context));
 
     // 6. Maximum Discount Rule
-    validateMaximumDiscount(originalSubtotal, finalPrice);
+    metrics.run(Stage.MAXIMUM_DISCOUNT, () -> validateMaximumDiscount(context));
 
-    // 7. Final Commit
-    commitTransaction(request, products, discounts, originalSubtotal, finalPrice);
-
-    return new OrderResponse("Order created successfully!", finalPrice);
+    // 7. Final Commit, done by the caller
+    return context.toPricedOrder();
   }
 
-  private void validateUserAuthorization(Long requestUserId, Long authenticatedUserId) {
-    if (!requestUserId.equals(authenticatedUserId)) {
-      throw new UnauthorizedAccessException("User cannot place order for another user");
+  private void loadProductsAndDiscounts(CheckoutContext context, CheckoutCatalog catalog) {
+    // Preloaded catalogs are served from memory, there is no latency to overlap. Loads on
+    // other threads cannot join the caller's transaction, each would take another connection.
+    if (!properties.isConcurrentLoading() || catalog != liveCatalog
+        || TransactionSynchronizationManager.isActualTransactionActive()) {
+      context.setProducts(loadProducts(context, catalog));
+      context.setDiscounts(loadDiscounts(context, catalog));
+      return;
+    }
+
+    // Both loads run on virtual threads scoped to this call. The first failure cancels the
+    // other load, and no load outlives the call, as closing the executor waits for both.
+    try (ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor()) {
+      CompletionService<Runnable> loads = new ExecutorCompletionService<>(scope);
+      List<Future<Runnable>> futures = List.of(
+          loads.submit(() -> {
+            List<Product> products = loadProducts(context, catalog);
+            return () -> context.setProducts(products);
+          }),
+          loads.submit(() -> {
+            List<Discount> discounts = loadDiscounts(context, catalog);
+            return () -> context.setDiscounts(discounts);
+          }));
+
+      // Apply the results on this thread, the context is not shared with the loads
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          loads.take().get().run();
+        } catch (ExecutionException e) {
+          futures.forEach(future -> future.cancel(true));
+          if (e.getCause() instanceof RuntimeException cause) {
+            throw cause;
+          }
+          throw new IllegalStateException(e.getCause());
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while loading products and discounts", e);
     }
   }
 
-  private BigDecimal calculateOriginalSubtotal(List<Long> productIds, List<Product> products) {
-    Map<Long, Product> productMap = products.stream()
-        .collect(Collectors.toMap(Product::getId, Function.identity()));
+  private List<Product> loadProducts(CheckoutContext context, CheckoutCatalog catalog) {
+    return metrics.record(Stage.PRODUCT_VALIDATION,
+        () -> catalog.getProducts(context.getQuantities().keySet()));
+  }
 
-    return productIds.stream()
-        .map(productMap::get)
-        .map(Product::getPrice)
-        .reduce(BigDecimal.ZERO, BigDecimal::add);
+  private List<Discount> loadDiscounts(CheckoutContext context, CheckoutCatalog catalog) {
+    return metrics.record(Stage.DISCOUNT_VALIDATION,
+        () -> catalog.getValidDiscounts(context.getRequest().getDiscountCodes()));
   }
 
-  private BigDecimal applyDiscounts(List<Long> productIds, List<Product> products,
-                                    List<Discount> discounts,
-                                    BigDecimal originalSubtotal) {
-    Map<Long, Product> productMap = products.stream()
-        .collect(Collectors.toMap(Product::getId, Function.identity()));
+  private OrderResponse awaitGroupCommit(CompletableFuture<OrderResponse> result) {
+    try {
+      return result.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
 
-    // Separate discounts by type
-    List<Discount> productSpecificDiscounts = discounts.stream()
-        .filter(d -> d.getType() == DiscountType.PRODUCT_SPECIFIC)
-        .toList();
+  private void validateUserAuthorization(Long requestUserId, Long authenticatedUserId) {
+    metrics.run(Stage.AUTHORIZATION, () -> {
+      if (!requestUserId.equals(authenticatedUserId)) {
+        throw new UnauthorizedAccessException("User cannot place order for another user");
+      }
+    });
+  }
 
-    List<Discount> generalDiscounts = discounts.stream()
-        .filter(d -> d.getType() == DiscountType.GENERAL)
-        .toList();
+  private long calculateOriginalSubtotal(CheckoutContext context) {
+    long subtotal = 0;
+    for (Map.Entry<Long, Integer> line : context.getQuantities().entrySet()) {
+      subtotal = Math.addExact(subtotal,
+          Math.multiplyExact(context.unitPriceOf(line.getKey()), line.getValue()));
+    }
+    return subtotal;
+  }
 
+  private void applyDiscounts(CheckoutContext context) {
     // Apply product-specific discounts first
-    BigDecimal intermediateSubtotal = applyProductSpecificDiscounts(
-        productIds, productMap, productSpecificDiscounts);
+    context.setProductDiscountedSubtotal(applyProductSpecificDiscounts(context,
+        discountIndex.forDiscounts(discountsOfType(context.getDiscounts(),
+            DiscountType.PRODUCT_SPECIFIC))));
 
     // Apply general discounts to intermediate subtotal
-    return applyGeneralDiscounts(intermediateSubtotal, generalDiscounts);
+    context.setFinalPrice(applyGeneralDiscounts(context.getProductDiscountedSubtotal(),
+        discountsOfType(context.getDiscounts(), DiscountType.GENERAL)));
   }
 
-  private BigDecimal applyProductSpecificDiscounts(List<Long> productIds,
-                                                   Map<Long, Product> productMap,
-                                                   List<Discount> productSpecificDiscounts) {
-    BigDecimal total = BigDecimal.ZERO;
-
-    for (Long productId : productIds) {
-      Product product = productMap.get(productId);
-      BigDecimal itemPrice = product.getPrice();
+  private static List<Discount> discountsOfType(List<Discount> discounts, DiscountType type) {
+    return discounts.stream()
+        .filter(d -> d.getType() == type)
+        .toList();
+  }
 
-      // Find applicable discounts for this product
-      BigDecimal totalDiscountPercentage = productSpecificDiscounts.stream()
-          .filter(discount -> discount.getApplicableProducts().contains(product))
-          .map(Discount::getPercentage)
-          .reduce(BigDecimal.ZERO, BigDecimal::add);
+  private long applyProductSpecificDiscounts(CheckoutContext context,
+                                             ProductDiscounts productDiscounts) {
+    long total = 0;
 
-      // Apply discount
-      if (totalDiscountPercentage.compareTo(BigDecimal.ZERO) > 0) {
-        BigDecimal discountAmount = itemPrice.multiply(totalDiscountPercentage)
-            .divide(HUNDRED, 2, RoundingMode.HALF_UP);
-        itemPrice = itemPrice.subtract(discountAmount);
-      }
+    for (Map.Entry<Long, Integer> line : context.getQuantities().entrySet()) {
+      // Find applicable discounts for this product and apply them to its unit price, so
+      // rounding is the same as when each unit is priced on its own
+      long itemPrice = PricingEngine.applyDiscount(context.unitPriceOf(line.getKey()),
+          productDiscounts.basisPointsFor(line.getKey()));
 
-      total = total.add(itemPrice);
+      total = Math.addExact(total, Math.multiplyExact(itemPrice, line.getValue()));
     }
 
     return total;
   }
 
-  private BigDecimal applyGeneralDiscounts(BigDecimal subtotal, List<Discount> generalDiscounts) {
-    BigDecimal currentPrice = subtotal;
+  private long applyGeneralDiscounts(long subtotal, List<Discount> generalDiscounts) {
+    long currentPrice = subtotal;
 
     for (Discount discount : generalDiscounts) {
-      BigDecimal discountAmount = currentPrice.multiply(discount.getPercentage())
-          .divide(HUNDRED, 2, RoundingMode.HALF_UP);
-      currentPrice = currentPrice.subtract(discountAmount);
+      currentPrice = PricingEngine.applyDiscount(currentPrice,
+          PricingEngine.toBasisPoints(discount.getPercentage()));
     }
 
     return currentPrice;
   }
 
-  private void validateMaximumDiscount(BigDecimal originalSubtotal, BigDecimal finalPrice) {
-    BigDecimal totalDiscount = originalSubtotal.subtract(finalPrice);
-    BigDecimal discountPercentage = totalDiscount.multiply(HUNDRED)
-        .divide(originalSubtotal, 2, RoundingMode.HALF_UP);
-
-    if (discountPercentage.compareTo(MAX_DISCOUNT_PERCENTAGE) > 0) {
+  private void validateMaximumDiscount(CheckoutContext context) {
+    if (PricingEngine.discountBasisPoints(context.getOriginalSubtotal(), context.getFinalPrice())
+        > MAX_DISCOUNT_BASIS_POINTS) {
       throw new ExcessiveDiscountException();
     }
   }
-
-  private void commitTransaction(CheckoutRequest request, List<Product> products,
-                                 List<Discount> discounts, BigDecimal originalSubtotal,
-                                 BigDecimal finalPrice) {
-    // Get user
-    User user = userRepository.findById(request.getUserId())
-        .orElseThrow(() -> new RuntimeException("User not found"));
-
-    // Create order
-    Order order = new Order();
-    order.setUser(user);
-    order.setProducts(new HashSet<>(products));
-    order.setAppliedDiscounts(new HashSet<>(discounts));
-    order.setOriginalSubtotal(originalSubtotal);
-    order.setFinalPrice(finalPrice);
-
-    orderRepository.save(order);
-
-    // Update product stock
-    productService.validateAndUpdateStock(request.getProductIds());
-
-    // Update discount usage
-    discountService.updateDiscountUsage(discounts);
-  }
 }
@@ -0,0 +1,169 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.config.DiscountProperties;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.DiscountType;
+import com.example.digigoods.repository.DiscountRepository;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-memory index of the products each product-specific discount applies to.
+ *
+ * <p>The index holds the applicable product IDs of every product-specific discount as a
+ * sorted {@code long[]}, so pricing a cart line is a binary search per presented discount
+ * instead of loading and scanning the discount's applicable products. It is built with one
+ * query and shared by all checkouts. It is rebuilt when the discount version of
+ * {@link CatalogVersions} has changed since it was built, which covers discount changes made
+ * on any node or by plain SQL, or when a discount it does not know yet is used.
+ *
+ * <p>The version is not read per checkout. It is read again when the local change counter
+ * of {@link CatalogVersions} shows a catalog change made on this node, and otherwise once
+ * {@code version-check-interval} has passed since the last read, which bounds how long a
+ * change made on another node or by plain SQL takes to reach the index.
+ */
+@Service
+public class DiscountIndex {
+
+  private static final long[] NO_PRODUCTS = new long[0];
+
+  private final DiscountRepository discountRepository;
+  private final CatalogVersions catalogVersions;
+  private final DiscountProperties.Index properties;
+  private final Clock clock;
+  private volatile Snapshot snapshot;
+
+  public DiscountIndex(DiscountRepository discountRepository, CatalogVersions catalogVersions,
+                       DiscountProperties properties, Clock clock) {
+    this.discountRepository = discountRepository;
+    this.catalogVersions = catalogVersions;
+    this.properties = properties.getIndex();
+    this.clock = clock;
+  }
+
+  /**
+   * Look up the products covered by a cart's product-specific discounts.
+   *
+   * @param productSpecificDiscounts the product-specific discounts presented with the cart
+   * @return the discounts of the cart, to be queried per product
+   */
+  public ProductDiscounts forDiscounts(List<Discount> productSpecificDiscounts) {
+    if (productSpecificDiscounts.isEmpty()) {
+      return ProductDiscounts.NONE;
+    }
+
+    Snapshot current = currentSnapshot(productSpecificDiscounts);
+    long[][] productIds = new long[productSpecificDiscounts.size()][];
+    int[] basisPoints = new int[productSpecificDiscounts.size()];
+    for (int i = 0; i < productSpecificDiscounts.size(); i++) {
+      Discount discount = productSpecificDiscounts.get(i);
+      productIds[i] = current.productIds.getOrDefault(discount.getId(), NO_PRODUCTS);
+      basisPoints[i] = PricingEngine.toBasisPoints(discount.getPercentage());
+    }
+    return new ProductDiscounts(productIds, basisPoints);
+  }
+
+  private Snapshot currentSnapshot(List<Discount> discounts) {
+    long localChanges = catalogVersions.localChanges();
+    Snapshot current = snapshot;
+    if (isUsable(current, localChanges, clock.millis(), discounts)) {
+      return current;
+    }
+
+    synchronized (this) {
+      current = snapshot;
+      long now = clock.millis();
+      if (isUsable(current, localChanges, now, discounts)) {
+        return current;
+      }
+      long checkAgainAt = now + properties.getVersionCheckInterval().toMillis();
+      long version = catalogVersions.current().discounts();
+      if (current != null && current.version == version && knowsAll(current, discounts)) {
+        current = new Snapshot(current.productIds, version, localChanges, checkAgainAt);
+      } else {
+        // Built after reading the version, so a concurrent change only causes another rebuild
+        current = build(version, localChanges, checkAgainAt);
+      }
+      snapshot = current;
+      return current;
+    }
+  }
+
+  private static boolean isUsable(Snapshot current, long localChanges, long now,
+                                  List<Discount> discounts) {
+    return current != null
+        && current.localChanges == localChanges
+        && now < current.checkAgainAt
+        && knowsAll(current, discounts);
+  }
+
+  private static boolean knowsAll(Snapshot current, List<Discount> discounts) {
+    for (Discount discount : discounts) {
+      if (!current.productIds.containsKey(discount.getId())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Snapshot build(long version, long localChanges, long checkAgainAt) {
+    Map<Long, List<Long>> applicable = new HashMap<>();
+    for (DiscountRepository.ApplicableProduct row
+        : discountRepository.findApplicableProducts(DiscountType.PRODUCT_SPECIFIC)) {
+      List<Long> productIds = applicable.computeIfAbsent(row.getDiscountId(),
+          id -> new ArrayList<>());
+      if (row.getProductId() != null) {
+        productIds.add(row.getProductId());
+      }
+    }
+
+    Map<Long, long[]> productIds = new HashMap<>(applicable.size() * 2);
+    applicable.forEach((discountId, ids) -> {
+      long[] sorted = ids.stream().mapToLong(Long::longValue).toArray();
+      Arrays.sort(sorted);
+      productIds.put(discountId, sorted);
+    });
+    return new Snapshot(productIds, version, localChanges, checkAgainAt);
+  }
+
+  private record Snapshot(Map<Long, long[]> productIds, long version, long localChanges,
+                          long checkAgainAt) {
+  }
+
+  /**
+   * Product-specific discounts of one cart.
+   */
+  public static final class ProductDiscounts {
+
+    private static final ProductDiscounts NONE = new ProductDiscounts(new long[0][], new int[0]);
+
+    private final long[][] productIds;
+    private final int[] basisPoints;
+
+    private ProductDiscounts(long[][] productIds, int[] basisPoints) {
+      this.productIds = productIds;
+      this.basisPoints = basisPoints;
+    }
+
+    /**
+     * Sum up the discounts applicable to a product.
+     *
+     * @param productId the product ID
+     * @return total discount in basis points (hundredths of a percent)
+     */
+    public int basisPointsFor(long productId) {
+      int total = 0;
+      for (int i = 0; i < productIds.length; i++) {
+        if (Arrays.binarySearch(productIds[i], productId) >= 0) {
+          total += basisPoints[i];
+        }
+      }
+      return total;
+    }
+  }
+}
@@ -0,0 +1,273 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.config.DiscountProperties;
+import com.example.digigoods.repository.DiscountUsageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Serves usage of mass-campaign discounts from quotas leased out of the discounts table.
+ *
+ * <p>Works like the {@link StockLeaseManager} does for hot SKUs: each node takes a block
+ * of remaining uses from the database into striped in-memory counters, so concurrent
+ * redemptions of the same code no longer queue on its row lock. Unused uses are returned
+ * to the database when the lease expires and on shutdown. While a lease is held, the
+ * remaining uses stored for the discount are lower than what is actually redeemable by
+ * the leased amount. Like stock, uses are refilled in the transaction of the checkout that
+ * needs them and added to the lease once it commits.
+ */
+@Service
+public class DiscountQuotaManager {
+
+  private static final Logger log = LoggerFactory.getLogger(DiscountQuotaManager.class);
+
+  /**
+   * Result of a refill that could not provide enough uses.
+   */
+  private static final long REFUSED = -1;
+
+  private final DiscountUsageRepository discountUsageRepository;
+  private final DiscountProperties.HotQuota properties;
+  private final TransactionTemplate leaseTransaction;
+  private final MeterRegistry meterRegistry;
+  private final Clock clock;
+  private final Map<Long, Lease> leases = new ConcurrentHashMap<>();
+
+  @Autowired
+  public DiscountQuotaManager(DiscountUsageRepository discountUsageRepository,
+                              DiscountProperties discountProperties,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+    this(discountUsageRepository, discountProperties, transactionManager, meterRegistry,
+        Clock.systemUTC());
+  }
+
+  DiscountQuotaManager(DiscountUsageRepository discountUsageRepository,
+                       DiscountProperties discountProperties,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       Clock clock) {
+    this.discountUsageRepository = discountUsageRepository;
+    this.properties = discountProperties.getHotQuota();
+    this.leaseTransaction = new TransactionTemplate(transactionManager);
+    this.meterRegistry = meterRegistry;
+    this.clock = clock;
+  }
+
+  /**
+   * Check whether a discount is served from leased uses.
+   *
+   * @param discountId the discount ID
+   * @return true if hot quota mode is enabled for the discount
+   */
+  public boolean isHot(Long discountId) {
+    return properties.isEnabled() && properties.getDiscountIds().contains(discountId);
+  }
+
+  /**
+   * Take uses of a hot discount from its lease, refilling the lease if needed.
+   *
+   * <p>If the surrounding transaction rolls back, the uses taken from the lease are put
+   * back into it; uses refilled by that transaction return to the database with it.
+   *
+   * @param discountId the discount ID
+   * @param uses the number of uses to take
+   * @return false if leased and stored remaining uses together are not enough
+   */
+  public boolean take(Long discountId, int uses) {
+    Lease lease = leases.computeIfAbsent(discountId, this::newLease);
+
+    long fromLease;
+    if (lease.quota().tryTake(uses)) {
+      lease.hits().increment();
+      fromLease = uses;
+    } else {
+      lease.misses().increment();
+      fromLease = refill(discountId, lease, uses);
+      if (fromLease == REFUSED) {
+        return false;
+      }
+    }
+
+    if (fromLease > 0 && TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          if (status == STATUS_ROLLED_BACK) {
+            putBack(lease.quota(), fromLease);
+          }
+        }
+      });
+    }
+    return true;
+  }
+
+  /**
+   * Return unused uses of expired leases to the database.
+   */
+  @Scheduled(fixedDelayString = "${digigoods.discount.hot-quota.sweep-interval-ms:5000}")
+  public void returnExpiredLeases() {
+    long now = clock.millis();
+    leases.forEach((discountId, lease) -> {
+      if (lease.quota().isExpired(now)) {
+        returnLease(discountId, lease);
+      }
+    });
+  }
+
+  /**
+   * Return all unused uses to the database on shutdown.
+   */
+  @PreDestroy
+  public void returnAllLeases() {
+    leases.forEach((discountId, lease) -> {
+      try {
+        returnLease(discountId, lease);
+      } catch (RuntimeException e) {
+        log.error("Failed to return leased uses for discount {}", discountId, e);
+      }
+    });
+  }
+
+  /**
+   * Take the uses from the lease, refilling it from the database if needed.
+   *
+   * @return the part of the uses taken from the lease rather than refilled, or
+   *     {@link #REFUSED} if there are not enough uses
+   */
+  private long refill(Long discountId, Lease lease, int uses) {
+    final StripedQuota quota = lease.quota();
+    quota.lock().lock();
+    try {
+      // Another thread may have refilled while we were waiting for the lock
+      if (quota.tryTake(uses)) {
+        return uses;
+      }
+
+      // The stripes may hold enough together even if no single stripe does
+      long available = quota.drain();
+      if (available >= uses) {
+        quota.deposit(available - uses);
+        return uses;
+      }
+
+      int wanted = (int) (uses - available) + properties.getLeaseSize();
+      Integer result = leaseTransaction.execute(
+          status -> discountUsageRepository.leaseUses(discountId, wanted));
+      long granted = result == null ? 0 : result;
+      lease.refills().increment();
+
+      if (available + granted < uses) {
+        quota.deposit(available);
+        depositOnCommit(quota, granted);
+        return REFUSED;
+      }
+      depositOnCommit(quota, available + granted - uses);
+      return available;
+    } finally {
+      quota.lock().unlock();
+    }
+  }
+
+  /**
+   * Add refilled uses to the lease once the transaction that took them from the database
+   * commits, or right away outside a transaction, and extend the lease.
+   */
+  private void depositOnCommit(StripedQuota lease, long uses) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      deposit(lease, uses);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        deposit(lease, uses);
+      }
+    });
+  }
+
+  private void deposit(StripedQuota lease, long uses) {
+    lease.lock().lock();
+    try {
+      lease.deposit(uses);
+      lease.expireAt(clock.millis() + properties.getLeaseTtl().toMillis());
+    } finally {
+      lease.lock().unlock();
+    }
+  }
+
+  /**
+   * Put back uses taken by a rolled back transaction. If the lease was returned meanwhile, it
+   * is armed again so that the sweeper returns them to the database.
+   */
+  private void putBack(StripedQuota lease, long uses) {
+    lease.lock().lock();
+    try {
+      lease.deposit(uses);
+      if (!lease.hasExpiry()) {
+        lease.expireAt(clock.millis() + properties.getLeaseTtl().toMillis());
+      }
+    } finally {
+      lease.lock().unlock();
+    }
+  }
+
+  private void returnLease(Long discountId, Lease lease) {
+    StripedQuota quota = lease.quota();
+    quota.lock().lock();
+    try {
+      long unused = quota.drain();
+      quota.expireAt(0);
+      if (unused > 0) {
+        leaseTransaction.executeWithoutResult(
+            status -> discountUsageRepository.incrementRemainingUses(discountId, (int) unused));
+        lease.returned().increment(unused);
+      }
+    } finally {
+      quota.lock().unlock();
+    }
+  }
+
+  /**
+   * Create the lease of a discount, registering its meters once rather than per take.
+   */
+  private Lease newLease(Long discountId) {
+    String discount = discountId.toString();
+    return new Lease(new StripedQuota(properties.getStripes()),
+        requestCounter(discount, "hit"),
+        requestCounter(discount, "miss"),
+        Counter.builder("digigoods.discount.lease.refills")
+            .description("Number of discount use lease refills from the database")
+            .tag("discount", discount)
+            .register(meterRegistry),
+        Counter.builder("digigoods.discount.lease.returned")
+            .description("Leased discount uses returned to the database")
+            .tag("discount", discount)
+            .register(meterRegistry));
+  }
+
+  private Counter requestCounter(String discount, String result) {
+    return Counter.builder("digigoods.discount.lease.requests")
+        .description("Discount uses served from a lease (hit) or needing a refill (miss)")
+        .tag("discount", discount)
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  private record Lease(StripedQuota quota, Counter hits, Counter misses, Counter refills,
+                       Counter returned) {
+  }
+}
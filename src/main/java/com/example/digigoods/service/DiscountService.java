@@ -3,8 +3,18 @@ package com.example.digigoods.service;
 import com.example.digigoods.exception.InvalidDiscountException;
 import com.example.digigoods.model.Discount;
 import com.example.digigoods.repository.DiscountRepository;
+import com.example.digigoods.repository.DiscountUsageRepository;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import org.springframework.stereotype.Service;
 
 /**
@@ -14,9 +24,15 @@ import org.springframework.stereotype.Service;
 public class DiscountService {
 
   private final DiscountRepository discountRepository;
+  private final DiscountUsageRepository discountUsageRepository;
+  private final DiscountQuotaManager discountQuotaManager;
 
-  public DiscountService(DiscountRepository discountRepository) {
+  public DiscountService(DiscountRepository discountRepository,
+                         DiscountUsageRepository discountUsageRepository,
+                         DiscountQuotaManager discountQuotaManager) {
     this.discountRepository = discountRepository;
+    this.discountUsageRepository = discountUsageRepository;
+    this.discountQuotaManager = discountQuotaManager;
   }
 
   /**
@@ -40,20 +56,53 @@ public class DiscountService {
       return List.of();
     }
 
-    List<Discount> discounts = discountRepository.findAllByCodeIn(discountCodes);
+    Map<String, Discount> discountsByCode = new HashMap<>();
+    for (Discount discount : discountRepository.findAllByCodeIn(discountCodes)) {
+      discountsByCode.put(discount.getCode(), discount);
+    }
+    return validateDiscounts(discountCodes, discountsByCode);
+  }
 
-    // Check if all codes were found
-    if (discounts.size() != discountCodes.size()) {
-      List<String> foundCodes = discounts.stream()
-          .map(Discount::getCode)
-          .toList();
+  /**
+   * Find discounts by their codes, skipping codes that do not exist.
+   *
+   * @param discountCodes the discount codes
+   * @return list of discounts found
+   */
+  public List<Discount> findDiscountsByCodes(Collection<String> discountCodes) {
+    if (discountCodes.isEmpty()) {
+      return List.of();
+    }
+    return discountRepository.findAllByCodeIn(discountCodes);
+  }
 
-      String missingCode = discountCodes.stream()
-          .filter(code -> !foundCodes.contains(code))
-          .findFirst()
-          .orElse("unknown");
+  /**
+   * Validate discount codes against already loaded discounts.
+   *
+   * @param discountCodes the list of discount codes, or null
+   * @param discountsByCode the loaded discounts by code
+   * @return list of valid discounts, in the order of the codes
+   * @throws InvalidDiscountException if any code is unknown or given twice, or any
+   *         discount is invalid
+   */
+  public List<Discount> validateDiscounts(List<String> discountCodes,
+                                          Map<String, Discount> discountsByCode) {
+    if (discountCodes == null || discountCodes.isEmpty()) {
+      return List.of();
+    }
 
-      throw new InvalidDiscountException(missingCode, "discount code not found");
+    // Check if all codes were found, each code may only be used once per order
+    List<Discount> discounts = new ArrayList<>(discountCodes.size());
+    Set<String> seenCodes = new HashSet<>();
+    for (String code : discountCodes) {
+      Discount discount = discountsByCode.get(code);
+      if (discount == null) {
+        throw new InvalidDiscountException(code, "discount code not found");
+      }
+      if (!seenCodes.add(code)) {
+        throw new InvalidDiscountException(code, "discount code was given more than once");
+      }
+      discounts.add(discount);
     }
 
     // Validate each discount
@@ -65,15 +114,52 @@ public class DiscountService {
     return discounts;
   }
 
+  /**
+   * Get discounts by their IDs.
+   *
+   * @param discountIds the discount IDs
+   * @return list of discounts found
+   */
+  public List<Discount> getDiscountsByIds(Collection<Long> discountIds) {
+    if (discountIds.isEmpty()) {
+      return List.of();
+    }
+    return discountRepository.findAllById(discountIds);
+  }
+
   /**
    * Update remaining uses for discounts.
    *
-   * @param discounts the list of discounts to update
+   * <p>All discounts are updated with one conditional JDBC batch, in discount ID order.
+   * Discounts configured for hot quota mode are served from leased uses instead.
+   *
+   * @param usesByDiscountId number of uses to deduct per discount ID
+   * @throws InvalidDiscountException if a discount has fewer remaining uses than deducted
    */
-  public void updateDiscountUsage(List<Discount> discounts) {
-    for (Discount discount : discounts) {
-      discount.setRemainingUses(discount.getRemainingUses() - 1);
-      discountRepository.save(discount);
+  public void updateDiscountUsage(Map<Long, Integer> usesByDiscountId) {
+    SortedMap<Long, Integer> remaining = new TreeMap<>(usesByDiscountId);
+
+    // Hot discounts are served from leased in-memory uses instead of their rows
+    for (Iterator<Map.Entry<Long, Integer>> it = remaining.entrySet().iterator();
+        it.hasNext(); ) {
+      Map.Entry<Long, Integer> entry = it.next();
+      if (discountQuotaManager.isHot(entry.getKey())) {
+        if (!discountQuotaManager.take(entry.getKey(), entry.getValue())) {
+          throw noRemainingUses(entry.getKey());
+        }
+        it.remove();
+      }
+    }
+    if (remaining.isEmpty()) {
+      return;
+    }
+
+    int[] updateCounts = discountUsageRepository.decrementRemainingUses(remaining);
+    int index = 0;
+    for (Long discountId : remaining.keySet()) {
+      if (updateCounts[index++] == 0) {
+        throw noRemainingUses(discountId);
+      }
     }
   }
 
@@ -87,9 +173,16 @@ public class DiscountService {
       throw new InvalidDiscountException(discount.getCode(), "discount has expired");
     }
 
-    // Check if discount has remaining uses
-    if (discount.getRemainingUses() <= 0) {
+    // Check if discount has remaining uses, hot discounts are checked when taking a use
+    if (!discountQuotaManager.isHot(discount.getId()) && discount.getRemainingUses() <= 0) {
       throw new InvalidDiscountException(discount.getCode(), "discount has no remaining uses");
     }
   }
+
+  private InvalidDiscountException noRemainingUses(Long discountId) {
+    String code = discountRepository.findById(discountId)
+        .map(Discount::getCode)
+        .orElse(String.valueOf(discountId));
+    return new InvalidDiscountException(code, "discount has no remaining uses");
+  }
 }
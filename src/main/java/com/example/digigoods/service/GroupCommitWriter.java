@@ -0,0 +1,220 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.config.CheckoutProperties;
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.exception.CheckoutOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Single writer that commits queued orders in shared transactions.
+ *
+ * <p>Checkout threads validate and price their orders and hand them to this writer
+ * through a bounded queue. The writer drains up to {@code max-batch-size} orders, waiting
+ * at most {@code max-wait} for the batch to fill, and writes them in one transaction with
+ * aggregated stock and discount updates. If the batch fails, its orders are retried one by
+ * one in their own transactions, so each caller gets the outcome of its own order.
+ */
+@Service
+public class GroupCommitWriter {
+
+  private static final Logger log = LoggerFactory.getLogger(GroupCommitWriter.class);
+
+  private final OrderWriter orderWriter;
+  private final CheckoutProperties.GroupCommit properties;
+  private final TransactionTemplate transactionTemplate;
+  private final BlockingQueue<PendingOrder> queue;
+  private final DistributionSummary batchSizes;
+  private final Counter batchFallbacks;
+  private volatile Thread writerThread;
+  private volatile boolean running = true;
+
+  public GroupCommitWriter(OrderWriter orderWriter,
+                           CheckoutProperties checkoutProperties,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry) {
+    this.orderWriter = orderWriter;
+    this.properties = checkoutProperties.getGroupCommit();
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+    this.batchSizes = DistributionSummary.builder("digigoods.checkout.group_commit.batch.size")
+        .description("Number of orders written per group-commit transaction")
+        .register(meterRegistry);
+    this.batchFallbacks = Counter.builder("digigoods.checkout.group_commit.fallbacks")
+        .description("Group-commit batches retried order by order after a failure")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Queue an order for the writer.
+   *
+   * @param pricedOrder the validated and priced order
+   * @return future completed with the order response, or with the exception that
+   *         prevented the order from being written
+   * @throws CheckoutOverloadedException if the queue is full or the writer is stopping
+   */
+  public CompletableFuture<OrderResponse> submit(PricedOrder pricedOrder) {
+    return submit(pricedOrder, response -> {});
+  }
+
+  /**
+   * Queue an order for the writer, running a callback in the transaction writing it.
+   *
+   * <p>The callback runs after the order was written and before it is committed. If it
+   * throws, the order is not written and its future completes with the exception.
+   *
+   * @param pricedOrder the validated and priced order
+   * @param onWritten the callback, given the response of the written order
+   * @return future completed with the order response, or with the exception that
+   *         prevented the order from being written
+   * @throws CheckoutOverloadedException if the queue is full or the writer is stopping
+   */
+  public CompletableFuture<OrderResponse> submit(PricedOrder pricedOrder,
+                                                 Consumer<OrderResponse> onWritten) {
+    if (!running) {
+      throw new CheckoutOverloadedException("Checkout is shutting down");
+    }
+    startIfNeeded();
+
+    PendingOrder pending =
+        new PendingOrder(pricedOrder, onWritten, new CompletableFuture<>());
+    if (!queue.offer(pending)) {
+      throw new CheckoutOverloadedException();
+    }
+    return pending.result();
+  }
+
+  /**
+   * Stop the writer and fail the orders it has not picked up yet.
+   */
+  @PreDestroy
+  public void stop() {
+    running = false;
+    Thread thread = writerThread;
+    if (thread != null) {
+      thread.interrupt();
+      try {
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    PendingOrder pending;
+    while ((pending = queue.poll()) != null) {
+      pending.result().completeExceptionally(
+          new CheckoutOverloadedException("Checkout is shutting down"));
+    }
+  }
+
+  private void startIfNeeded() {
+    if (writerThread == null) {
+      synchronized (this) {
+        if (writerThread == null) {
+          writerThread = Thread.ofPlatform()
+              .name("checkout-group-commit")
+              .daemon()
+              .start(this::run);
+        }
+      }
+    }
+  }
+
+  private void run() {
+    List<PendingOrder> batch = new ArrayList<>(properties.getMaxBatchSize());
+    while (running) {
+      try {
+        batch.add(queue.take());
+      } catch (InterruptedException e) {
+        break;
+      }
+      collectBatch(batch);
+      write(batch);
+      batch.clear();
+    }
+  }
+
+  private void collectBatch(List<PendingOrder> batch) {
+    int maxBatchSize = properties.getMaxBatchSize();
+    queue.drainTo(batch, maxBatchSize - batch.size());
+
+    long deadline = System.nanoTime() + properties.getMaxWait().toNanos();
+    while (batch.size() < maxBatchSize) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return;
+      }
+      try {
+        PendingOrder next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+        if (next == null) {
+          return;
+        }
+        batch.add(next);
+        queue.drainTo(batch, maxBatchSize - batch.size());
+      } catch (InterruptedException e) {
+        // Write what we have, the loop exits afterwards
+        running = false;
+        return;
+      }
+    }
+  }
+
+  private void write(List<PendingOrder> batch) {
+    batchSizes.record(batch.size());
+    List<PricedOrder> orders = batch.stream().map(PendingOrder::order).toList();
+    try {
+      List<OrderResponse> responses = transactionTemplate.execute(status -> {
+        List<OrderResponse> written = orderWriter.writeAll(orders);
+        for (int i = 0; i < batch.size(); i++) {
+          batch.get(i).onWritten().accept(written.get(i));
+        }
+        return written;
+      });
+      for (int i = 0; i < batch.size(); i++) {
+        batch.get(i).result().complete(responses.get(i));
+      }
+    } catch (RuntimeException e) {
+      if (batch.size() == 1) {
+        batch.get(0).result().completeExceptionally(e);
+        return;
+      }
+
+      // Find out which orders failed by writing them one by one
+      log.debug("Group commit of {} orders failed, retrying individually", batch.size(), e);
+      batchFallbacks.increment();
+      for (PendingOrder pending : batch) {
+        writeAlone(pending);
+      }
+    }
+  }
+
+  private void writeAlone(PendingOrder pending) {
+    try {
+      pending.result().complete(transactionTemplate.execute(status -> {
+        OrderResponse written = orderWriter.write(pending.order());
+        pending.onWritten().accept(written);
+        return written;
+      }));
+    } catch (RuntimeException e) {
+      pending.result().completeExceptionally(e);
+    }
+  }
+
+  private record PendingOrder(PricedOrder order, Consumer<OrderResponse> onWritten,
+                              CompletableFuture<OrderResponse> result) {
+  }
+}
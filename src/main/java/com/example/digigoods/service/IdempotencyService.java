@@ -0,0 +1,298 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.config.IdempotencyProperties;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.exception.IdempotencyConflictException;
+import com.example.digigoods.exception.InvalidIdempotencyKeyException;
+import com.example.digigoods.model.IdempotencyRecord;
+import com.example.digigoods.model.IdempotencyStatus;
+import com.example.digigoods.repository.IdempotencyRecordRepository;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service making checkout requests idempotent per user and idempotency key.
+ *
+ * <p>Completed responses are stored in the idempotency_keys table behind a bounded LRU
+ * cache, so a replayed key is answered without running the checkout again. A replay that
+ * arrives while the original request is still running on this node waits for its result;
+ * if the original is running on another node, the replay is rejected with a conflict.
+ * Failed checkouts are not remembered, so the client can retry them with the same key.
+ *
+ * <p>A key is completed in the transaction writing its order, so a key left pending by a
+ * crashed node never has an order and may be taken over once abandoned. Completing, failing
+ * and taking over a key are conditional on its attempt, so only one attempt can complete it.
+ */
+@Service
+public class IdempotencyService {
+
+  private static final int MAX_KEY_LENGTH = 255;
+  private static final String REQUEST_HASH_FORMAT = "checkout-request-v1";
+
+  private final IdempotencyRecordRepository idempotencyRecordRepository;
+  private final IdempotencyProperties properties;
+  private final TransactionTemplate transactionTemplate;
+  private final Map<String, CachedResponse> completedCache;
+  private final Map<String, CompletableFuture<OrderResponse>> inFlight =
+      new ConcurrentHashMap<>();
+
+  public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                            IdempotencyProperties properties,
+                            PlatformTransactionManager transactionManager) {
+    this.idempotencyRecordRepository = idempotencyRecordRepository;
+    this.properties = properties;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.completedCache = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+            return size() > properties.getCacheSize();
+          }
+        });
+  }
+
+  /**
+   * Run a checkout at most once per user and idempotency key.
+   *
+   * @param userId the ID of the authenticated user
+   * @param idempotencyKey the idempotency key sent by the client
+   * @param request the checkout request
+   * @param checkout the checkout to run if the key has not been used yet, given the callback
+   *        it must run in the transaction writing its order, after the order was written
+   * @return the response of the first successful checkout under this key
+   * @throws InvalidIdempotencyKeyException if the key is blank or too long
+   * @throws IdempotencyConflictException if the key was used for a different request or is
+   *         still being processed elsewhere
+   */
+  public OrderResponse execute(Long userId, String idempotencyKey, CheckoutRequest request,
+                               Function<Consumer<OrderResponse>, OrderResponse> checkout) {
+    if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+      throw new InvalidIdempotencyKeyException();
+    }
+
+    String cacheKey = userId + ":" + idempotencyKey;
+    String requestHash = requestHash(request);
+
+    CachedResponse cached = completedCache.get(cacheKey);
+    if (cached != null) {
+      return cached.responseFor(requestHash);
+    }
+
+    CompletableFuture<OrderResponse> execution = new CompletableFuture<>();
+    CompletableFuture<OrderResponse> running = inFlight.putIfAbsent(cacheKey, execution);
+    if (running != null) {
+      return awaitRunning(running);
+    }
+
+    try {
+      OrderResponse response = executeOnce(userId, idempotencyKey, requestHash, checkout);
+      completedCache.put(cacheKey, new CachedResponse(requestHash, response));
+      execution.complete(response);
+      return response;
+    } catch (RuntimeException e) {
+      execution.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(cacheKey, execution);
+    }
+  }
+
+  /**
+   * Forget idempotency keys older than the retention period.
+   */
+  @Scheduled(fixedDelayString = "${digigoods.idempotency.purge-interval-ms:3600000}")
+  public void purgeExpiredKeys() {
+    idempotencyRecordRepository.deleteAllCreatedBefore(
+        LocalDateTime.now().minus(properties.getRetention()));
+  }
+
+  private OrderResponse executeOnce(Long userId, String idempotencyKey, String requestHash,
+                                    Function<Consumer<OrderResponse>, OrderResponse> checkout) {
+    Optional<IdempotencyRecord> existing =
+        idempotencyRecordRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey);
+    if (existing.isEmpty()) {
+      return runCheckout(insertPending(userId, idempotencyKey, requestHash), checkout);
+    }
+
+    IdempotencyRecord record = existing.get();
+    if (!record.getRequestHash().equals(requestHash)) {
+      throw keyReusedForDifferentRequest();
+    }
+    if (record.getStatus() == IdempotencyStatus.COMPLETED) {
+      return storedResponse(record);
+    }
+    if (!takeOverAbandoned(record)) {
+      // Completed, failed or taken over since it was read. Only a completed key has an
+      // order, a pending one never does, as the key is completed with the order.
+      return idempotencyRecordRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey)
+          .filter(current -> current.getStatus() == IdempotencyStatus.COMPLETED)
+          .map(IdempotencyService::storedResponse)
+          .orElseThrow(IdempotencyConflictException::new);
+    }
+    return runCheckout(record, checkout);
+  }
+
+  private OrderResponse runCheckout(IdempotencyRecord record,
+                                    Function<Consumer<OrderResponse>, OrderResponse> checkout) {
+    Long id = record.getId();
+    int attempt = record.getAttempt();
+    try {
+      // Completed in the transaction writing the order, so a pending key never has an order
+      return checkout.apply(response -> {
+        if (idempotencyRecordRepository.complete(id, attempt, response.getMessage(),
+            response.getFinalPrice()) == 0) {
+          // Taken over by another request, roll back this order
+          throw new IdempotencyConflictException();
+        }
+      });
+    } catch (RuntimeException e) {
+      transactionTemplate.executeWithoutResult(
+          status -> idempotencyRecordRepository.deletePending(id, attempt));
+      throw e;
+    }
+  }
+
+  private IdempotencyRecord insertPending(Long userId, String idempotencyKey,
+                                          String requestHash) {
+    IdempotencyRecord record = new IdempotencyRecord();
+    record.setUserId(userId);
+    record.setIdempotencyKey(idempotencyKey);
+    record.setRequestHash(requestHash);
+    record.setStatus(IdempotencyStatus.PENDING);
+    record.setCreatedAt(LocalDateTime.now());
+    try {
+      return transactionTemplate.execute(status -> idempotencyRecordRepository.save(record));
+    } catch (DataIntegrityViolationException e) {
+      // Another node inserted the same key first
+      throw new IdempotencyConflictException();
+    }
+  }
+
+  private boolean takeOverAbandoned(IdempotencyRecord record) {
+    LocalDateTime abandonedBefore = LocalDateTime.now().minus(properties.getPendingTimeout());
+    if (record.getCreatedAt().isAfter(abandonedBefore)) {
+      throw new IdempotencyConflictException();
+    }
+    // Waits for a checkout of the previous attempt that is still writing its order
+    Integer updated = transactionTemplate.execute(status -> idempotencyRecordRepository
+        .takeOver(record.getId(), record.getAttempt(), abandonedBefore, LocalDateTime.now()));
+    if (updated == null || updated == 0) {
+      return false;
+    }
+    record.setAttempt(record.getAttempt() + 1);
+    return true;
+  }
+
+  private static OrderResponse storedResponse(IdempotencyRecord record) {
+    return new OrderResponse(record.getResponseMessage(), record.getFinalPrice());
+  }
+
+  private OrderResponse awaitRunning(CompletableFuture<OrderResponse> running) {
+    try {
+      return running.get(properties.getInFlightWait().toMillis(), TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new IllegalStateException(e.getCause());
+    } catch (TimeoutException e) {
+      throw new IdempotencyConflictException();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IdempotencyConflictException();
+    }
+  }
+
+  private static IdempotencyConflictException keyReusedForDifferentRequest() {
+    return new IdempotencyConflictException(
+        "Idempotency key was already used for a different request");
+  }
+
+  /**
+   * Hash the canonical form of a checkout request.
+   *
+   * <p>The cart is hashed as its quantity per product, so both cart formats hash the same.
+   * Fields are written with explicit lengths and absence markers, so the hash only changes
+   * when {@link #REQUEST_HASH_FORMAT} does.
+   *
+   * @param request the checkout request
+   * @return the hex encoded SHA-256 hash
+   */
+  static String requestHash(CheckoutRequest request) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+
+    try (DataOutputStream out = new DataOutputStream(
+        new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+      out.writeUTF(REQUEST_HASH_FORMAT);
+      out.writeLong(request.getUserId());
+      SortedMap<Long, Integer> quantities = request.quantities();
+      out.writeInt(quantities.size());
+      for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+        out.writeLong(line.getKey());
+        out.writeInt(line.getValue());
+      }
+      List<String> discountCodes = request.getDiscountCodes() != null
+          ? request.getDiscountCodes() : List.of();
+      out.writeInt(discountCodes.size());
+      for (String code : discountCodes) {
+        writeOptional(out, code);
+      }
+      writeOptional(out, request.getReservationId());
+      writeOptional(out, request.getQuoteToken());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private static void writeOptional(DataOutputStream out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private record CachedResponse(String requestHash, OrderResponse response) {
+
+    OrderResponse responseFor(String hash) {
+      if (!requestHash.equals(hash)) {
+        throw keyReusedForDifferentRequest();
+      }
+      return response;
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.Order;
+import com.example.digigoods.model.OrderLine;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.OrderRepository;
+import com.example.digigoods.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service writing validated orders together with their stock and discount usage updates.
+ */
+@Service
+public class OrderWriter {
+
+  static final String SUCCESS_MESSAGE = "Order created successfully!";
+
+  private final ProductService productService;
+  private final DiscountService discountService;
+  private final OrderRepository orderRepository;
+  private final UserRepository userRepository;
+  private final ReservationService reservationService;
+
+  public OrderWriter(ProductService productService,
+                     DiscountService discountService,
+                     OrderRepository orderRepository,
+                     UserRepository userRepository,
+                     ReservationService reservationService) {
+    this.productService = productService;
+    this.discountService = discountService;
+    this.orderRepository = orderRepository;
+    this.userRepository = userRepository;
+    this.reservationService = reservationService;
+  }
+
+  /**
+   * Write one order.
+   *
+   * @param pricedOrder the validated and priced order
+   * @return order response
+   */
+  @Transactional
+  public OrderResponse write(PricedOrder pricedOrder) {
+    // Only the foreign key is needed, so avoid loading the user
+    User user = userRepository.getReferenceById(pricedOrder.getRequest().getUserId());
+
+    orderRepository.save(newOrder(pricedOrder, user));
+
+    // Update product stock, using the reserved stock if the cart was reserved
+    if (pricedOrder.getRequest().getReservationId() != null) {
+      confirmReservation(pricedOrder);
+    } else {
+      productService.decrementStock(pricedOrder.getQuantities());
+    }
+
+    // Update discount usage
+    Map<Long, Integer> discountUses = new HashMap<>();
+    countDiscountUses(pricedOrder, discountUses);
+    discountService.updateDiscountUsage(discountUses);
+
+    return new OrderResponse(SUCCESS_MESSAGE, pricedOrder.getFinalPrice());
+  }
+
+  /**
+   * Write several orders in one transaction.
+   *
+   * <p>The stock decrements and discount usage updates of all orders are summed up per
+   * product and per discount, so the batch costs one conditional update per distinct
+   * product instead of one per order. If any order cannot be written the whole batch
+   * fails and nothing is written.
+   *
+   * @param pricedOrders the validated and priced orders
+   * @return order responses, in the order of the given orders
+   */
+  @Transactional
+  public List<OrderResponse> writeAll(List<PricedOrder> pricedOrders) {
+    List<Order> orders = new ArrayList<>(pricedOrders.size());
+    List<OrderResponse> responses = new ArrayList<>(pricedOrders.size());
+    SortedMap<Long, Integer> stockDeltas = new TreeMap<>();
+    Map<Long, Integer> discountUses = new HashMap<>();
+
+    for (PricedOrder pricedOrder : pricedOrders) {
+      // Only the foreign key is needed, so avoid loading the user
+      User user = userRepository.getReferenceById(pricedOrder.getRequest().getUserId());
+      orders.add(newOrder(pricedOrder, user));
+      responses.add(new OrderResponse(SUCCESS_MESSAGE, pricedOrder.getFinalPrice()));
+
+      if (pricedOrder.getRequest().getReservationId() != null) {
+        confirmReservation(pricedOrder);
+      } else {
+        pricedOrder.getQuantities().forEach((productId, quantity) -> stockDeltas.merge(
+            productId, quantity, Integer::sum));
+      }
+      countDiscountUses(pricedOrder, discountUses);
+    }
+
+    orderRepository.saveAll(orders);
+    if (!stockDeltas.isEmpty()) {
+      productService.decrementStock(stockDeltas);
+    }
+    discountService.updateDiscountUsage(discountUses);
+
+    return responses;
+  }
+
+  private Order newOrder(PricedOrder pricedOrder, User user) {
+    Order order = new Order();
+    order.setUser(user);
+    order.setLines(newLines(pricedOrder));
+    order.setAppliedDiscounts(new HashSet<>(pricedOrder.getDiscounts()));
+    order.setOriginalSubtotal(pricedOrder.getOriginalSubtotal());
+    order.setFinalPrice(pricedOrder.getFinalPrice());
+    return order;
+  }
+
+  private static List<OrderLine> newLines(PricedOrder pricedOrder) {
+    List<OrderLine> lines = new ArrayList<>(pricedOrder.getProducts().size());
+    for (Product product : pricedOrder.getProducts()) {
+      lines.add(new OrderLine(product, pricedOrder.getQuantities().get(product.getId()),
+          product.getPrice()));
+    }
+    return lines;
+  }
+
+  private void confirmReservation(PricedOrder pricedOrder) {
+    reservationService.confirm(pricedOrder.getRequest().getReservationId(),
+        pricedOrder.getRequest().getUserId(), pricedOrder.getQuantities());
+  }
+
+  private static void countDiscountUses(PricedOrder pricedOrder,
+                                        Map<Long, Integer> discountUses) {
+    for (Discount discount : pricedOrder.getDiscounts()) {
+      discountUses.merge(discount.getId(), 1, Integer::sum);
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.Product;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.SortedMap;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A checkout request that passed validation and pricing and is ready to be written.
+ */
+@Getter
+@AllArgsConstructor
+public class PricedOrder {
+
+  private final CheckoutRequest request;
+  private final SortedMap<Long, Integer> quantities;
+  private final List<Product> products;
+  private final List<Discount> discounts;
+  private final BigDecimal originalSubtotal;
+  private final BigDecimal productDiscountedSubtotal;
+  private final BigDecimal finalPrice;
+}
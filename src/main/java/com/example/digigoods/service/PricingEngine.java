@@ -0,0 +1,100 @@
+package com.example.digigoods.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-point arithmetic for checkout pricing.
+ *
+ * <p>Amounts are {@code long} minor units (cents) and percentages are {@code int} basis
+ * points (hundredths of a percent). Every rounding step is HALF_UP to two decimals, so the
+ * results are identical to the equivalent {@link BigDecimal} arithmetic with
+ * {@code RoundingMode.HALF_UP}. Conversions from and to {@link BigDecimal} are only meant
+ * for the API and persistence boundary.
+ */
+public final class PricingEngine {
+
+  private static final long BASIS_POINTS_PER_UNIT = 10_000;
+
+  private PricingEngine() {
+  }
+
+  /**
+   * Convert an amount to cents.
+   *
+   * @param amount the amount, with at most two decimals
+   * @return the amount in cents
+   * @throws ArithmeticException if the amount has more than two decimals or does not fit
+   */
+  public static long toCents(BigDecimal amount) {
+    return amount.movePointRight(2).longValueExact();
+  }
+
+  /**
+   * Convert cents to an amount with two decimals.
+   *
+   * @param cents the amount in cents
+   * @return the amount
+   */
+  public static BigDecimal toAmount(long cents) {
+    return BigDecimal.valueOf(cents, 2);
+  }
+
+  /**
+   * Convert a percentage to basis points.
+   *
+   * @param percentage the percentage, with at most two decimals
+   * @return the percentage in basis points
+   * @throws ArithmeticException if the percentage has more than two decimals
+   */
+  public static int toBasisPoints(BigDecimal percentage) {
+    return percentage.movePointRight(2).intValueExact();
+  }
+
+  /**
+   * Apply a percentage discount to an amount.
+   *
+   * @param cents the amount in cents
+   * @param basisPoints the discount in basis points
+   * @return the discounted amount in cents, with the discount rounded HALF_UP to a cent
+   */
+  public static long applyDiscount(long cents, int basisPoints) {
+    if (basisPoints == 0) {
+      return cents;
+    }
+    return cents - roundHalfUp(Math.multiplyExact(cents, basisPoints), BASIS_POINTS_PER_UNIT);
+  }
+
+  /**
+   * Calculate which share of an amount was discounted.
+   *
+   * @param originalCents the amount before discounts in cents
+   * @param finalCents the amount after discounts in cents
+   * @return the discount in basis points, rounded HALF_UP, or 0 if the original amount is
+   *     zero since nothing could be discounted
+   */
+  public static long discountBasisPoints(long originalCents, long finalCents) {
+    if (originalCents == 0) {
+      return 0;
+    }
+    long discount = Math.subtractExact(originalCents, finalCents);
+    return roundHalfUp(Math.multiplyExact(discount, BASIS_POINTS_PER_UNIT), originalCents);
+  }
+
+  /**
+   * Divide and round HALF_UP, i.e. halves are rounded away from zero.
+   *
+   * @param dividend the dividend
+   * @param divisor the divisor
+   * @return the rounded quotient
+   * @throws ArithmeticException if the divisor is zero
+   */
+  static long roundHalfUp(long dividend, long divisor) {
+    long quotient = dividend / divisor;
+    long remainder = dividend % divisor;
+    // Round away from zero when the remainder is at least half of the divisor
+    if (Math.abs(remainder) >= Math.abs(divisor) - Math.abs(remainder)) {
+      return quotient + (((dividend ^ divisor) < 0) ? -1 : 1);
+    }
+    return quotient;
+  }
+}
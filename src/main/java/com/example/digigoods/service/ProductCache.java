@@ -0,0 +1,304 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.config.ProductProperties;
+import com.example.digigoods.dto.ProductPage;
+import com.example.digigoods.model.Product;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Read-through cache of products by ID, for checkouts, and of product catalog pages.
+ *
+ * <p>Cached products are copies, so callers may not observe each other's changes. Each
+ * product read first reads the product version of {@link CatalogVersions} from the database,
+ * and serves a product from the cache only if it was loaded at that version. The version is
+ * bumped by a trigger whenever the name, price or inventory policy of a product changes,
+ * whether on this node, another node or by plain SQL, so checkouts are never priced from
+ * stale products. The stock of cached products may be out of date. Checkouts never rely on
+ * it: stock is checked and decremented by conditional updates of the product rows.
+ *
+ * <p>Catalog pages are served stale-while-revalidate. A page loaded at the current product
+ * version, with no catalog change made on this node since, is served as is while younger
+ * than {@code max-age}. An older one is still served, and one background refresh per page
+ * reloads it, to pick up stock changes. If the version cannot be read or the page cannot be
+ * loaded, for example while the database is unavailable, the cached page keeps being served
+ * until it is {@code stale-if-error} past {@code max-age}.
+ *
+ * <p>Products and pages loaded inside a transaction are cached once it commits, so rows and
+ * versions written by a transaction that rolls back never reach the cache. At most
+ * {@code max-size} products and as many pages are cached; when more are loaded, the least
+ * recently read tenth is evicted.
+ */
+@Service
+public class ProductCache {
+
+  private static final Logger log = LoggerFactory.getLogger(ProductCache.class);
+
+  private final ProductProperties.Cache properties;
+  private final CatalogVersions catalogVersions;
+  private final Clock clock;
+  private final Executor refreshExecutor;
+  private final Map<Long, ProductEntry> products = new ConcurrentHashMap<>();
+  private final Map<PageKey, PageEntry> pages = new ConcurrentHashMap<>();
+  private final Set<PageKey> refreshing = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean evicting = new AtomicBoolean();
+
+  @Autowired
+  public ProductCache(ProductProperties properties, CatalogVersions catalogVersions) {
+    this(properties, catalogVersions, Clock.systemUTC(),
+        task -> Thread.ofVirtual().name("product-cache-refresh").start(task));
+  }
+
+  ProductCache(ProductProperties properties, CatalogVersions catalogVersions, Clock clock,
+               Executor refreshExecutor) {
+    this.properties = properties.getCache();
+    this.catalogVersions = catalogVersions;
+    this.clock = clock;
+    this.refreshExecutor = refreshExecutor;
+  }
+
+  /**
+   * Get products by their IDs, loading the ones not cached at the current product version.
+   *
+   * @param productIds the product IDs
+   * @param loader query loading products by their IDs, skipping IDs that do not exist
+   * @return the products found, in no particular order
+   */
+  public List<Product> getProducts(Collection<Long> productIds,
+                                   Function<Collection<Long>, List<Product>> loader) {
+    if (!properties.isEnabled()) {
+      return loader.apply(productIds);
+    }
+
+    // Read before loading, so a product changed meanwhile is cached under the older version
+    long version = catalogVersions.current().products();
+    List<Product> found = new ArrayList<>(productIds.size());
+    Set<Long> missingIds = new LinkedHashSet<>();
+    for (Long productId : new LinkedHashSet<>(productIds)) {
+      ProductEntry entry = products.get(productId);
+      if (entry == null || entry.version != version) {
+        missingIds.add(productId);
+        continue;
+      }
+      entry.lastRead = System.nanoTime();
+      found.add(copyOf(entry.product));
+    }
+
+    if (!missingIds.isEmpty()) {
+      List<Product> loaded = loader.apply(missingIds);
+      List<ProductEntry> loadedEntries = loaded.stream()
+          .map(product -> new ProductEntry(copyOf(product), version))
+          .toList();
+      afterCommit(() -> putProducts(loadedEntries));
+      found.addAll(loaded);
+    }
+    return found;
+  }
+
+  /**
+   * Get a page of the product catalog, loading it if it is not cached at the current
+   * product version.
+   *
+   * @param sort the sort order
+   * @param cursor the cursor of the page, or null for the first page
+   * @param pageSize the maximum number of products on the page
+   * @param loader query loading the page
+   * @return the page with the version and time it was loaded at
+   */
+  public CachedPage getPage(String sort, String cursor, int pageSize,
+                            Supplier<ProductPage> loader) {
+    if (!properties.isEnabled()) {
+      return load(loader);
+    }
+
+    PageKey key = new PageKey(sort.toLowerCase(Locale.ROOT), cursor, pageSize);
+    PageEntry entry = pages.get(key);
+    Instant now = clock.instant();
+    // Read before loading, so a change committed meanwhile is noticed on the next read
+    long localChanges = catalogVersions.localChanges();
+    long version;
+    try {
+      version = catalogVersions.current().products();
+    } catch (RuntimeException e) {
+      return serveStale(key, entry, now, e);
+    }
+
+    if (entry != null && entry.page.version() == version
+        && entry.localChanges == localChanges) {
+      entry.lastRead = System.nanoTime();
+      if (entry.isOlderThan(now, properties.getMaxAge())) {
+        refreshInBackground(key, loader);
+      }
+      return entry.page;
+    }
+
+    CachedPage page;
+    try {
+      page = load(version, loader);
+    } catch (RuntimeException e) {
+      return serveStale(key, entry, now, e);
+    }
+    PageEntry loaded = new PageEntry(page, localChanges);
+    afterCommit(() -> putPage(key, loaded));
+    return page;
+  }
+
+  private CachedPage serveStale(PageKey key, PageEntry entry, Instant now,
+                                RuntimeException failure) {
+    if (entry == null
+        || entry.isOlderThan(now, properties.getMaxAge().plus(properties.getStaleIfError()))) {
+      throw failure;
+    }
+    log.warn("Loading catalog page {} failed, serving it stale", key, failure);
+    entry.lastRead = System.nanoTime();
+    return entry.page;
+  }
+
+  private void refreshInBackground(PageKey key, Supplier<ProductPage> loader) {
+    if (!refreshing.add(key)) {
+      return;
+    }
+    try {
+      refreshExecutor.execute(() -> {
+        try {
+          long localChanges = catalogVersions.localChanges();
+          putPage(key, new PageEntry(load(loader), localChanges));
+        } catch (RuntimeException e) {
+          log.warn("Refreshing catalog page {} failed, serving it stale", key, e);
+        } finally {
+          refreshing.remove(key);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      refreshing.remove(key);
+    }
+  }
+
+  private CachedPage load(Supplier<ProductPage> loader) {
+    return load(catalogVersions.current().products(), loader);
+  }
+
+  private CachedPage load(long version, Supplier<ProductPage> loader) {
+    Instant loadedAt = clock.instant();
+    return new CachedPage(loader.get(), version, loadedAt);
+  }
+
+  private static void afterCommit(Runnable put) {
+    if (!TransactionSynchronizationManager.isActualTransactionActive()
+        || !TransactionSynchronizationManager.isSynchronizationActive()) {
+      put.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        put.run();
+      }
+    });
+  }
+
+  private void putProducts(List<ProductEntry> loadedEntries) {
+    for (ProductEntry entry : loadedEntries) {
+      // A slower load of an older version must not replace a newer entry
+      products.merge(entry.product.getId(), entry,
+          (cached, loaded) -> cached.version > loaded.version ? cached : loaded);
+    }
+    evictIfFull(products);
+  }
+
+  private void putPage(PageKey key, PageEntry entry) {
+    // A slower load must not replace a page loaded later
+    pages.merge(key, entry, (cached, loaded) ->
+        cached.page.loadedAt().isAfter(loaded.page.loadedAt()) ? cached : loaded);
+    evictIfFull(pages);
+  }
+
+  private <K> void evictIfFull(Map<K, ? extends Entry> entries) {
+    int maxSize = properties.getMaxSize();
+    if (entries.size() <= maxSize || !evicting.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      // Sort a snapshot of the read times, they keep changing while the cache is read
+      List<Map.Entry<K, Long>> byLastRead = new ArrayList<>(entries.size());
+      entries.forEach((key, entry) -> byLastRead.add(Map.entry(key, entry.lastRead)));
+      byLastRead.sort(Map.Entry.comparingByValue());
+
+      int evictions = byLastRead.size() - (maxSize - maxSize / 10);
+      for (int i = 0; i < evictions; i++) {
+        entries.remove(byLastRead.get(i).getKey());
+      }
+    } finally {
+      evicting.set(false);
+    }
+  }
+
+  private static Product copyOf(Product product) {
+    return new Product(product.getId(), product.getName(), product.getPrice(),
+        product.getStock(), product.getReservedStock(), product.getInventoryPolicy());
+  }
+
+  /**
+   * A cached page of the product catalog.
+   *
+   * @param page the page
+   * @param version the product version of {@link CatalogVersions} the page was loaded at
+   * @param loadedAt when the page was loaded
+   */
+  public record CachedPage(ProductPage page, long version, Instant loadedAt) {
+  }
+
+  private record PageKey(String sort, String cursor, int pageSize) {
+  }
+
+  private abstract static class Entry {
+
+    volatile long lastRead = System.nanoTime();
+  }
+
+  private static final class ProductEntry extends Entry {
+
+    private final Product product;
+    private final long version;
+
+    private ProductEntry(Product product, long version) {
+      this.product = product;
+      this.version = version;
+    }
+  }
+
+  private static final class PageEntry extends Entry {
+
+    private final CachedPage page;
+    private final long localChanges;
+
+    private PageEntry(CachedPage page, long localChanges) {
+      this.page = page;
+      this.localChanges = localChanges;
+    }
+
+    boolean isOlderThan(Instant now, Duration age) {
+      return page.loadedAt().plus(age).isBefore(now);
+    }
+  }
+}
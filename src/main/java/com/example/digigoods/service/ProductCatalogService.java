@@ -0,0 +1,162 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.dto.ProductPage;
+import com.example.digigoods.dto.ProductSummary;
+import com.example.digigoods.exception.InvalidPageRequestException;
+import com.example.digigoods.repository.ProductRepository;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for reading the product catalog page by page.
+ *
+ * <p>Pages are keyset paginated: the cursor of a page holds the sort key and ID of its last
+ * product, and the next page starts after them. Pages therefore cost the same however deep
+ * the client pages, and products added or removed meanwhile do not shift later pages. The
+ * cursor is opaque to clients and only valid for the sort order it was issued for.
+ *
+ * <p>Clients read pages through the {@link ProductCache}; pre-rendered snapshots read them
+ * from the database.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ProductCatalogService {
+
+  /**
+   * Number of products per page when the client does not ask for a page size.
+   */
+  public static final int DEFAULT_PAGE_SIZE = 50;
+
+  /**
+   * Largest page size a client may ask for.
+   */
+  public static final int MAX_PAGE_SIZE = 500;
+
+  /**
+   * Names of the supported sort orders.
+   */
+  public static final List<String> SORT_ORDERS = List.of("id", "price", "name");
+
+  private static final String CURSOR_SEPARATOR = "|";
+
+  private final ProductRepository productRepository;
+  private final ProductCache productCache;
+
+  public ProductCatalogService(ProductRepository productRepository, ProductCache productCache) {
+    this.productRepository = productRepository;
+    this.productCache = productCache;
+  }
+
+  /**
+   * Get one page of the product catalog through the {@link ProductCache}. Runs without a
+   * transaction of its own, so a cached page can be served while the database is
+   * unavailable.
+   *
+   * @param sort the sort order, one of {@code id}, {@code price} or {@code name}
+   * @param cursor the cursor returned with the previous page, or null for the first page
+   * @param pageSize the maximum number of products on the page
+   * @return the cached page with the cursor of the next page
+   * @throws InvalidPageRequestException if the sort order, cursor or page size is invalid
+   */
+  @Transactional(propagation = Propagation.SUPPORTS)
+  public ProductCache.CachedPage getCachedPage(String sort, String cursor, int pageSize) {
+    return productCache.getPage(sort, cursor, pageSize, () -> getPage(sort, cursor, pageSize));
+  }
+
+  /**
+   * Get one page of the product catalog.
+   *
+   * @param sort the sort order, one of {@code id}, {@code price} or {@code name}
+   * @param cursor the cursor returned with the previous page, or null for the first page
+   * @param pageSize the maximum number of products on the page
+   * @return the page with the cursor of the next page
+   * @throws InvalidPageRequestException if the sort order, cursor or page size is invalid
+   */
+  public ProductPage getPage(String sort, String cursor, int pageSize) {
+    Sort order = parseSort(sort);
+    if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+      throw new InvalidPageRequestException(
+          "Page size must be between 1 and " + MAX_PAGE_SIZE);
+    }
+
+    // The first page starts before the smallest ID, price and name
+    Cursor after = cursor != null ? decodeCursor(order, cursor) : order.start;
+    // One extra row tells whether there is a next page
+    List<ProductSummary> items = findAfter(order, after, Limit.of(pageSize + 1));
+    if (items.size() <= pageSize) {
+      return new ProductPage(items, null);
+    }
+    items = items.subList(0, pageSize);
+    return new ProductPage(items, encodeCursor(order, items.get(pageSize - 1)));
+  }
+
+  private List<ProductSummary> findAfter(Sort order, Cursor after, Limit limit) {
+    return switch (order) {
+      case ID -> productRepository.findSummariesOrderedById(after.id(), limit);
+      case PRICE -> productRepository.findSummariesOrderedByPrice(
+          new BigDecimal(after.sortKey()), after.id(), limit);
+      case NAME -> productRepository.findSummariesOrderedByName(
+          after.sortKey(), after.id(), limit);
+    };
+  }
+
+  private static Sort parseSort(String sort) {
+    try {
+      return Sort.valueOf(sort.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new InvalidPageRequestException("Sort must be one of id, price or name");
+    }
+  }
+
+  private static String encodeCursor(Sort order, ProductSummary last) {
+    String sortKey = switch (order) {
+      case ID -> "";
+      case PRICE -> last.getPrice().toPlainString();
+      case NAME -> last.getName();
+    };
+    String cursor = order.name() + CURSOR_SEPARATOR + last.getId() + CURSOR_SEPARATOR
+        + sortKey;
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static Cursor decodeCursor(Sort order, String cursor) {
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(cursor),
+          StandardCharsets.UTF_8);
+      // The name may contain the separator, so it is the last part
+      String[] parts = decoded.split("\\" + CURSOR_SEPARATOR, 3);
+      if (parts.length != 3 || !parts[0].equals(order.name())) {
+        throw new InvalidPageRequestException("Cursor does not belong to this sort order");
+      }
+      if (order == Sort.PRICE && new BigDecimal(parts[2]).signum() < 0) {
+        throw new InvalidPageRequestException("Invalid cursor");
+      }
+      return new Cursor(Long.parseLong(parts[1]), parts[2]);
+    } catch (IllegalArgumentException e) {
+      throw new InvalidPageRequestException("Invalid cursor");
+    }
+  }
+
+  private enum Sort {
+    ID(""),
+    PRICE("-1"),
+    NAME("");
+
+    private final Cursor start;
+
+    Sort(String startKey) {
+      this.start = new Cursor(0, startKey);
+    }
+  }
+
+  private record Cursor(long id, String sortKey) {
+  }
+}
@@ -0,0 +1,212 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.config.ProductProperties;
+import com.example.digigoods.dto.ProductSummary;
+import com.example.digigoods.exception.ExportOverloadedException;
+import com.example.digigoods.exception.InvalidExportFormatException;
+import com.example.digigoods.repository.ProductExportRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for exporting the whole product catalog.
+ *
+ * <p>Products are written to the output as they are read from the database cursor, so the
+ * memory used is the same however large the catalog is. The export runs in one read-only
+ * transaction and is therefore a consistent snapshot on databases with snapshot reads.
+ *
+ * <p>That transaction holds a database connection for as long as the export streams, so at
+ * most {@code max-concurrent} exports may hold an {@link ExportSlot} at once; further ones
+ * are refused rather than queued for a connection that checkouts need too.
+ */
+@Service
+public class ProductExportService {
+
+  private static final String CSV_HEADER = "id,name,price,in_stock\n";
+
+  private final ProductExportRepository productExportRepository;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transactionTemplate;
+  private final int maxConcurrent;
+  private final Semaphore slots;
+
+  public ProductExportService(ProductExportRepository productExportRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              ProductProperties properties) {
+    this.productExportRepository = productExportRepository;
+    this.objectMapper = objectMapper;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+    this.maxConcurrent = properties.getExport().getMaxConcurrent();
+    this.slots = new Semaphore(maxConcurrent);
+  }
+
+  /**
+   * Reserve one of the export slots. The caller must release it once the export is written
+   * or abandoned.
+   *
+   * @return the reserved slot
+   * @throws ExportOverloadedException if every slot is taken
+   */
+  public ExportSlot reserveSlot() {
+    if (!slots.tryAcquire()) {
+      throw new ExportOverloadedException(maxConcurrent);
+    }
+    return new ExportSlot();
+  }
+
+  /**
+   * Parse the requested export format.
+   *
+   * @param format the format name, {@code ndjson} or {@code csv}
+   * @return the export format
+   * @throws InvalidExportFormatException if the format is not supported
+   */
+  public Format parseFormat(String format) {
+    try {
+      return Format.valueOf(format.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new InvalidExportFormatException(format);
+    }
+  }
+
+  /**
+   * Write every product, ordered by ID, to the output stream. The stream is flushed but not
+   * closed.
+   *
+   * @param format the export format
+   * @param out the output stream
+   * @throws IOException if writing to the output stream fails
+   */
+  public void export(Format format, OutputStream out) throws IOException {
+    try {
+      switch (format) {
+        case NDJSON -> exportNdjson(out);
+        case CSV -> exportCsv(out);
+        default -> throw new IllegalStateException("Unknown export format: " + format);
+      }
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private void exportNdjson(OutputStream out) throws IOException {
+    try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      generator.setRootValueSeparator(null);
+      forEachSummary(summary -> {
+        try {
+          generator.writeObject(summary);
+          generator.writeRaw('\n');
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    }
+  }
+
+  private void exportCsv(OutputStream out) throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    writer.write(CSV_HEADER);
+    forEachSummary(summary -> {
+      try {
+        writer.write(String.valueOf(summary.getId()));
+        writer.write(',');
+        writer.write(csvField(summary.getName()));
+        writer.write(',');
+        writer.write(summary.getPrice().toPlainString());
+        writer.write(',');
+        writer.write(String.valueOf(summary.isInStock()));
+        writer.write('\n');
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    writer.flush();
+  }
+
+  private void forEachSummary(Consumer<ProductSummary> action) {
+    transactionTemplate.executeWithoutResult(
+        status -> productExportRepository.forEachSummary(action));
+  }
+
+  /**
+   * Quote a CSV field as RFC 4180 requires when it contains a separator, quote or line break.
+   */
+  static String csvField(String value) {
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+        && value.indexOf('\r') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+
+  /**
+   * A reserved export slot, released at most once however many times {@link #release()} is
+   * called.
+   */
+  public final class ExportSlot {
+
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private ExportSlot() {
+    }
+
+    /**
+     * Release the slot for another export.
+     */
+    public void release() {
+      if (released.compareAndSet(false, true)) {
+        slots.release();
+      }
+    }
+  }
+
+  /**
+   * Export formats of the product catalog.
+   */
+  public enum Format {
+
+    /**
+     * Newline-delimited JSON, one product object per line.
+     */
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+
+    /**
+     * Comma-separated values with a header row.
+     */
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+    private final MediaType mediaType;
+    private final String fileExtension;
+
+    Format(MediaType mediaType, String fileExtension) {
+      this.mediaType = mediaType;
+      this.fileExtension = fileExtension;
+    }
+
+    public MediaType mediaType() {
+      return mediaType;
+    }
+
+    public String fileExtension() {
+      return fileExtension;
+    }
+  }
+}
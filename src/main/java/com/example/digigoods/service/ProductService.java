@@ -4,11 +4,16 @@ import com.example.digigoods.exception.InsufficientStockException;
 import com.example.digigoods.exception.ProductNotFoundException;
 import com.example.digigoods.model.Product;
 import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.ProductStockRepository;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service for product operations.
@@ -17,22 +22,36 @@ import org.springframework.stereotype.Service;
 public class ProductService {
 
   private final ProductRepository productRepository;
+  private final ProductStockRepository productStockRepository;
+  private final StockLeaseManager stockLeaseManager;
+  private final ProductCache productCache;
 
-  public ProductService(ProductRepository productRepository) {
+  public ProductService(ProductRepository productRepository,
+                        ProductStockRepository productStockRepository,
+                        StockLeaseManager stockLeaseManager,
+                        ProductCache productCache) {
     this.productRepository = productRepository;
+    this.productStockRepository = productStockRepository;
+    this.stockLeaseManager = stockLeaseManager;
+    this.productCache = productCache;
   }
 
   /**
    * Get products by their IDs and validate they exist.
    *
-   * @param productIds the list of product IDs
+   * <p>Products are read through the {@link ProductCache}, so their stock may be out of
+   * date; stock is only checked by the conditional updates of {@link #decrementStock}.
+   *
+   * @param productIds the product IDs
    * @return list of products
    * @throws ProductNotFoundException if any product is not found
    */
-  public List<Product> getProductsByIds(List<Long> productIds) {
-    List<Product> products = productRepository.findAllByIdIn(productIds);
+  public List<Product> getProductsByIds(Collection<Long> productIds) {
+    List<Product> products = productCache.getProducts(productIds,
+        productRepository::findAllByIdIn);
 
-    if (products.size() != productIds.size()) {
+    // Product IDs may repeat to express quantity, so compare against distinct IDs
+    if (products.size() != productIds.stream().distinct().count()) {
       // Find missing product IDs
       List<Long> foundIds = products.stream()
           .map(Product::getId)
@@ -49,12 +68,17 @@ public class ProductService {
   }
 
   /**
-   * Get all products from the database.
+   * Find products by their IDs, skipping IDs that do not exist. Products are read through
+   * the {@link ProductCache}.
    *
-   * @return list of all products
+   * @param productIds the product IDs
+   * @return list of products found
    */
-  public List<Product> getAllProducts() {
-    return productRepository.findAll();
+  public List<Product> findProductsByIds(Collection<Long> productIds) {
+    if (productIds.isEmpty()) {
+      return List.of();
+    }
+    return productCache.getProducts(productIds, productRepository::findAllByIdIn);
   }
 
   /**
@@ -62,33 +86,171 @@ public class ProductService {
    *
    * @param productIds the list of product IDs (with duplicates for quantity)
    * @throws InsufficientStockException if any product has insufficient stock
+   * @throws ProductNotFoundException if any product is not found
+   * @see #decrementStock(SortedMap)
    */
+  @Transactional
   public void validateAndUpdateStock(List<Long> productIds) {
-    // Count quantities for each product
-    Map<Long, Long> productQuantities = productIds.stream()
-        .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
-
-    // Get all unique products
-    List<Product> products = getProductsByIds(productQuantities.keySet().stream()
-        .collect(Collectors.toList()));
-
-    // Validate stock availability
-    for (Product product : products) {
-      Long requestedQuantity = productQuantities.get(product.getId());
-      if (product.getStock() < requestedQuantity) {
-        throw new InsufficientStockException(
-            product.getId(),
-            requestedQuantity.intValue(),
-            product.getStock()
-        );
+    decrementStock(countQuantities(productIds));
+  }
+
+  /**
+   * Decrement stock for products.
+   *
+   * <p>Each distinct product is decremented with a conditional update, so stock can never
+   * go below zero even when concurrent checkouts race for the same product. The updates
+   * are sent as one batch, ordered by product ID to keep lock acquisition order stable.
+   * Products configured as hot SKUs are decremented from leased stock instead. Whether a
+   * product has unlimited inventory is decided by the update itself: its row does not match,
+   * and only then is it looked up, so a product whose inventory policy was just changed is
+   * never decremented or skipped by mistake.
+   *
+   * @param productQuantities quantity to decrement per product ID, sorted by product ID
+   * @throws InsufficientStockException if any product has insufficient stock
+   * @throws ProductNotFoundException if any product is not found
+   */
+  @Transactional
+  public void decrementStock(SortedMap<Long, Integer> productQuantities) {
+    SortedMap<Long, Integer> remaining = new TreeMap<>(productQuantities);
+
+    // Hot products are served from leased in-memory stock instead of their rows
+    remaining.entrySet().removeIf(entry -> {
+      if (!stockLeaseManager.isHot(entry.getKey())) {
+        return false;
+      }
+      stockLeaseManager.decrement(entry.getKey(), entry.getValue());
+      return true;
+    });
+    if (remaining.isEmpty()) {
+      return;
+    }
+
+    int[] updateCounts = productStockRepository.decrementStock(remaining);
+    List<Long> failedIds = failedIds(updateCounts, remaining);
+    if (!failedIds.isEmpty()) {
+      // Products with unlimited inventory have no stock to decrement
+      failedIds.removeAll(productStockRepository.findUnlimitedIds(failedIds));
+    }
+    if (!failedIds.isEmpty()) {
+      throw stockUpdateFailure(failedIds, remaining);
+    }
+  }
+
+  /**
+   * Reserve stock for products without selling it.
+   *
+   * <p>Reserved units are excluded from the available stock until they are committed
+   * or released, so the reservation holds them without keeping product rows locked.
+   * Products with unlimited inventory are skipped, here and when the reservation is
+   * committed or released.
+   *
+   * @param productQuantities quantity to reserve per product ID, sorted by product ID
+   * @throws InsufficientStockException if any product has insufficient available stock
+   * @throws ProductNotFoundException if any product is not found
+   */
+  @Transactional
+  public void reserveStock(SortedMap<Long, Integer> productQuantities) {
+    SortedMap<Long, Integer> stocked = withoutUnlimited(productQuantities);
+    int[] updateCounts = productStockRepository.reserveStock(stocked);
+    throwIfAnyFailed(updateCounts, stocked);
+  }
+
+  /**
+   * Turn previously reserved stock into sold stock.
+   *
+   * @param productQuantities reserved quantity per product ID, sorted by product ID
+   * @throws IllegalStateException if the products do not hold the reserved quantities
+   */
+  @Transactional
+  public void commitReservedStock(SortedMap<Long, Integer> productQuantities) {
+    int[] updateCounts = productStockRepository.commitReservedStock(
+        withoutUnlimited(productQuantities));
+    requireAllUpdated(updateCounts, "commit");
+  }
+
+  /**
+   * Return previously reserved stock to the available stock.
+   *
+   * @param productQuantities reserved quantity per product ID, sorted by product ID
+   * @throws IllegalStateException if the products do not hold the reserved quantities
+   */
+  @Transactional
+  public void releaseReservedStock(SortedMap<Long, Integer> productQuantities) {
+    int[] updateCounts = productStockRepository.releaseReservedStock(
+        withoutUnlimited(productQuantities));
+    requireAllUpdated(updateCounts, "release");
+  }
+
+  /**
+   * Count quantities for each product, ordered by product ID.
+   *
+   * @param productIds the list of product IDs (with duplicates for quantity)
+   * @return quantity per product ID, sorted by product ID
+   */
+  public static SortedMap<Long, Integer> countQuantities(List<Long> productIds) {
+    SortedMap<Long, Integer> productQuantities = new TreeMap<>();
+    for (Long productId : productIds) {
+      productQuantities.merge(productId, 1, Integer::sum);
+    }
+    return productQuantities;
+  }
+
+  private SortedMap<Long, Integer> withoutUnlimited(SortedMap<Long, Integer> productQuantities) {
+    List<Long> unlimitedIds = productStockRepository.findUnlimitedIds(
+        productQuantities.keySet());
+    if (unlimitedIds.isEmpty()) {
+      return productQuantities;
+    }
+    SortedMap<Long, Integer> stocked = new TreeMap<>(productQuantities);
+    stocked.keySet().removeAll(unlimitedIds);
+    return stocked;
+  }
+
+  private void throwIfAnyFailed(int[] updateCounts, SortedMap<Long, Integer> productQuantities) {
+    List<Long> failedIds = failedIds(updateCounts, productQuantities);
+    if (!failedIds.isEmpty()) {
+      throw stockUpdateFailure(failedIds, productQuantities);
+    }
+  }
+
+  private static List<Long> failedIds(int[] updateCounts,
+                                      SortedMap<Long, Integer> productQuantities) {
+    // Collect products whose conditional update did not match a row
+    List<Long> failedIds = new ArrayList<>();
+    int index = 0;
+    for (Long productId : productQuantities.keySet()) {
+      if (updateCounts[index++] == 0) {
+        failedIds.add(productId);
       }
     }
+    return failedIds;
+  }
 
-    // Update stock
-    for (Product product : products) {
-      Long requestedQuantity = productQuantities.get(product.getId());
-      product.setStock(product.getStock() - requestedQuantity.intValue());
-      productRepository.save(product);
+  private void requireAllUpdated(int[] updateCounts, String operation) {
+    for (int updateCount : updateCounts) {
+      if (updateCount == 0) {
+        throw new IllegalStateException("Reserved stock is out of sync, cannot " + operation
+            + " reservation");
+      }
     }
   }
+
+  private RuntimeException stockUpdateFailure(List<Long> failedIds,
+                                              Map<Long, Integer> productQuantities) {
+    Map<Long, Integer> currentStock = productStockRepository.findStockByIds(failedIds);
+
+    List<Long> missingIds = failedIds.stream()
+        .filter(id -> !currentStock.containsKey(id))
+        .collect(Collectors.toList());
+    if (!missingIds.isEmpty()) {
+      return new ProductNotFoundException("Products not found with IDs: " + missingIds);
+    }
+
+    Long productId = failedIds.get(0);
+    return new InsufficientStockException(
+        productId,
+        productQuantities.get(productId),
+        currentStock.get(productId)
+    );
+  }
 }
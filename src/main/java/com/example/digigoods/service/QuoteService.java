@@ -0,0 +1,213 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.config.CheckoutProperties;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.QuoteResponse;
+import com.example.digigoods.model.Discount;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service issuing and redeeming signed price quotes.
+ *
+ * <p>A quote token carries the prices of a priced cart together with the
+ * {@link CatalogVersions} version the cart was priced against, signed with HMAC-SHA256. A
+ * checkout presenting the token for the same user, products and discount codes can skip
+ * re-pricing as long as the token has not expired and neither products nor discounts have
+ * changed since. Tokens expire after {@code digigoods.checkout.quote.ttl}, or earlier when
+ * one of the quoted discounts expires. The version is read from the database when the token
+ * is redeemed, so a change made on any node, by plain SQL or by a migration invalidates it.
+ *
+ * <p>Tokens are signed with {@code digigoods.checkout.quote.secret}, which has no default and
+ * must be at least {@value #MIN_SECRET_BYTES} bytes. It is kept apart from the JWT secret, so
+ * neither key can be used to forge the other's tokens.
+ */
+@Service
+public class QuoteService {
+
+  private static final String HMAC_ALGORITHM = "HmacSHA256";
+  private static final String TOKEN_VERSION = "v2";
+  private static final String FIELD_SEPARATOR = ":";
+  private static final int FIELD_COUNT = 9;
+  private static final int MIN_SECRET_BYTES = 32;
+
+  private final CheckoutProperties.Quote properties;
+  private final SecretKeySpec signingKey;
+  private final Clock clock;
+
+  public QuoteService(CheckoutProperties properties, Clock clock) {
+    this.properties = properties.getQuote();
+    this.signingKey = new SecretKeySpec(secretBytes(this.properties.getSecret()),
+        HMAC_ALGORITHM);
+    this.clock = clock;
+  }
+
+  private static byte[] secretBytes(String secret) {
+    if (secret == null || secret.isBlank()) {
+      throw new IllegalStateException("digigoods.checkout.quote.secret is not configured");
+    }
+    byte[] bytes = secret.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length < MIN_SECRET_BYTES) {
+      throw new IllegalStateException("digigoods.checkout.quote.secret must be at least "
+          + MIN_SECRET_BYTES + " bytes");
+    }
+    return bytes;
+  }
+
+  /**
+   * Issue a quote for a priced cart.
+   *
+   * @param pricedOrder the priced cart
+   * @param version the catalog version taken before the cart was priced
+   * @return the price breakdown and quote token
+   */
+  public QuoteResponse issue(PricedOrder pricedOrder, CatalogVersions.Version version) {
+    Instant expiresAt = expiresAt(pricedOrder.getDiscounts());
+    Quote quote = new Quote(requestHash(pricedOrder.getRequest()),
+        pricedOrder.getDiscounts().stream().map(Discount::getId).toList(),
+        PricingEngine.toCents(pricedOrder.getOriginalSubtotal()),
+        PricingEngine.toCents(pricedOrder.getProductDiscountedSubtotal()),
+        PricingEngine.toCents(pricedOrder.getFinalPrice()),
+        version, expiresAt);
+
+    return new QuoteResponse(pricedOrder.getOriginalSubtotal(),
+        pricedOrder.getOriginalSubtotal().subtract(pricedOrder.getProductDiscountedSubtotal()),
+        pricedOrder.getProductDiscountedSubtotal().subtract(pricedOrder.getFinalPrice()),
+        pricedOrder.getFinalPrice(), sign(quote),
+        LocalDateTime.ofInstant(expiresAt, clock.getZone()));
+  }
+
+  /**
+   * Redeem the quote token of a checkout request.
+   *
+   * @param request the checkout request carrying the quote token
+   * @param currentVersion reads the current catalog version, only once the token is
+   *                       otherwise valid
+   * @return the quote, or empty if the token is invalid, expired, issued for another
+   *         request or priced against an outdated catalog
+   */
+  public Optional<Quote> redeem(CheckoutRequest request,
+                                Supplier<CatalogVersions.Version> currentVersion) {
+    return verify(request.getQuoteToken())
+        .filter(quote -> quote.expiresAt().isAfter(clock.instant()))
+        .filter(quote -> quote.requestHash().equals(requestHash(request)))
+        .filter(quote -> quote.version().equals(currentVersion.get()));
+  }
+
+  String sign(Quote quote) {
+    String payload = String.join(FIELD_SEPARATOR,
+        TOKEN_VERSION,
+        quote.requestHash(),
+        quote.discountIds().stream().map(String::valueOf).collect(Collectors.joining(",")),
+        String.valueOf(quote.originalSubtotal()),
+        String.valueOf(quote.productDiscountedSubtotal()),
+        String.valueOf(quote.finalPrice()),
+        String.valueOf(quote.version().products()),
+        String.valueOf(quote.version().discounts()),
+        String.valueOf(quote.expiresAt().toEpochMilli()));
+    byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+    Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    return encoder.encodeToString(payloadBytes) + "." + encoder.encodeToString(mac(payloadBytes));
+  }
+
+  Optional<Quote> verify(String token) {
+    if (token == null) {
+      return Optional.empty();
+    }
+    try {
+      int separator = token.indexOf('.');
+      if (separator < 0) {
+        return Optional.empty();
+      }
+      Base64.Decoder decoder = Base64.getUrlDecoder();
+      byte[] payloadBytes = decoder.decode(token.substring(0, separator));
+      byte[] signature = decoder.decode(token.substring(separator + 1));
+      if (!MessageDigest.isEqual(mac(payloadBytes), signature)) {
+        return Optional.empty();
+      }
+
+      String[] fields = new String(payloadBytes, StandardCharsets.UTF_8)
+          .split(FIELD_SEPARATOR, -1);
+      if (fields.length != FIELD_COUNT || !TOKEN_VERSION.equals(fields[0])) {
+        return Optional.empty();
+      }
+      List<Long> discountIds = new ArrayList<>();
+      if (!fields[2].isEmpty()) {
+        for (String discountId : fields[2].split(",")) {
+          discountIds.add(Long.parseLong(discountId));
+        }
+      }
+      return Optional.of(new Quote(fields[1], discountIds,
+          Long.parseLong(fields[3]), Long.parseLong(fields[4]), Long.parseLong(fields[5]),
+          new CatalogVersions.Version(Long.parseLong(fields[6]), Long.parseLong(fields[7])),
+          Instant.ofEpochMilli(Long.parseLong(fields[8]))));
+    } catch (IllegalArgumentException e) {
+      // Malformed Base64 or number
+      return Optional.empty();
+    }
+  }
+
+  private Instant expiresAt(List<Discount> discounts) {
+    Instant expiresAt = clock.instant().plus(properties.getTtl());
+    for (Discount discount : discounts) {
+      Instant discountExpiresAt = discount.getValidUntil().plusDays(1)
+          .atStartOfDay(clock.getZone()).toInstant();
+      if (discountExpiresAt.isBefore(expiresAt)) {
+        expiresAt = discountExpiresAt;
+      }
+    }
+    return expiresAt;
+  }
+
+  private byte[] mac(byte[] payload) {
+    try {
+      Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+      mac.init(signingKey);
+      return mac.doFinal(payload);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  static String requestHash(CheckoutRequest request) {
+    String cart = request.getUserId() + "|" + request.quantities() + "|"
+        + Objects.requireNonNullElse(request.getDiscountCodes(), List.of());
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(cart.getBytes(StandardCharsets.UTF_8)));
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Prices of a quoted cart, in cents.
+   *
+   * @param requestHash hash of the user, products and discount codes of the cart
+   * @param discountIds IDs of the discounts applied to the cart
+   * @param originalSubtotal subtotal before discounts
+   * @param productDiscountedSubtotal subtotal after product-specific discounts
+   * @param finalPrice price after all discounts
+   * @param version catalog version the cart was priced against
+   * @param expiresAt when the quote expires
+   */
+  public record Quote(String requestHash, List<Long> discountIds, long originalSubtotal,
+                      long productDiscountedSubtotal, long finalPrice,
+                      CatalogVersions.Version version, Instant expiresAt) {
+  }
+}
@@ -0,0 +1,166 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.config.ReservationProperties;
+import com.example.digigoods.dto.ReservationRequest;
+import com.example.digigoods.dto.ReservationResponse;
+import com.example.digigoods.exception.InvalidReservationException;
+import com.example.digigoods.exception.UnauthorizedAccessException;
+import com.example.digigoods.model.ReservationStatus;
+import com.example.digigoods.model.StockReservation;
+import com.example.digigoods.repository.StockReservationRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for two-phase stock reservations.
+ *
+ * <p>Stock is reserved at cart or quote time in a short transaction and confirmed when the
+ * order is committed. Reservations that are neither confirmed nor released expire after
+ * the configured TTL and are released by {@link ReservationSweeper}.
+ */
+@Service
+@Transactional
+public class ReservationService {
+
+  private final StockReservationRepository stockReservationRepository;
+  private final ProductService productService;
+  private final ReservationProperties properties;
+
+  public ReservationService(StockReservationRepository stockReservationRepository,
+                            ProductService productService,
+                            ReservationProperties properties) {
+    this.stockReservationRepository = stockReservationRepository;
+    this.productService = productService;
+    this.properties = properties;
+  }
+
+  /**
+   * Reserve stock for a cart.
+   *
+   * @param request the reservation request
+   * @param authenticatedUserId the ID of the authenticated user
+   * @return reservation response with the reservation ID and its expiry
+   * @throws UnauthorizedAccessException if user tries to reserve for another user
+   */
+  public ReservationResponse reserve(ReservationRequest request, Long authenticatedUserId) {
+    validateUserAuthorization(request.getUserId(), authenticatedUserId);
+
+    SortedMap<Long, Integer> quantities = ProductService.countQuantities(request.getProductIds());
+    productService.reserveStock(quantities);
+
+    String reservationKey = UUID.randomUUID().toString();
+    LocalDateTime expiresAt = LocalDateTime.now().plus(properties.getTtl());
+    List<StockReservation> rows = new ArrayList<>(quantities.size());
+    for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+      StockReservation row = new StockReservation();
+      row.setReservationKey(reservationKey);
+      row.setUserId(request.getUserId());
+      row.setProductId(entry.getKey());
+      row.setQuantity(entry.getValue());
+      row.setStatus(ReservationStatus.HELD);
+      row.setExpiresAt(expiresAt);
+      rows.add(row);
+    }
+    stockReservationRepository.saveAll(rows);
+
+    return new ReservationResponse(reservationKey, expiresAt);
+  }
+
+  /**
+   * Confirm a reservation and turn its reserved stock into sold stock.
+   *
+   * @param reservationKey the reservation ID
+   * @param userId the ID of the user placing the order
+   * @param quantities the ordered quantity per product ID, sorted by product ID
+   * @throws InvalidReservationException if the reservation is unknown, expired, owned by
+   *         another user or does not match the ordered quantities
+   */
+  public void confirm(String reservationKey, Long userId, SortedMap<Long, Integer> quantities) {
+    SortedMap<Long, Integer> reserved = findHeldQuantities(reservationKey, userId);
+    if (!reserved.equals(quantities)) {
+      throw new InvalidReservationException(reservationKey,
+          "reserved products do not match the order");
+    }
+
+    transition(reservationKey, reserved, ReservationStatus.CONFIRMED);
+    productService.commitReservedStock(reserved);
+  }
+
+  /**
+   * Release a reservation before it expires.
+   *
+   * @param reservationKey the reservation ID
+   * @param authenticatedUserId the ID of the authenticated user
+   * @throws InvalidReservationException if the reservation is unknown, already used or
+   *         owned by another user
+   */
+  public void release(String reservationKey, Long authenticatedUserId) {
+    SortedMap<Long, Integer> reserved = findHeldQuantities(reservationKey, authenticatedUserId);
+    transition(reservationKey, reserved, ReservationStatus.RELEASED);
+    productService.releaseReservedStock(reserved);
+  }
+
+  /**
+   * Release one batch of expired reservation rows.
+   *
+   * @return number of rows released
+   */
+  public int releaseExpiredBatch() {
+    List<StockReservation> expired = stockReservationRepository
+        .findAllByStatusAndExpiresAtBeforeOrderById(ReservationStatus.HELD,
+            LocalDateTime.now(), PageRequest.ofSize(properties.getSweepBatchSize()));
+    if (expired.isEmpty()) {
+      return 0;
+    }
+
+    SortedMap<Long, Integer> quantities = new TreeMap<>();
+    for (StockReservation row : expired) {
+      row.setStatus(ReservationStatus.EXPIRED);
+      quantities.merge(row.getProductId(), row.getQuantity(), Integer::sum);
+    }
+    productService.releaseReservedStock(quantities);
+    return expired.size();
+  }
+
+  private SortedMap<Long, Integer> findHeldQuantities(String reservationKey, Long userId) {
+    List<StockReservation> rows = stockReservationRepository
+        .findAllByReservationKeyAndStatus(reservationKey, ReservationStatus.HELD);
+    if (rows.isEmpty()) {
+      throw new InvalidReservationException(reservationKey, "reservation not found");
+    }
+    if (!rows.get(0).getUserId().equals(userId)) {
+      throw new InvalidReservationException(reservationKey,
+          "reservation belongs to another user");
+    }
+
+    SortedMap<Long, Integer> quantities = new TreeMap<>();
+    for (StockReservation row : rows) {
+      quantities.put(row.getProductId(), row.getQuantity());
+    }
+    return quantities;
+  }
+
+  private void transition(String reservationKey, Map<Long, Integer> reserved,
+                          ReservationStatus to) {
+    // Conditional update so a concurrent sweep or a second checkout cannot use it as well
+    int updated = stockReservationRepository.transitionStatus(reservationKey,
+        ReservationStatus.HELD, to, LocalDateTime.now());
+    if (updated != reserved.size()) {
+      throw new InvalidReservationException(reservationKey, "reservation has expired");
+    }
+  }
+
+  private void validateUserAuthorization(Long requestUserId, Long authenticatedUserId) {
+    if (!requestUserId.equals(authenticatedUserId)) {
+      throw new UnauthorizedAccessException("User cannot reserve stock for another user");
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.config.ReservationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background task releasing expired stock reservations in batches.
+ */
+@Component
+public class ReservationSweeper {
+
+  private final ReservationService reservationService;
+  private final ReservationProperties properties;
+
+  public ReservationSweeper(ReservationService reservationService,
+                            ReservationProperties properties) {
+    this.reservationService = reservationService;
+    this.properties = properties;
+  }
+
+  /**
+   * Release expired reservations, one short transaction per batch.
+   */
+  @Scheduled(fixedDelayString = "${digigoods.reservation.sweep-interval-ms:10000}")
+  public void releaseExpiredReservations() {
+    int released;
+    do {
+      released = reservationService.releaseExpiredBatch();
+    } while (released == properties.getSweepBatchSize());
+  }
+}
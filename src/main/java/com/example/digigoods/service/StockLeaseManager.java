@@ -0,0 +1,267 @@
+package com.example.digigoods.service;
+
+import com.example.digigoods.config.StockProperties;
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.repository.ProductStockRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Serves stock decrements for hot SKUs from quotas leased out of the products table.
+ *
+ * <p>Each node takes a block of stock from the database into striped in-memory counters
+ * and serves checkouts from them, so concurrent checkouts of the same product no longer
+ * queue on its row lock. Unused quota is returned to the database when the lease expires
+ * and on shutdown. While a lease is held, the database stock of the product is lower than
+ * what is actually sellable by the leased amount.
+ *
+ * <p>A refill takes stock in the transaction of the checkout that needs it, since a
+ * separate transaction would need a second pooled connection and checkouts holding every
+ * connection would wait for each other. The refilled stock left over by that checkout is
+ * added to the lease only once its transaction commits.
+ */
+@Service
+public class StockLeaseManager {
+
+  private static final Logger log = LoggerFactory.getLogger(StockLeaseManager.class);
+
+  private final ProductStockRepository productStockRepository;
+  private final StockProperties.HotSku properties;
+  private final TransactionTemplate leaseTransaction;
+  private final MeterRegistry meterRegistry;
+  private final Clock clock;
+  private final Map<Long, Lease> leases = new ConcurrentHashMap<>();
+
+  @Autowired
+  public StockLeaseManager(ProductStockRepository productStockRepository,
+                           StockProperties stockProperties,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry) {
+    this(productStockRepository, stockProperties, transactionManager, meterRegistry,
+        Clock.systemUTC());
+  }
+
+  StockLeaseManager(ProductStockRepository productStockRepository,
+                    StockProperties stockProperties,
+                    PlatformTransactionManager transactionManager,
+                    MeterRegistry meterRegistry,
+                    Clock clock) {
+    this.productStockRepository = productStockRepository;
+    this.properties = stockProperties.getHotSku();
+    this.leaseTransaction = new TransactionTemplate(transactionManager);
+    this.meterRegistry = meterRegistry;
+    this.clock = clock;
+  }
+
+  /**
+   * Check whether a product is served from leased stock.
+   *
+   * @param productId the product ID
+   * @return true if hot SKU mode is enabled for the product
+   */
+  public boolean isHot(Long productId) {
+    return properties.isEnabled() && properties.getProductIds().contains(productId);
+  }
+
+  /**
+   * Decrement stock of a hot product from its lease, refilling the lease if needed.
+   *
+   * <p>If the surrounding transaction rolls back, the quantity taken from the lease is put
+   * back into it; stock refilled by that transaction returns to the database with it.
+   *
+   * @param productId the product ID
+   * @param quantity the quantity to take
+   * @throws InsufficientStockException if leased and database stock together are not enough
+   */
+  public void decrement(Long productId, int quantity) {
+    Lease lease = leases.computeIfAbsent(productId, this::newLease);
+
+    long fromLease;
+    if (lease.quota().tryTake(quantity)) {
+      lease.hits().increment();
+      fromLease = quantity;
+    } else {
+      lease.misses().increment();
+      fromLease = refill(productId, lease, quantity);
+    }
+
+    if (fromLease > 0 && TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          if (status == STATUS_ROLLED_BACK) {
+            putBack(lease.quota(), fromLease);
+          }
+        }
+      });
+    }
+  }
+
+  /**
+   * Return unused quota of expired leases to the database.
+   */
+  @Scheduled(fixedDelayString = "${digigoods.stock.hot-sku.sweep-interval-ms:5000}")
+  public void returnExpiredLeases() {
+    long now = clock.millis();
+    leases.forEach((productId, lease) -> {
+      if (lease.quota().isExpired(now)) {
+        returnLease(productId, lease);
+      }
+    });
+  }
+
+  /**
+   * Return all unused quota to the database on shutdown.
+   */
+  @PreDestroy
+  public void returnAllLeases() {
+    leases.forEach((productId, lease) -> {
+      try {
+        returnLease(productId, lease);
+      } catch (RuntimeException e) {
+        log.error("Failed to return leased stock for product {}", productId, e);
+      }
+    });
+  }
+
+  /**
+   * Take the quantity from the lease, refilling it from the database if needed.
+   *
+   * @return the part of the quantity taken from the lease rather than refilled
+   */
+  private long refill(Long productId, Lease lease, int quantity) {
+    final StripedQuota quota = lease.quota();
+    quota.lock().lock();
+    try {
+      // Another thread may have refilled while we were waiting for the lock
+      if (quota.tryTake(quantity)) {
+        return quantity;
+      }
+
+      // The stripes may hold enough together even if no single stripe does
+      long available = quota.drain();
+      if (available >= quantity) {
+        quota.deposit(available - quantity);
+        return quantity;
+      }
+
+      int wanted = (int) (quantity - available) + properties.getLeaseSize();
+      Integer result = leaseTransaction.execute(
+          status -> productStockRepository.leaseStock(productId, wanted));
+      long granted = result == null ? 0 : result;
+      lease.refills().increment();
+
+      if (available + granted < quantity) {
+        quota.deposit(available);
+        depositOnCommit(quota, granted);
+        throw new InsufficientStockException(productId, quantity, (int) (available + granted));
+      }
+      depositOnCommit(quota, available + granted - quantity);
+      return available;
+    } finally {
+      quota.lock().unlock();
+    }
+  }
+
+  /**
+   * Add refilled stock to the lease once the transaction that took it from the database
+   * commits, or right away outside a transaction, and extend the lease.
+   */
+  private void depositOnCommit(StripedQuota lease, long quantity) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      deposit(lease, quantity);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        deposit(lease, quantity);
+      }
+    });
+  }
+
+  private void deposit(StripedQuota lease, long quantity) {
+    lease.lock().lock();
+    try {
+      lease.deposit(quantity);
+      lease.expireAt(clock.millis() + properties.getLeaseTtl().toMillis());
+    } finally {
+      lease.lock().unlock();
+    }
+  }
+
+  /**
+   * Put back quantity taken by a rolled back transaction. If the lease was returned meanwhile, it
+   * is armed again so that the sweeper returns them to the database.
+   */
+  private void putBack(StripedQuota lease, long quantity) {
+    lease.lock().lock();
+    try {
+      lease.deposit(quantity);
+      if (!lease.hasExpiry()) {
+        lease.expireAt(clock.millis() + properties.getLeaseTtl().toMillis());
+      }
+    } finally {
+      lease.lock().unlock();
+    }
+  }
+
+  private void returnLease(Long productId, Lease lease) {
+    StripedQuota quota = lease.quota();
+    quota.lock().lock();
+    try {
+      long unused = quota.drain();
+      quota.expireAt(0);
+      if (unused > 0) {
+        leaseTransaction.executeWithoutResult(
+            status -> productStockRepository.incrementStock(productId, (int) unused));
+        lease.returned().increment(unused);
+      }
+    } finally {
+      quota.lock().unlock();
+    }
+  }
+
+  /**
+   * Create the lease of a product, registering its meters once rather than per decrement.
+   */
+  private Lease newLease(Long productId) {
+    String product = productId.toString();
+    return new Lease(new StripedQuota(properties.getStripes()),
+        requestCounter(product, "hit"),
+        requestCounter(product, "miss"),
+        Counter.builder("digigoods.stock.lease.refills")
+            .description("Number of stock lease refills from the database")
+            .tag("product", product)
+            .register(meterRegistry),
+        Counter.builder("digigoods.stock.lease.returned")
+            .description("Units of leased stock returned to the database")
+            .tag("product", product)
+            .register(meterRegistry));
+  }
+
+  private Counter requestCounter(String product, String result) {
+    return Counter.builder("digigoods.stock.lease.requests")
+        .description("Stock decrements served from a lease (hit) or needing a refill (miss)")
+        .tag("product", product)
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  private record Lease(StripedQuota quota, Counter hits, Counter misses, Counter refills,
+                       Counter returned) {
+  }
+}
@@ -0,0 +1,74 @@
+package com.example.digigoods.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Quota leased out of a database counter, striped across CAS cells to avoid a single hot
+ * counter.
+ *
+ * <p>Takes are lock-free. Refills and returns to the database hold {@link #lock()} so that
+ * only one thread talks to the database per quota at a time.
+ */
+final class StripedQuota {
+
+  private final AtomicLongArray cells;
+  private final ReentrantLock lock = new ReentrantLock();
+  private volatile long expiresAt;
+
+  StripedQuota(int stripes) {
+    this.cells = new AtomicLongArray(Math.max(1, stripes));
+  }
+
+  boolean tryTake(int quantity) {
+    int stripes = cells.length();
+    int start = (int) (Thread.currentThread().threadId() % stripes);
+    for (int i = 0; i < stripes; i++) {
+      int cell = (start + i) % stripes;
+      long current = cells.get(cell);
+      while (current >= quantity) {
+        if (cells.compareAndSet(cell, current, current - quantity)) {
+          return true;
+        }
+        current = cells.get(cell);
+      }
+    }
+    return false;
+  }
+
+  long drain() {
+    long total = 0;
+    for (int i = 0; i < cells.length(); i++) {
+      total += cells.getAndSet(i, 0);
+    }
+    return total;
+  }
+
+  void deposit(long quantity) {
+    int stripes = cells.length();
+    long share = quantity / stripes;
+    long remainder = quantity % stripes;
+    for (int i = 0; i < stripes; i++) {
+      cells.addAndGet(i, share + (i < remainder ? 1 : 0));
+    }
+  }
+
+  ReentrantLock lock() {
+    return lock;
+  }
+
+  void expireAt(long expiresAt) {
+    this.expiresAt = expiresAt;
+  }
+
+  /**
+   * Check whether the quota has an expiry, i.e. it was leased and not yet returned.
+   */
+  boolean hasExpiry() {
+    return expiresAt > 0;
+  }
+
+  boolean isExpired(long now) {
+    return expiresAt > 0 && expiresAt <= now;
+  }
+}
@@ -0,0 +1,188 @@
+package com.example.digigoods.benchmark;
+
+import com.example.digigoods.config.CheckoutProperties;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.DiscountType;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.DiscountRepository;
+import com.example.digigoods.repository.OrderRepository;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.UserRepository;
+import com.example.digigoods.service.CheckoutService;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Latency comparison of serial and concurrent product and discount loading, in short-write
+ * mode where the cart is priced outside the write transaction.
+ *
+ * <p>Run with {@code ./mvnw test -Pbenchmark}. The in-memory H2 test database answers in
+ * microseconds, so the checkouts are also measured with a simulated network round trip
+ * added to every statement execution. The numbers are printed to stdout.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+class CheckoutLatencyBenchmarkTest {
+
+  private static final int WARM_UP_ORDERS = 100;
+  private static final int ORDERS = 300;
+  private static volatile long roundTripMillis;
+
+  @Autowired
+  private CheckoutService checkoutService;
+
+  @Autowired
+  private CheckoutProperties checkoutProperties;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private DiscountRepository discountRepository;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  private User user;
+  private List<Long> productIds;
+
+  @BeforeEach
+  void setUp() {
+    user = new User();
+    user.setUsername("latencyuser");
+    user.setPassword("password");
+    user = userRepository.save(user);
+
+    productIds = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      Product product = new Product(null, "Latency Product " + i, new BigDecimal("10.00"),
+          1_000_000);
+      productIds.add(productRepository.save(product).getId());
+    }
+
+    Discount discount = new Discount();
+    discount.setCode("LATENCY5");
+    discount.setPercentage(new BigDecimal("5.00"));
+    discount.setType(DiscountType.GENERAL);
+    discount.setValidFrom(LocalDate.now().minusDays(1));
+    discount.setValidUntil(LocalDate.now().plusDays(1));
+    discount.setRemainingUses(1_000_000);
+    discountRepository.save(discount);
+  }
+
+  @AfterEach
+  void tearDown() {
+    roundTripMillis = 0;
+    checkoutProperties.setConcurrentLoading(false);
+    checkoutProperties.setMode(CheckoutProperties.Mode.PER_REQUEST);
+    orderRepository.deleteAll();
+    discountRepository.deleteAll();
+    productRepository.deleteAll();
+    userRepository.delete(user);
+  }
+
+  @Test
+  @DisplayName("Checkout latency with serial and concurrent loading")
+  void checkoutLatency() {
+    checkoutProperties.setMode(CheckoutProperties.Mode.SHORT_WRITE);
+    for (long roundTrip : new long[] {0, 2}) {
+      roundTripMillis = roundTrip;
+      for (boolean concurrent : new boolean[] {false, true}) {
+        checkoutProperties.setConcurrentLoading(concurrent);
+        measure(WARM_UP_ORDERS);
+        long[] latencies = measure(ORDERS);
+        Arrays.sort(latencies);
+        System.out.printf("round trip %d ms, %-10s p50 %7.3f ms, p99 %7.3f ms%n", roundTrip,
+            concurrent ? "concurrent" : "serial", latencies[ORDERS / 2] / 1e6,
+            latencies[ORDERS * 99 / 100] / 1e6);
+      }
+    }
+  }
+
+  private long[] measure(int count) {
+    long[] latencies = new long[count];
+    CheckoutRequest request = new CheckoutRequest(user.getId(), productIds,
+        List.of("LATENCY5"));
+    for (int i = 0; i < count; i++) {
+      long start = System.nanoTime();
+      checkoutService.processCheckout(request, user.getId());
+      latencies[i] = System.nanoTime() - start;
+    }
+    return latencies;
+  }
+
+  @TestConfiguration
+  static class RoundTripConfig {
+
+    @Bean
+    static BeanPostProcessor roundTripDataSource() {
+      return new BeanPostProcessor() {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+          if (bean instanceof DataSource dataSource) {
+            return delayingProxy(DataSource.class, dataSource);
+          }
+          return bean;
+        }
+      };
+    }
+
+    private static <T> T delayingProxy(Class<T> type, T target) {
+      return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+          (proxy, method, args) -> {
+            if (Statement.class.isAssignableFrom(type)
+                && method.getName().startsWith("execute")) {
+              TimeUnit.MILLISECONDS.sleep(roundTripMillis);
+            }
+            Object result = invoke(target, method, args);
+            if (result instanceof Connection connection) {
+              return delayingProxy(Connection.class, connection);
+            }
+            if (result instanceof Statement statement && method.getReturnType().isInterface()) {
+              return delayingProxy(statementType(method.getReturnType()), statement);
+            }
+            return result;
+          }));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<Statement> statementType(Class<?> returnType) {
+      return (Class<Statement>) returnType;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+}
@@ -0,0 +1,155 @@
+package com.example.digigoods.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.digigoods.config.CheckoutProperties;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.OrderRepository;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.UserRepository;
+import com.example.digigoods.service.CheckoutService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Throughput comparison of the per-request, group-commit and short-write checkout modes.
+ *
+ * <p>Run with {@code ./mvnw test -Pbenchmark}. The numbers are printed to stdout; they
+ * come from the in-memory H2 test database, so compare them with each other rather than
+ * with production figures. The connection pool is smaller than the number of threads, and
+ * the Hikari usage timer shows how long each checkout holds a connection.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.datasource.hikari.maximum-pool-size=4")
+@ActiveProfiles("test")
+class CheckoutThroughputBenchmarkTest {
+
+  private static final int THREADS = 16;
+  private static final int ORDERS_PER_THREAD = 250;
+  private static final int WARM_UP_ORDERS = 50;
+  private static final int INITIAL_STOCK = 1_000_000;
+
+  @Autowired
+  private CheckoutService checkoutService;
+
+  @Autowired
+  private CheckoutProperties checkoutProperties;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  private User user;
+  private List<Long> productIds;
+
+  @BeforeEach
+  void setUp() {
+    user = new User();
+    user.setUsername("benchmarkuser");
+    user.setPassword("password");
+    user = userRepository.save(user);
+
+    productIds = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      Product product = new Product(null, "Benchmark Product " + i, new BigDecimal("10.00"),
+          INITIAL_STOCK);
+      productIds.add(productRepository.save(product).getId());
+    }
+  }
+
+  @AfterEach
+  void tearDown() {
+    checkoutProperties.setMode(CheckoutProperties.Mode.PER_REQUEST);
+    orderRepository.deleteAll();
+    productRepository.deleteAll();
+    userRepository.delete(user);
+  }
+
+  @Test
+  @DisplayName("Per-request checkout throughput")
+  void perRequestThroughput() throws Exception {
+    run(CheckoutProperties.Mode.PER_REQUEST);
+  }
+
+  @Test
+  @DisplayName("Group-commit checkout throughput")
+  void groupCommitThroughput() throws Exception {
+    run(CheckoutProperties.Mode.GROUP_COMMIT);
+  }
+
+  @Test
+  @DisplayName("Short-write checkout throughput")
+  void shortWriteThroughput() throws Exception {
+    run(CheckoutProperties.Mode.SHORT_WRITE);
+  }
+
+  private void run(CheckoutProperties.Mode mode) throws Exception {
+    checkoutProperties.setMode(mode);
+
+    // Warm up connections, caches and the JIT before measuring
+    checkout(WARM_UP_ORDERS);
+    orderRepository.deleteAll();
+
+    Timer connectionUsage = meterRegistry.get("hikaricp.connections.usage").timer();
+    long borrowsBefore = connectionUsage.count();
+    double heldMillisBefore = connectionUsage.totalTime(TimeUnit.MILLISECONDS);
+    long start = System.nanoTime();
+    try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        futures.add(executor.submit(() -> checkout(ORDERS_PER_THREAD)));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    }
+    long elapsedNanos = System.nanoTime() - start;
+    long borrows = connectionUsage.count() - borrowsBefore;
+    double heldMillis = connectionUsage.totalTime(TimeUnit.MILLISECONDS) - heldMillisBefore;
+
+    int orders = THREADS * ORDERS_PER_THREAD;
+    assertEquals(orders, orderRepository.count());
+    int remainingStock = productRepository.findAllById(productIds).stream()
+        .mapToInt(Product::getStock)
+        .sum();
+    assertEquals(productIds.size() * INITIAL_STOCK - orders - WARM_UP_ORDERS, remainingStock);
+    System.out.printf("%-12s %6d orders in %6d ms = %8.1f orders/s, connection held "
+            + "%6.3f ms per borrow, %4.2f borrows and %6.3f ms per order%n", mode, orders,
+        elapsedNanos / 1_000_000, orders * 1_000_000_000.0 / elapsedNanos,
+        heldMillis / borrows, (double) borrows / orders, heldMillis / orders);
+  }
+
+  private void checkout(int count) {
+    for (int i = 0; i < count; i++) {
+      Long productId = productIds.get(i % productIds.size());
+      CheckoutRequest request = new CheckoutRequest(user.getId(), List.of(productId),
+          List.of());
+      checkoutService.processCheckout(request, user.getId());
+    }
+  }
+}
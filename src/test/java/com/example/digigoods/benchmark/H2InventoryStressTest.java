@@ -0,0 +1,15 @@
+package com.example.digigoods.benchmark;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Inventory stress test against the H2 test database.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:stress",
+    "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+class H2InventoryStressTest extends InventoryStressHarness {
+}
@@ -0,0 +1,18 @@
+package com.example.digigoods.benchmark;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Inventory stress test against H2 in PostgreSQL compatibility mode. This only changes how
+ * H2 parses SQL: the single-round-trip mode still runs the Java H2 version of place_order,
+ * and locking is still H2's. {@link PostgresInventoryStressTest} runs against PostgreSQL.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:stress-postgres-mode;MODE=PostgreSQL;"
+        + "DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+    "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+class H2PostgresModeInventoryStressTest extends InventoryStressHarness {
+}
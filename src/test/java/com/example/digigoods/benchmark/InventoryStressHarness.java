@@ -0,0 +1,296 @@
+package com.example.digigoods.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.digigoods.config.CheckoutProperties;
+import com.example.digigoods.config.DiscountProperties;
+import com.example.digigoods.config.StockProperties;
+import com.example.digigoods.dto.CartLine;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.exception.InvalidDiscountException;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.DiscountType;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.DiscountRepository;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.UserRepository;
+import com.example.digigoods.service.CheckoutService;
+import com.example.digigoods.service.DiscountQuotaManager;
+import com.example.digigoods.service.StockLeaseManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Concurrency stress test of the stock and discount usage paths.
+ *
+ * <p>Many threads check out carts of a few SKUs, half of them with one of a small set of
+ * single-use discount codes, until stock and codes run out. Afterwards the database must
+ * show no oversold stock, no negative remaining uses, no code used twice and exactly one
+ * order per successful checkout. Throughput and latency percentiles are printed to stdout
+ * for each checkout mode, so changes to the stock path can be compared.
+ *
+ * <p>Each mode also runs with every SKU a hot SKU and every code a hot quota, so stock and
+ * uses are taken from in-memory leases and put back into them when a checkout rolls back.
+ * The leases are returned to the database before checking it.
+ *
+ * <p>Subclasses choose the database. Run with {@code ./mvnw test -Pstress}.
+ */
+@Tag("stress")
+abstract class InventoryStressHarness {
+
+  private static final int THREADS = 32;
+  private static final int CHECKOUTS = 4_000;
+  private static final int SKUS = 3;
+  private static final int STOCK_PER_SKU = 1_000;
+  private static final int MAX_QUANTITY = 3;
+  private static final int DISCOUNT_CODES = 200;
+
+  @Autowired
+  private CheckoutService checkoutService;
+
+  @Autowired
+  private CheckoutProperties checkoutProperties;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private DiscountRepository discountRepository;
+
+  @Autowired
+  private StockProperties stockProperties;
+
+  @Autowired
+  private DiscountProperties discountProperties;
+
+  @Autowired
+  private StockLeaseManager stockLeaseManager;
+
+  @Autowired
+  private DiscountQuotaManager discountQuotaManager;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private User user;
+  private List<Long> productIds;
+  private List<Long> discountIds;
+  private List<String> discountCodes;
+
+  @BeforeEach
+  void setUp() {
+    // Databases migrated by Liquibase start out with the sample data
+    deleteAll();
+
+    user = new User();
+    user.setUsername("stressuser");
+    user.setPassword("password");
+    user = userRepository.save(user);
+
+    productIds = new ArrayList<>();
+    for (int i = 0; i < SKUS; i++) {
+      Product product = new Product(null, "Stress Product " + i, new BigDecimal("9.99"),
+          STOCK_PER_SKU);
+      productIds.add(productRepository.save(product).getId());
+    }
+
+    List<Discount> discounts = new ArrayList<>();
+    for (int i = 0; i < DISCOUNT_CODES; i++) {
+      Discount discount = new Discount();
+      discount.setCode("STRESS" + i);
+      discount.setPercentage(new BigDecimal("5.00"));
+      discount.setType(DiscountType.GENERAL);
+      discount.setValidFrom(LocalDate.now().minusDays(1));
+      discount.setValidUntil(LocalDate.now().plusDays(1));
+      discount.setRemainingUses(1);
+      discounts.add(discount);
+    }
+    discounts = discountRepository.saveAll(discounts);
+    discountIds = discounts.stream().map(Discount::getId).toList();
+    discountCodes = discounts.stream().map(Discount::getCode).toList();
+  }
+
+  @AfterEach
+  void tearDown() {
+    checkoutProperties.setMode(CheckoutProperties.Mode.PER_REQUEST);
+    stockProperties.getHotSku().setEnabled(false);
+    stockProperties.getHotSku().setProductIds(Set.of());
+    discountProperties.getHotQuota().setEnabled(false);
+    discountProperties.getHotQuota().setDiscountIds(Set.of());
+    deleteAll();
+  }
+
+  @ParameterizedTest
+  @EnumSource(CheckoutProperties.Mode.class)
+  @DisplayName("Given concurrent checkouts of few SKUs and single-use codes, when stock and "
+      + "codes run out, then never oversell, overuse or lose an order")
+  void givenConcurrentCheckouts_whenStockAndCodesRunOut_thenNeverOversellOrLoseOrders(
+      CheckoutProperties.Mode mode) throws Exception {
+    // Arrange
+    checkoutProperties.setMode(mode);
+
+    // Act & Assert
+    checkOutUntilSoldOut(mode.toString());
+  }
+
+  @ParameterizedTest
+  @EnumSource(CheckoutProperties.Mode.class)
+  @DisplayName("Given concurrent checkouts of hot SKUs and hot single-use codes, when stock "
+      + "and codes run out, then never oversell, overuse or lose an order")
+  void givenConcurrentHotCheckouts_whenStockAndCodesRunOut_thenNeverOversellOrLoseOrders(
+      CheckoutProperties.Mode mode) throws Exception {
+    // Arrange
+    checkoutProperties.setMode(mode);
+    stockProperties.getHotSku().setProductIds(Set.copyOf(productIds));
+    stockProperties.getHotSku().setEnabled(true);
+    discountProperties.getHotQuota().setDiscountIds(Set.copyOf(discountIds));
+    discountProperties.getHotQuota().setEnabled(true);
+
+    // Act & Assert
+    checkOutUntilSoldOut(mode + " hot");
+  }
+
+  /**
+   * Check out from many threads until stock and codes run out, then check the database and
+   * print the throughput and latencies under the given label.
+   */
+  private void checkOutUntilSoldOut(String label) throws Exception {
+    Map<Long, AtomicInteger> soldQuantities = new ConcurrentHashMap<>();
+    productIds.forEach(id -> soldQuantities.put(id, new AtomicInteger()));
+    Queue<String> usedCodes = new ConcurrentLinkedQueue<>();
+    Queue<Throwable> unexpectedFailures = new ConcurrentLinkedQueue<>();
+    AtomicInteger created = new AtomicInteger();
+    AtomicInteger rejected = new AtomicInteger();
+    long[] latencies = new long[CHECKOUTS];
+    CountDownLatch start = new CountDownLatch(1);
+
+    long startNanos;
+    long elapsedNanos;
+    try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        int thread = t;
+        futures.add(executor.submit(() -> {
+          SplittableRandom random = new SplittableRandom(thread);
+          start.await();
+          for (int i = thread; i < CHECKOUTS; i += THREADS) {
+            Long productId = productIds.get(random.nextInt(productIds.size()));
+            int quantity = 1 + random.nextInt(MAX_QUANTITY);
+            String code = random.nextBoolean()
+                ? discountCodes.get(random.nextInt(discountCodes.size())) : null;
+            CheckoutRequest request = new CheckoutRequest(user.getId(), null,
+                code != null ? List.of(code) : List.of(), null, null,
+                List.of(new CartLine(productId, quantity)));
+
+            long checkoutStart = System.nanoTime();
+            try {
+              checkoutService.processCheckout(request, user.getId());
+              created.incrementAndGet();
+              soldQuantities.get(productId).addAndGet(quantity);
+              if (code != null) {
+                usedCodes.add(code);
+              }
+            } catch (InsufficientStockException | InvalidDiscountException e) {
+              rejected.incrementAndGet();
+            } catch (RuntimeException e) {
+              unexpectedFailures.add(e);
+            }
+            latencies[i] = System.nanoTime() - checkoutStart;
+          }
+          return null;
+        }));
+      }
+      startNanos = System.nanoTime();
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      elapsedNanos = System.nanoTime() - startNanos;
+    }
+
+    // Leased stock and uses are only in the database once returned
+    stockLeaseManager.returnAllLeases();
+    discountQuotaManager.returnAllLeases();
+
+    assertTrue(unexpectedFailures.isEmpty(), () -> "Unexpected failures: " + unexpectedFailures);
+    assertEquals(CHECKOUTS, created.get() + rejected.get());
+
+    // No oversell: every sold unit is an order line, and stock never went below zero
+    for (Long productId : productIds) {
+      int stock = jdbcTemplate.queryForObject(
+          "SELECT stock FROM products WHERE id = ?", Integer.class, productId);
+      int orderedUnits = jdbcTemplate.queryForObject(
+          "SELECT COALESCE(SUM(quantity), 0) FROM order_lines WHERE product_id = ?",
+          Integer.class, productId);
+      assertTrue(stock >= 0, "Stock of product " + productId + " is " + stock);
+      assertEquals(soldQuantities.get(productId).get(), STOCK_PER_SKU - stock);
+      assertEquals(soldQuantities.get(productId).get(), orderedUnits);
+    }
+
+    // No overuse: each single-use code was accepted at most once and used up when accepted
+    assertEquals(0, jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM discounts WHERE remaining_uses < 0", Integer.class));
+    Map<String, Integer> acceptedPerCode = new HashMap<>();
+    usedCodes.forEach(code -> acceptedPerCode.merge(code, 1, Integer::sum));
+    acceptedPerCode.forEach((code, count) -> assertEquals(1, count, code));
+    assertEquals(usedCodes.size(), jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM discounts WHERE remaining_uses = 0", Integer.class));
+    assertEquals(usedCodes.size(), jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM order_applied_discounts", Integer.class));
+
+    // No lost orders: one order per successful checkout
+    assertEquals(created.get(), jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM orders", Integer.class));
+
+    Arrays.sort(latencies);
+    System.out.printf("%-22s %5d checkouts (%4d created, %4d rejected) in %6d ms = %7.1f/s, "
+            + "p50 %6.2f ms, p99 %6.2f ms, max %7.2f ms%n", label, CHECKOUTS, created.get(),
+        rejected.get(), elapsedNanos / 1_000_000, CHECKOUTS * 1_000_000_000.0 / elapsedNanos,
+        percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99),
+        latencies[latencies.length - 1] / 1_000_000.0);
+  }
+
+  private void deleteAll() {
+    jdbcTemplate.update("DELETE FROM order_applied_discounts");
+    jdbcTemplate.update("DELETE FROM order_lines");
+    jdbcTemplate.update("DELETE FROM orders");
+    jdbcTemplate.update("DELETE FROM discount_applicable_products");
+    jdbcTemplate.update("DELETE FROM discounts");
+    jdbcTemplate.update("DELETE FROM products");
+    jdbcTemplate.update("DELETE FROM users");
+  }
+
+  private static double percentileMillis(long[] sortedNanos, double percentile) {
+    int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+    return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+  }
+}
@@ -0,0 +1,126 @@
+package com.example.digigoods.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.OrderRepository;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.UserRepository;
+import com.example.digigoods.service.OrderWriter;
+import com.example.digigoods.service.PricedOrder;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Statement count and throughput of writing orders, one at a time and in batches.
+ *
+ * <p>Run with {@code ./mvnw test -Pbenchmark}. Statements are the JDBC statements
+ * Hibernate prepared; a JDBC batch counts once. The stock update is plain JDBC and is
+ * not included.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class OrderInsertBenchmarkTest {
+
+  private static final int ORDERS = 5_000;
+  private static final int BATCH_SIZE = 50;
+  private static final int LINES_PER_ORDER = 3;
+  private static final int INITIAL_STOCK = 1_000_000;
+
+  @Autowired
+  private OrderWriter orderWriter;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  private User user;
+  private List<Product> products;
+
+  @BeforeEach
+  void setUp() {
+    user = new User();
+    user.setUsername("insertbenchmarkuser");
+    user.setPassword("password");
+    user = userRepository.save(user);
+
+    products = new ArrayList<>();
+    for (int i = 0; i < LINES_PER_ORDER; i++) {
+      products.add(productRepository.save(new Product(null, "Insert Benchmark Product " + i,
+          new BigDecimal("10.00"), INITIAL_STOCK)));
+    }
+  }
+
+  @AfterEach
+  void tearDown() {
+    orderRepository.deleteAll();
+    productRepository.deleteAll();
+    userRepository.delete(user);
+  }
+
+  @Test
+  @DisplayName("Order insert statements and throughput, one order per transaction")
+  void singleOrderInserts() {
+    run("single", 1);
+  }
+
+  @Test
+  @DisplayName("Order insert statements and throughput, batched orders per transaction")
+  void batchedOrderInserts() {
+    run("batched", BATCH_SIZE);
+  }
+
+  private void run(String label, int ordersPerTransaction) {
+    // Warm up connections, caches and the JIT before measuring
+    write(ordersPerTransaction * 10, ordersPerTransaction);
+    orderRepository.deleteAll();
+
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+    long start = System.nanoTime();
+    write(ORDERS, ordersPerTransaction);
+    long elapsedNanos = System.nanoTime() - start;
+    long statements = statistics.getPrepareStatementCount();
+
+    assertEquals(ORDERS, orderRepository.count());
+    System.out.printf("%-8s %6d orders in %6d ms = %8.1f orders/s, %5.2f statements/order%n",
+        label, ORDERS, elapsedNanos / 1_000_000, ORDERS * 1_000_000_000.0 / elapsedNanos,
+        (double) statements / ORDERS);
+  }
+
+  private void write(int orders, int ordersPerTransaction) {
+    List<Long> productIds = products.stream().map(Product::getId).toList();
+    for (int written = 0; written < orders; written += ordersPerTransaction) {
+      List<PricedOrder> batch = new ArrayList<>(ordersPerTransaction);
+      for (int i = 0; i < ordersPerTransaction; i++) {
+        CheckoutRequest request = new CheckoutRequest(user.getId(), productIds, List.of());
+        batch.add(new PricedOrder(request, request.quantities(), products, List.of(),
+            new BigDecimal("30.00"), new BigDecimal("30.00"), new BigDecimal("30.00")));
+      }
+      orderWriter.writeAll(batch);
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.example.digigoods.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.digigoods.config.CheckoutProperties;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.UserRepository;
+import com.example.digigoods.service.CheckoutService;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Inventory stress test against PostgreSQL in a container, migrated by Liquibase, so the
+ * single-round-trip mode runs the PL/pgSQL place_order function and the catalog versions
+ * are bumped by the PostgreSQL triggers. Skipped where Docker is not available.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "spring.jpa.show-sql=false",
+    "spring.liquibase.enabled=true",
+    // schema.sql creates the H2 stand-ins for what Liquibase creates here
+    "spring.sql.init.mode=never"
+})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class PostgresInventoryStressTest extends InventoryStressHarness {
+
+  @Container
+  @ServiceConnection
+  static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  @Autowired
+  private CheckoutService checkoutService;
+
+  @Autowired
+  private CheckoutProperties checkoutProperties;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Test
+  @DisplayName("Given free product, when checking out in one round trip, then place the order "
+      + "at zero")
+  void givenFreeProduct_whenCheckingOutInOneRoundTrip_thenPlaceOrderAtZero() {
+    // Arrange
+    checkoutProperties.setMode(CheckoutProperties.Mode.SINGLE_ROUND_TRIP);
+    User user = new User();
+    user.setUsername("freeuser");
+    user.setPassword("password");
+    user = userRepository.save(user);
+    Product product = productRepository.save(
+        new Product(null, "Free Product", BigDecimal.ZERO, 5));
+    CheckoutRequest request = new CheckoutRequest(user.getId(), List.of(product.getId()),
+        List.of());
+
+    // Act
+    OrderResponse response = checkoutService.processCheckout(request, user.getId());
+
+    // Assert
+    assertEquals(0, BigDecimal.ZERO.compareTo(response.getFinalPrice()));
+  }
+}
@@ -0,0 +1,106 @@
+package com.example.digigoods.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.digigoods.service.ProductExportService;
+import java.io.OutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Stress test of the product catalog export.
+ *
+ * <p>Exports a catalog of a million products while the {@code stress} profile runs the tests
+ * with a 128 MB heap, which is too small to hold the catalog, so the test fails with an
+ * {@link OutOfMemoryError} if the export buffers it instead of streaming. The database is an
+ * H2 file database, so the catalog itself is not on the heap either. The export time is
+ * printed to stdout.
+ *
+ * <p>Run with {@code ./mvnw test -Pstress}.
+ */
+@Tag("stress")
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:file:./target/export-stress/db",
+    "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+class ProductExportStressTest {
+
+  private static final int PRODUCTS = 1_000_000;
+  private static final int INSERT_BATCH = 100_000;
+  private static final long MAX_HEAP_BYTES = 128L * 1024 * 1024;
+
+  @Autowired
+  private ProductExportService productExportService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate.update("DELETE FROM products");
+    for (int from = 1; from <= PRODUCTS; from += INSERT_BATCH) {
+      jdbcTemplate.update("INSERT INTO products (id, name, price, stock, reserved_stock, "
+          + "inventory_policy) SELECT x, 'Export Product ' || x, 9.99, MOD(x, 3), 0, 'FINITE' "
+          + "FROM SYSTEM_RANGE(?, ?)", from, from + INSERT_BATCH - 1);
+    }
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.update("DELETE FROM products");
+  }
+
+  @Test
+  @DisplayName("Given a million products and a small heap, when exporting as NDJSON, then "
+      + "stream every product")
+  void givenMillionProductsAndSmallHeap_whenExportingAsNdjson_thenStreamEveryProduct()
+      throws Exception {
+    // Arrange
+    assertTrue(Runtime.getRuntime().maxMemory() <= MAX_HEAP_BYTES,
+        "Run with -Pstress, which limits the heap to 128 MB");
+    LineCountingOutputStream out = new LineCountingOutputStream();
+
+    // Act
+    long start = System.nanoTime();
+    productExportService.export(ProductExportService.Format.NDJSON, out);
+    long elapsedNanos = System.nanoTime() - start;
+
+    // Assert
+    assertEquals(PRODUCTS, out.lines);
+    System.out.printf("Exported %d products (%d MB of NDJSON) in %d ms%n", out.lines,
+        out.bytes / (1024 * 1024), elapsedNanos / 1_000_000);
+  }
+
+  /**
+   * Output stream that discards the export, keeping only its size.
+   */
+  private static final class LineCountingOutputStream extends OutputStream {
+
+    private long lines;
+    private long bytes;
+
+    @Override
+    public void write(int b) {
+      bytes++;
+      if (b == '\n') {
+        lines++;
+      }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      for (int i = off; i < off + len; i++) {
+        write(b[i]);
+      }
+    }
+  }
+}
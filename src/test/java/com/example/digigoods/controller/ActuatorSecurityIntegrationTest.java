@@ -0,0 +1,103 @@
+package com.example.digigoods.controller;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.digigoods.model.Role;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.UserRepository;
+import com.example.digigoods.service.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Integration tests for access to the actuator endpoints, run through the security filters.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@Transactional
+class ActuatorSecurityIntegrationTest {
+
+  @Autowired
+  private WebApplicationContext webApplicationContext;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private JwtService jwtService;
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+        .apply(springSecurity())
+        .build();
+  }
+
+  @Test
+  @DisplayName("Given no token, when reading health, then return it")
+  void givenNoToken_whenReadingHealth_thenReturnIt() throws Exception {
+    // Act & Assert
+    mockMvc.perform(get("/actuator/health"))
+        .andExpect(status().isOk());
+  }
+
+  @Test
+  @DisplayName("Given no token, when reading metrics, then return unauthorized")
+  void givenNoToken_whenReadingMetrics_thenReturnUnauthorized() throws Exception {
+    // Act & Assert
+    mockMvc.perform(get("/actuator/metrics"))
+        .andExpect(status().isUnauthorized());
+    mockMvc.perform(get("/actuator/metrics/digigoods.checkout.stage"))
+        .andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  @DisplayName("Given token of a regular user, when reading metrics, then return forbidden")
+  void givenRegularUserToken_whenReadingMetrics_thenReturnForbidden() throws Exception {
+    // Arrange
+    String token = tokenFor("metricsuser", Role.USER);
+
+    // Act & Assert
+    mockMvc.perform(get("/actuator/metrics")
+            .header("Authorization", "Bearer " + token))
+        .andExpect(status().isForbidden());
+    mockMvc.perform(get("/actuator/metrics/digigoods.checkout.stage")
+            .header("Authorization", "Bearer " + token))
+        .andExpect(status().isForbidden());
+  }
+
+  @Test
+  @DisplayName("Given token of an admin, when reading metrics, then return them")
+  void givenAdminToken_whenReadingMetrics_thenReturnThem() throws Exception {
+    // Arrange
+    String token = tokenFor("metricsadmin", Role.ADMIN);
+
+    // Act & Assert
+    mockMvc.perform(get("/actuator/metrics")
+            .header("Authorization", "Bearer " + token))
+        .andExpect(status().isOk());
+  }
+
+  private String tokenFor(String username, Role role) {
+    User user = new User();
+    user.setUsername(username);
+    user.setPassword("password");
+    user.setRole(role);
+    user = userRepository.save(user);
+    return jwtService.generateToken(user.getId(), user.getUsername());
+  }
+}
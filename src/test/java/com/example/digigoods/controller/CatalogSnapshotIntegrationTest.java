@@ -0,0 +1,162 @@
+package com.example.digigoods.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.DiscountType;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.repository.DiscountRepository;
+import com.example.digigoods.repository.ProductRepository;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Integration tests for catalog responses served from the pre-rendered snapshot.
+ *
+ * <p>Not transactional: snapshots are rebuilt on another thread and only see committed
+ * products and discounts.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "digigoods.catalog.snapshot.enabled=true",
+    "digigoods.catalog.snapshot.max-age=1h"
+})
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+class CatalogSnapshotIntegrationTest {
+
+  private static final long AWAIT_MILLIS = 5_000;
+
+  @Autowired
+  private WebApplicationContext webApplicationContext;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private DiscountRepository discountRepository;
+
+  private MockMvc mockMvc;
+  private Product product;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    discountRepository.deleteAll();
+    productRepository.deleteAll();
+
+    product = productRepository.save(
+        new Product(null, "Snapshot Product", new BigDecimal("10.00"), 5));
+    Discount discount = new Discount();
+    discount.setCode("SNAPSHOT10");
+    discount.setPercentage(new BigDecimal("10.00"));
+    discount.setType(DiscountType.GENERAL);
+    discount.setValidFrom(LocalDate.now().minusDays(1));
+    discount.setValidUntil(LocalDate.now().plusDays(1));
+    discount.setRemainingUses(10);
+    discountRepository.save(discount);
+  }
+
+  @AfterEach
+  void tearDown() {
+    discountRepository.deleteAll();
+    productRepository.deleteAll();
+  }
+
+  @Test
+  @DisplayName("Given gzip accepted, when getting discounts, then serve the compressed "
+      + "snapshot of the same JSON")
+  void givenGzipAccepted_whenGettingDiscounts_thenServeCompressedSnapshotOfSameJson()
+      throws Exception {
+    // Arrange
+    byte[] identity = awaitBody("/discounts", "SNAPSHOT10");
+
+    // Act
+    byte[] compressed = mockMvc.perform(get("/discounts")
+            .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+        .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+        .andReturn().getResponse().getContentAsByteArray();
+
+    // Assert
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      assertArrayEquals(identity, in.readAllBytes());
+    }
+  }
+
+  @Test
+  @DisplayName("Given product price changed, when getting products, then serve the rebuilt "
+      + "snapshot")
+  void givenProductPriceChanged_whenGettingProducts_thenServeRebuiltSnapshot()
+      throws Exception {
+    // Arrange
+    awaitBody("/products", "\"price\":10.00");
+
+    // Act
+    product.setPrice(new BigDecimal("12.50"));
+    productRepository.save(product);
+
+    // Assert
+    awaitBody("/products", "\"price\":12.50");
+  }
+
+  @Test
+  @DisplayName("Given ETag of the gzip snapshot, when getting discounts with gzip, then "
+      + "return not modified")
+  void givenGzipSnapshotEtag_whenGettingDiscountsWithGzip_thenReturnNotModified()
+      throws Exception {
+    // Arrange
+    awaitBody("/discounts", "SNAPSHOT10");
+    String etag = mockMvc.perform(get("/discounts")
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    // Act & Assert
+    mockMvc.perform(get("/discounts")
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+            .header(HttpHeaders.IF_NONE_MATCH, "W/\"other\", " + etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, etag));
+    mockMvc.perform(get("/discounts")
+            .header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isOk());
+  }
+
+  private byte[] awaitBody(String path, String expected) throws Exception {
+    long deadline = System.currentTimeMillis() + AWAIT_MILLIS;
+    while (true) {
+      byte[] body = mockMvc.perform(get(path))
+          .andExpect(status().isOk())
+          .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+          .andReturn().getResponse().getContentAsByteArray();
+      String json = new String(body, StandardCharsets.UTF_8);
+      if (json.contains(expected)) {
+        return body;
+      }
+      assertTrue(System.currentTimeMillis() < deadline,
+          () -> "Expected " + expected + " in " + json);
+      Thread.sleep(20);
+    }
+  }
+}
@@ -0,0 +1,549 @@
+package com.example.digigoods.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.digigoods.dto.BatchCheckoutRequest;
+import com.example.digigoods.dto.CartLine;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.DiscountType;
+import com.example.digigoods.model.InventoryPolicy;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.DiscountRepository;
+import com.example.digigoods.repository.OrderRepository;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.UserRepository;
+import com.example.digigoods.service.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Integration tests for CheckoutController.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@Transactional
+class CheckoutControllerIntegrationTest {
+
+  @Autowired
+  private WebApplicationContext webApplicationContext;
+
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  @Autowired
+  private DiscountRepository discountRepository;
+
+  @Autowired
+  private JwtService jwtService;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  private User user;
+  private Product product1;
+  private Product product2;
+  private String token;
+
+  @BeforeEach
+  void setUp() {
+    // Set up MockMvc
+    mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+    // Clear and set up test data
+    orderRepository.deleteAll();
+    productRepository.deleteAll();
+
+    user = new User();
+    user.setUsername("checkoutuser");
+    user.setPassword("password");
+    user = userRepository.save(user);
+    token = jwtService.generateToken(user.getId(), user.getUsername());
+
+    product1 = new Product();
+    product1.setName("Test Product 1");
+    product1.setPrice(new BigDecimal("100.00"));
+    product1.setStock(10);
+    product1 = productRepository.save(product1);
+
+    product2 = new Product();
+    product2.setName("Test Product 2");
+    product2.setPrice(new BigDecimal("50.00"));
+    product2.setStock(1);
+    product2 = productRepository.save(product2);
+    // Write the test data before checkouts touch it with plain JDBC updates
+    entityManager.flush();
+  }
+
+  @Test
+  @DisplayName("Given sufficient stock, when creating order, then decrement stock and "
+      + "return final price")
+  void givenSufficientStock_whenCreatingOrder_thenDecrementStockAndReturnFinalPrice()
+      throws Exception {
+    // Arrange
+    CheckoutRequest request = new CheckoutRequest(user.getId(),
+        List.of(product1.getId(), product1.getId(), product2.getId()), List.of());
+
+    // Act & Assert
+    mockMvc.perform(post("/orders")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.message").value("Order created successfully!"))
+        .andExpect(jsonPath("$.finalPrice").value(250.00));
+
+    entityManager.flush();
+    entityManager.clear();
+    assertEquals(8, productRepository.findById(product1.getId()).orElseThrow().getStock());
+    assertEquals(0, productRepository.findById(product2.getId()).orElseThrow().getStock());
+    assertEquals(1, orderRepository.count());
+  }
+
+  @Test
+  @DisplayName("Given cart lines with quantities, when creating order, then store one line "
+      + "per product")
+  void givenCartLinesWithQuantities_whenCreatingOrder_thenStoreOneLinePerProduct()
+      throws Exception {
+    // Arrange
+    CheckoutRequest request = new CheckoutRequest(user.getId(), List.of(product2.getId()),
+        List.of(), null, null, List.of(new CartLine(product1.getId(), 3)));
+
+    // Act & Assert
+    mockMvc.perform(post("/orders")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.finalPrice").value(350.00));
+
+    entityManager.flush();
+    entityManager.clear();
+    assertEquals(7, productRepository.findById(product1.getId()).orElseThrow().getStock());
+    assertEquals(0, productRepository.findById(product2.getId()).orElseThrow().getStock());
+    List<?> lines = entityManager.createNativeQuery(
+            "SELECT product_id, quantity, unit_price FROM order_lines ORDER BY product_id")
+        .getResultList();
+    assertEquals(2, lines.size());
+    Object[] line = (Object[]) lines.get(0);
+    assertEquals(3, ((Number) line[1]).intValue());
+    assertEquals(0, new BigDecimal("100.00").compareTo((BigDecimal) line[2]));
+  }
+
+  @Test
+  @DisplayName("Given unlimited product without stock, when creating order, then place the "
+      + "order and leave stock unchanged")
+  void givenUnlimitedProductWithoutStock_whenCreatingOrder_thenLeaveStockUnchanged()
+      throws Exception {
+    // Arrange
+    Product license = new Product();
+    license.setName("Test License");
+    license.setPrice(new BigDecimal("20.00"));
+    license.setStock(0);
+    license.setInventoryPolicy(InventoryPolicy.UNLIMITED);
+    license = productRepository.saveAndFlush(license);
+    CheckoutRequest request = new CheckoutRequest(user.getId(), List.of(product1.getId()),
+        List.of(), null, null, List.of(new CartLine(license.getId(), 5)));
+
+    // Act & Assert
+    mockMvc.perform(post("/orders")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.finalPrice").value(200.00));
+
+    entityManager.flush();
+    entityManager.clear();
+    assertEquals(0, productRepository.findById(license.getId()).orElseThrow().getStock());
+    assertEquals(9, productRepository.findById(product1.getId()).orElseThrow().getStock());
+  }
+
+  @Test
+  @DisplayName("Given stale copy of product made finite, when creating order, then decrement "
+      + "its stock")
+  void givenStaleCopyOfProductMadeFinite_whenCreatingOrder_thenDecrementItsStock()
+      throws Exception {
+    // Arrange
+    Product license = new Product();
+    license.setName("Test License");
+    license.setPrice(new BigDecimal("20.00"));
+    license.setStock(3);
+    license.setInventoryPolicy(InventoryPolicy.UNLIMITED);
+    license = productRepository.saveAndFlush(license);
+    // The checkout still reads the unlimited license from the persistence context
+    entityManager.createNativeQuery(
+            "UPDATE products SET inventory_policy = 'FINITE' WHERE id = :id")
+        .setParameter("id", license.getId())
+        .executeUpdate();
+    CheckoutRequest request = new CheckoutRequest(user.getId(), null, List.of(), null, null,
+        List.of(new CartLine(license.getId(), 5)));
+
+    // Act & Assert
+    mockMvc.perform(post("/orders")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Insufficient stock for product "
+            + license.getId() + ". Requested: 5, Available: 3"));
+  }
+
+  @Test
+  @DisplayName("Given batch with unknown product, when creating orders, then place the "
+      + "other orders")
+  void givenBatchWithUnknownProduct_whenCreatingOrders_thenPlaceTheOtherOrders()
+      throws Exception {
+    // Arrange
+    BatchCheckoutRequest request = new BatchCheckoutRequest(List.of(
+        new CheckoutRequest(user.getId(), List.of(product1.getId()), List.of()),
+        new CheckoutRequest(user.getId(), List.of(-1L), List.of()),
+        new CheckoutRequest(user.getId(), List.of(product1.getId(), product2.getId()),
+            List.of())));
+
+    // Act & Assert
+    mockMvc.perform(post("/orders/batch")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.created").value(2))
+        .andExpect(jsonPath("$.failed").value(1))
+        .andExpect(jsonPath("$.results[0].finalPrice").value(100.00))
+        .andExpect(jsonPath("$.results[1].created").value(false))
+        .andExpect(jsonPath("$.results[1].message").value("Products not found with IDs: [-1]"))
+        .andExpect(jsonPath("$.results[2].finalPrice").value(150.00));
+
+    entityManager.flush();
+    entityManager.clear();
+    assertEquals(8, productRepository.findById(product1.getId()).orElseThrow().getStock());
+    assertEquals(2, orderRepository.count());
+  }
+
+  @Test
+  @DisplayName("Given insufficient stock, when creating order, then return bad request")
+  void givenInsufficientStock_whenCreatingOrder_thenReturnBadRequest() throws Exception {
+    // Arrange
+    CheckoutRequest request = new CheckoutRequest(user.getId(),
+        List.of(product2.getId(), product2.getId()), List.of());
+
+    // Act & Assert
+    mockMvc.perform(post("/orders")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Insufficient stock for product "
+            + product2.getId() + ". Requested: 2, Available: 1"));
+  }
+
+  @Test
+  @DisplayName("Given quantity that would overflow, when creating order, then return bad "
+      + "request")
+  void givenQuantityThatWouldOverflow_whenCreatingOrder_thenReturnBadRequest() throws Exception {
+    // Arrange
+    CheckoutRequest request = new CheckoutRequest(user.getId(), List.of(), List.of(), null,
+        null, List.of(new CartLine(product1.getId(), Integer.MAX_VALUE)));
+
+    // Act & Assert
+    mockMvc.perform(post("/orders")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isBadRequest());
+    assertEquals(0, orderRepository.count());
+  }
+
+  @Test
+  @DisplayName("Given lines adding up to too many units, when creating order, then return bad "
+      + "request")
+  void givenLinesAddingUpToTooManyUnits_whenCreatingOrder_thenReturnBadRequest()
+      throws Exception {
+    // Arrange
+    CheckoutRequest request = new CheckoutRequest(user.getId(), List.of(), List.of(), null,
+        null, List.of(new CartLine(product1.getId(), CartLine.MAX_QUANTITY),
+            new CartLine(product1.getId(), 1)));
+
+    // Act & Assert
+    mockMvc.perform(post("/orders")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Total quantity cannot exceed 10000"));
+  }
+
+  @Test
+  @DisplayName("Given product-specific discount, when creating order, "
+      + "then discount only applicable products")
+  void givenProductSpecificDiscount_whenCreatingOrder_thenDiscountOnlyApplicableProducts()
+      throws Exception {
+    // Arrange
+    Discount discount = new Discount();
+    discount.setCode("PRODUCT10");
+    discount.setPercentage(new BigDecimal("10.00"));
+    discount.setType(DiscountType.PRODUCT_SPECIFIC);
+    discount.setValidFrom(LocalDate.now().minusDays(1));
+    discount.setValidUntil(LocalDate.now().plusDays(30));
+    discount.setRemainingUses(5);
+    discount.setApplicableProducts(new HashSet<>(Set.of(product1)));
+    discountRepository.save(discount);
+
+    CheckoutRequest request = new CheckoutRequest(user.getId(),
+        List.of(product1.getId(), product2.getId()), List.of("PRODUCT10"));
+
+    // Act & Assert
+    mockMvc.perform(post("/orders")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.finalPrice").value(140.00));
+  }
+
+  @Test
+  @DisplayName("Given discount with one remaining use, when ordering twice, "
+      + "then reject second order")
+  void givenDiscountWithOneRemainingUse_whenOrderingTwice_thenRejectSecondOrder()
+      throws Exception {
+    // Arrange
+    Discount discount = new Discount();
+    discount.setCode("LASTONE");
+    discount.setPercentage(new BigDecimal("10.00"));
+    discount.setType(DiscountType.GENERAL);
+    discount.setValidFrom(LocalDate.now().minusDays(1));
+    discount.setValidUntil(LocalDate.now().plusDays(30));
+    discount.setRemainingUses(1);
+    discountRepository.saveAndFlush(discount);
+
+    CheckoutRequest request = new CheckoutRequest(user.getId(), List.of(product1.getId()),
+        List.of("LASTONE"));
+    mockMvc.perform(post("/orders")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk());
+
+    // Act & Assert
+    // The loaded discount still shows one use, only the conditional update catches it
+    mockMvc.perform(post("/orders")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message")
+            .value("Invalid discount code 'LASTONE': discount has no remaining uses"));
+  }
+
+  @Test
+  @DisplayName("Given idempotency key, when replaying order, then create only one order")
+  void givenIdempotencyKey_whenReplayingOrder_thenCreateOnlyOneOrder() throws Exception {
+    // Arrange
+    CheckoutRequest request = new CheckoutRequest(user.getId(), List.of(product1.getId()),
+        List.of());
+
+    // Act & Assert
+    for (int attempt = 0; attempt < 2; attempt++) {
+      mockMvc.perform(post("/orders")
+              .header("Authorization", "Bearer " + token)
+              .header("Idempotency-Key", "order-123")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(objectMapper.writeValueAsString(request)))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.finalPrice").value(100.00));
+    }
+
+    entityManager.flush();
+    entityManager.clear();
+    assertEquals(9, productRepository.findById(product1.getId()).orElseThrow().getStock());
+    assertEquals(1, orderRepository.count());
+  }
+
+  @Test
+  @DisplayName("Given used idempotency key, when sending different request, then return conflict")
+  void givenUsedIdempotencyKey_whenSendingDifferentRequest_thenReturnConflict() throws Exception {
+    // Arrange
+    CheckoutRequest first = new CheckoutRequest(user.getId(), List.of(product1.getId()),
+        List.of());
+    CheckoutRequest second = new CheckoutRequest(user.getId(), List.of(product2.getId()),
+        List.of());
+    mockMvc.perform(post("/orders")
+            .header("Authorization", "Bearer " + token)
+            .header("Idempotency-Key", "order-456")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(first)))
+        .andExpect(status().isOk());
+
+    // Act & Assert
+    mockMvc.perform(post("/orders")
+            .header("Authorization", "Bearer " + token)
+            .header("Idempotency-Key", "order-456")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(second)))
+        .andExpect(status().isConflict());
+  }
+
+  @Test
+  @DisplayName("Given async checkout, when accepted, then return token and status location")
+  void givenAsyncCheckout_whenAccepted_thenReturnTokenAndStatusLocation() throws Exception {
+    // Arrange
+    CheckoutRequest request = new CheckoutRequest(user.getId(), List.of(product1.getId()),
+        List.of());
+
+    // Act
+    String response = mockMvc.perform(post("/orders/async")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isAccepted())
+        .andExpect(header().exists("Location"))
+        .andExpect(jsonPath("$.status").value("PENDING"))
+        .andReturn().getResponse().getContentAsString();
+    String orderToken = objectMapper.readTree(response).get("orderToken").asText();
+
+    // Assert
+    mockMvc.perform(get("/orders/" + orderToken + "/status")
+            .header("Authorization", "Bearer " + token))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.orderToken").value(orderToken));
+  }
+
+  @Test
+  @DisplayName("Given unknown order token, when getting status, then return not found")
+  void givenUnknownOrderToken_whenGettingStatus_thenReturnNotFound() throws Exception {
+    // Act & Assert
+    mockMvc.perform(get("/orders/unknown/status")
+            .header("Authorization", "Bearer " + token))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  @DisplayName("Given quote token, when creating order, then charge quoted price without "
+      + "re-pricing")
+  void givenQuoteToken_whenCreatingOrder_thenChargeQuotedPriceWithoutRepricing()
+      throws Exception {
+    // Arrange
+    CheckoutRequest request = new CheckoutRequest(user.getId(),
+        List.of(product1.getId(), product2.getId()), List.of());
+    request.setQuoteToken(quote(request));
+    // Resets the catalog version bumped by the price change, so only a skipped re-pricing
+    // keeps the quoted price
+    entityManager.createNativeQuery("UPDATE products SET price = 1 WHERE id = :id")
+        .setParameter("id", product1.getId())
+        .executeUpdate();
+    entityManager.createNativeQuery("UPDATE catalog_versions SET products = products - 1")
+        .executeUpdate();
+    entityManager.clear();
+
+    // Act & Assert
+    mockMvc.perform(post("/orders")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.finalPrice").value(150.00));
+
+    entityManager.flush();
+    entityManager.clear();
+    assertEquals(9, productRepository.findById(product1.getId()).orElseThrow().getStock());
+  }
+
+  @Test
+  @DisplayName("Given price changed after quote, when creating order, then charge new price")
+  void givenPriceChangedAfterQuote_whenCreatingOrder_thenChargeNewPrice() throws Exception {
+    // Arrange
+    CheckoutRequest request = new CheckoutRequest(user.getId(), List.of(product1.getId()),
+        List.of());
+    request.setQuoteToken(quote(request));
+    product1.setPrice(new BigDecimal("120.00"));
+    productRepository.saveAndFlush(product1);
+
+    // Act & Assert
+    mockMvc.perform(post("/orders")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.finalPrice").value(120.00));
+  }
+
+  @Test
+  @DisplayName("Given discount changed by SQL after quote, when creating order, "
+      + "then charge new price")
+  void givenDiscountChangedBySqlAfterQuote_whenCreatingOrder_thenChargeNewPrice()
+      throws Exception {
+    // Arrange
+    Discount discount = new Discount();
+    discount.setCode("SQL10");
+    discount.setPercentage(new BigDecimal("10.00"));
+    discount.setType(DiscountType.GENERAL);
+    discount.setValidFrom(LocalDate.now().minusDays(1));
+    discount.setValidUntil(LocalDate.now().plusDays(30));
+    discount.setRemainingUses(5);
+    discount = discountRepository.saveAndFlush(discount);
+
+    CheckoutRequest request = new CheckoutRequest(user.getId(), List.of(product1.getId()),
+        List.of("SQL10"));
+    request.setQuoteToken(quote(request));
+    // Not seen by any JPA listener, only by the database trigger
+    entityManager.createNativeQuery("UPDATE discounts SET percentage = 20 WHERE id = :id")
+        .setParameter("id", discount.getId())
+        .executeUpdate();
+    entityManager.clear();
+
+    // Act & Assert
+    mockMvc.perform(post("/orders")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.finalPrice").value(80.00));
+  }
+
+  private String quote(CheckoutRequest request) throws Exception {
+    String response = mockMvc.perform(post("/orders/quote")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.originalSubtotal").exists())
+        .andExpect(jsonPath("$.expiresAt").exists())
+        .andReturn().getResponse().getContentAsString();
+    return objectMapper.readTree(response).get("quoteToken").asText();
+  }
+}
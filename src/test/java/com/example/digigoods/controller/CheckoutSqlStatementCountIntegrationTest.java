@@ -0,0 +1,206 @@
+package com.example.digigoods.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.DiscountType;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.DiscountRepository;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.UserRepository;
+import com.example.digigoods.service.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Integration test counting the SQL statements issued by one checkout.
+ *
+ * <p>Not transactional: the checkout commits, so the count includes the statements flushed
+ * at commit and anything run after it. Rows are deleted after each test.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+class CheckoutSqlStatementCountIntegrationTest {
+
+  private static final AtomicInteger STATEMENTS = new AtomicInteger();
+
+  // Reading the cart: the product version the products are cached at, then the products
+  // and discounts once each. The user is not loaded at all
+  private static final int PRODUCT_VERSION_READS = 1;
+  private static final int PRODUCT_READS = 1;
+  private static final int DISCOUNT_READS = 1;
+
+  // Writing the order: the block of order IDs fetched for the first order, the order, one
+  // batch for its lines, its discount row, the stock batch and the discount usage batch
+  private static final int ORDER_ID_BLOCK_READS = 1;
+  private static final int ORDER_INSERTS = 1;
+  private static final int ORDER_LINE_BATCHES = 1;
+  private static final int ORDER_DISCOUNT_INSERTS = 1;
+  private static final int STOCK_BATCHES = 1;
+  private static final int DISCOUNT_USAGE_BATCHES = 1;
+
+  @Autowired
+  private WebApplicationContext webApplicationContext;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private DiscountRepository discountRepository;
+
+  @Autowired
+  private JwtService jwtService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private MockMvc mockMvc;
+  private User user;
+  private Product product1;
+  private Product product2;
+  private Discount discount;
+  private String token;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+    user = new User();
+    user.setUsername("sqlcountuser");
+    user.setPassword("password");
+    user = userRepository.save(user);
+    token = jwtService.generateToken(user.getId(), user.getUsername());
+
+    product1 = new Product();
+    product1.setName("Counted Product 1");
+    product1.setPrice(new BigDecimal("100.00"));
+    product1.setStock(10);
+    product1 = productRepository.save(product1);
+
+    product2 = new Product();
+    product2.setName("Counted Product 2");
+    product2.setPrice(new BigDecimal("50.00"));
+    product2.setStock(10);
+    product2 = productRepository.save(product2);
+
+    discount = new Discount();
+    discount.setCode("COUNT10");
+    discount.setPercentage(new BigDecimal("10.00"));
+    discount.setType(DiscountType.GENERAL);
+    discount.setValidFrom(LocalDate.now().minusDays(1));
+    discount.setValidUntil(LocalDate.now().plusDays(30));
+    discount.setRemainingUses(5);
+    discount = discountRepository.save(discount);
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.update("DELETE FROM order_applied_discounts WHERE order_id IN "
+        + "(SELECT id FROM orders WHERE user_id = ?)", user.getId());
+    jdbcTemplate.update("DELETE FROM order_lines WHERE order_id IN "
+        + "(SELECT id FROM orders WHERE user_id = ?)", user.getId());
+    jdbcTemplate.update("DELETE FROM orders WHERE user_id = ?", user.getId());
+    discountRepository.deleteById(discount.getId());
+    productRepository.deleteAllById(List.of(product1.getId(), product2.getId()));
+    userRepository.deleteById(user.getId());
+  }
+
+  @Test
+  @DisplayName("Given cart with discount, when creating order, then load each entity once")
+  void givenCartWithDiscount_whenCreatingOrder_thenLoadEachEntityOnce() throws Exception {
+    // Arrange
+    CheckoutRequest request = new CheckoutRequest(user.getId(),
+        List.of(product1.getId(), product1.getId(), product2.getId()), List.of("COUNT10"));
+    STATEMENTS.set(0);
+
+    // Act
+    mockMvc.perform(post("/orders")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.finalPrice").value(225.00));
+
+    // Assert
+    int reads = PRODUCT_VERSION_READS + PRODUCT_READS + DISCOUNT_READS;
+    int writes = ORDER_ID_BLOCK_READS + ORDER_INSERTS + ORDER_LINE_BATCHES
+        + ORDER_DISCOUNT_INSERTS + STOCK_BATCHES + DISCOUNT_USAGE_BATCHES;
+    assertEquals(reads + writes, STATEMENTS.get());
+  }
+
+  @TestConfiguration
+  static class StatementCountingConfig {
+
+    @Bean
+    static BeanPostProcessor statementCountingDataSource() {
+      return new BeanPostProcessor() {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+          if (bean instanceof DataSource dataSource) {
+            return countingProxy(DataSource.class, dataSource);
+          }
+          return bean;
+        }
+      };
+    }
+
+    private static <T> T countingProxy(Class<T> type, T target) {
+      return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+          (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof Connection connection) {
+              return countingProxy(Connection.class, connection);
+            }
+            if (type == Connection.class && (method.getName().startsWith("prepare")
+                || method.getName().equals("createStatement"))) {
+              STATEMENTS.incrementAndGet();
+            }
+            return result;
+          }));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package com.example.digigoods.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.digigoods.config.CheckoutProperties;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.DiscountType;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.DiscountRepository;
+import com.example.digigoods.repository.OrderRepository;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.UserRepository;
+import com.example.digigoods.service.CheckoutService;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Integration tests for checkouts loading products and discounts concurrently, run with a
+ * single pool connection so that a checkout needing a second one fails.
+ *
+ * <p>Not transactional: concurrent loads run on other threads and only see committed
+ * products and discounts.
+ */
+@SpringBootTest(properties = {
+    "digigoods.checkout.concurrent-loading=true",
+    "spring.datasource.hikari.maximum-pool-size=1",
+    "spring.datasource.hikari.connection-timeout=1000"
+})
+@ActiveProfiles("test")
+class ConcurrentLoadingCheckoutIntegrationTest {
+
+  @Autowired
+  private CheckoutService checkoutService;
+
+  @Autowired
+  private CheckoutProperties checkoutProperties;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private DiscountRepository discountRepository;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  private User user;
+  private CheckoutRequest request;
+
+  @BeforeEach
+  void setUp() {
+    user = new User();
+    user.setUsername("concurrentuser");
+    user.setPassword("password");
+    user = userRepository.save(user);
+
+    Discount discount = new Discount();
+    discount.setCode("CONCURRENT10");
+    discount.setPercentage(new BigDecimal("10.00"));
+    discount.setType(DiscountType.GENERAL);
+    discount.setValidFrom(LocalDate.now().minusDays(1));
+    discount.setValidUntil(LocalDate.now().plusDays(1));
+    discount.setRemainingUses(10);
+    discountRepository.save(discount);
+
+    Product product = productRepository.save(
+        new Product(null, "Concurrent Product", new BigDecimal("40.00"), 10));
+
+    request = new CheckoutRequest(user.getId(), List.of(product.getId(), product.getId()),
+        List.of("CONCURRENT10"));
+  }
+
+  @AfterEach
+  void tearDown() {
+    checkoutProperties.setMode(CheckoutProperties.Mode.PER_REQUEST);
+    orderRepository.deleteAll();
+    discountRepository.deleteAll();
+    productRepository.deleteAll();
+    userRepository.delete(user);
+  }
+
+  @Test
+  @DisplayName("Given per-request mode, when checking out, then load on the connection of the "
+      + "write transaction")
+  void givenPerRequestMode_whenCheckingOut_thenLoadOnConnectionOfWriteTransaction() {
+    // Act
+    OrderResponse response = checkoutService.processCheckout(request, user.getId());
+
+    // Assert
+    assertEquals(0, new BigDecimal("72.00").compareTo(response.getFinalPrice()));
+  }
+
+  @Test
+  @DisplayName("Given short-write mode, when checking out, then load concurrently before "
+      + "the write transaction")
+  void givenShortWriteMode_whenCheckingOut_thenLoadConcurrentlyBeforeWriteTransaction() {
+    // Arrange
+    checkoutProperties.setMode(CheckoutProperties.Mode.SHORT_WRITE);
+
+    // Act
+    OrderResponse response = checkoutService.processCheckout(request, user.getId());
+
+    // Assert
+    assertEquals(0, new BigDecimal("72.00").compareTo(response.getFinalPrice()));
+  }
+}
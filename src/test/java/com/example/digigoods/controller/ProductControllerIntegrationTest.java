@@ -1,7 +1,11 @@
 package com.example.digigoods.controller;
 
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -15,12 +19,16 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.util.UriComponentsBuilder;
 
 /**
  * Integration tests for ProductController.
@@ -42,6 +50,9 @@ class ProductControllerIntegrationTest {
   @Autowired
   private ProductRepository productRepository;
 
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
   private Product product1;
   private Product product2;
 
@@ -80,11 +91,14 @@ class ProductControllerIntegrationTest {
         .andExpect(jsonPath("$[0].id").value(product1.getId()))
         .andExpect(jsonPath("$[0].name").value("Test Product 1"))
         .andExpect(jsonPath("$[0].price").value(100.00))
-        .andExpect(jsonPath("$[0].stock").value(10))
+        .andExpect(jsonPath("$[0].inStock").value(true))
+        .andExpect(jsonPath("$[0].stock").doesNotExist())
         .andExpect(jsonPath("$[1].id").value(product2.getId()))
         .andExpect(jsonPath("$[1].name").value("Test Product 2"))
         .andExpect(jsonPath("$[1].price").value(50.00))
-        .andExpect(jsonPath("$[1].stock").value(5));
+        .andExpect(jsonPath("$[1].inStock").value(true))
+        .andExpect(jsonPath("$[1].stock").doesNotExist())
+        .andExpect(header().doesNotExist(HttpHeaders.LINK));
   }
 
   @Test
@@ -101,4 +115,105 @@ class ProductControllerIntegrationTest {
         .andExpect(jsonPath("$").isArray())
         .andExpect(jsonPath("$.length()").value(0));
   }
+
+  @Test
+  @DisplayName("Given products sorted by price, when paging with the next cursor, then return "
+      + "each product once in price order")
+  void givenProductsSortedByPrice_whenPagingWithNextCursor_thenReturnEachProductOnceInOrder()
+      throws Exception {
+    // Act
+    MvcResult firstPage = mockMvc.perform(get("/products")
+            .param("sort", "price")
+            .param("limit", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(1))
+        .andExpect(jsonPath("$[0].id").value(product2.getId()))
+        .andExpect(header().string(HttpHeaders.LINK, endsWith("; rel=\"next\"")))
+        .andReturn();
+    String next = nextCursor(firstPage);
+
+    // Assert
+    mockMvc.perform(get("/products")
+            .param("sort", "price")
+            .param("cursor", next)
+            .param("limit", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(1))
+        .andExpect(jsonPath("$[0].id").value(product1.getId()))
+        .andExpect(header().doesNotExist(HttpHeaders.LINK));
+  }
+
+  @Test
+  @DisplayName("Given page size above the maximum, when getting products, then return bad "
+      + "request")
+  void givenPageSizeAboveMaximum_whenGettingProducts_thenReturnBadRequest() throws Exception {
+    // Act & Assert
+    mockMvc.perform(get("/products")
+            .param("limit", "501"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @DisplayName("Given current ETag, when getting products, then return not modified until "
+      + "a product changes, also through SQL")
+  void givenCurrentEtag_whenGettingProducts_thenReturnNotModifiedUntilProductChanges()
+      throws Exception {
+    // Arrange
+    productRepository.flush();
+    String etag = mockMvc.perform(get("/products"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    // Act & Assert
+    mockMvc.perform(get("/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, etag))
+        .andExpect(content().string(""));
+
+    // Bypasses JPA, like a migration or another application would
+    jdbcTemplate.update("UPDATE products SET price = 90.00 WHERE id = ?", product1.getId());
+    mockMvc.perform(get("/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+        .andExpect(jsonPath("$[0].price").value(90.00));
+  }
+
+  @Test
+  @DisplayName("Given ETag of a cursor page, when getting the page, then return not modified "
+      + "until a product on it sells out")
+  void givenCursorPageEtag_whenGettingPage_thenReturnNotModifiedUntilProductSellsOut()
+      throws Exception {
+    // Arrange
+    productRepository.flush();
+    MvcResult firstPage = mockMvc.perform(get("/products").param("limit", "1"))
+        .andExpect(status().isOk())
+        .andReturn();
+    String next = nextCursor(firstPage);
+    String etag = mockMvc.perform(get("/products").param("cursor", next).param("limit", "1"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, startsWith("\"p")))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    // Act & Assert
+    mockMvc.perform(get("/products").param("cursor", next).param("limit", "1")
+            .header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, etag))
+        .andExpect(content().string(""));
+
+    // Stock changes do not bump the catalog version, the tag still has to change
+    jdbcTemplate.update("UPDATE products SET stock = 0 WHERE id = ?", product2.getId());
+    mockMvc.perform(get("/products").param("cursor", next).param("limit", "1")
+            .header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+        .andExpect(jsonPath("$[0].inStock").value(false));
+  }
+
+  private static String nextCursor(MvcResult page) {
+    String link = page.getResponse().getHeader(HttpHeaders.LINK);
+    String uri = link.substring(link.indexOf('<') + 1, link.indexOf('>'));
+    return UriComponentsBuilder.fromUriString(uri).build().getQueryParams().getFirst("cursor");
+  }
 }
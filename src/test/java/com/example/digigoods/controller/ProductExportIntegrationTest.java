@@ -0,0 +1,180 @@
+package com.example.digigoods.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.digigoods.config.ProductProperties;
+import com.example.digigoods.model.InventoryPolicy;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.service.ProductExportService;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Integration tests for the product catalog export.
+ *
+ * <p>Not transactional: the export is streamed on another thread and its own transaction,
+ * so the test products must be committed.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+class ProductExportIntegrationTest {
+
+  @Autowired
+  private WebApplicationContext webApplicationContext;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private ProductExportService productExportService;
+
+  @Autowired
+  private ProductProperties productProperties;
+
+  private MockMvc mockMvc;
+  private Product product1;
+  private Product product2;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    productRepository.deleteAll();
+
+    product1 = productRepository.save(
+        new Product(null, "Ebook, \"Second\" Edition", new BigDecimal("19.90"), 0));
+    product2 = new Product(null, "License Key", new BigDecimal("5.00"), 0);
+    product2.setInventoryPolicy(InventoryPolicy.UNLIMITED);
+    product2 = productRepository.save(product2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    productRepository.deleteAll();
+  }
+
+  @Test
+  @DisplayName("Given products in database, when exporting as NDJSON, then stream one JSON "
+      + "object per line ordered by ID")
+  void givenProductsInDatabase_whenExportingAsNdjson_thenStreamOneJsonObjectPerLine()
+      throws Exception {
+    // Act
+    MvcResult result = mockMvc.perform(get("/products/export"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // Assert
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Content-Type", "application/x-ndjson"))
+        .andExpect(content().string(
+            "{\"id\":" + product1.getId() + ",\"name\":\"Ebook, \\\"Second\\\" Edition\","
+                + "\"price\":19.90,\"inStock\":false}\n"
+                + "{\"id\":" + product2.getId() + ",\"name\":\"License Key\","
+                + "\"price\":5.00,\"inStock\":true}\n"));
+  }
+
+  @Test
+  @DisplayName("Given products in database, when exporting as CSV, then stream a header and "
+      + "one quoted row per product")
+  void givenProductsInDatabase_whenExportingAsCsv_thenStreamHeaderAndOneRowPerProduct()
+      throws Exception {
+    // Act
+    MvcResult result = mockMvc.perform(get("/products/export").param("format", "csv"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // Assert
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Content-Disposition", "attachment; filename=products.csv"))
+        .andExpect(content().string("id,name,price,in_stock\n"
+            + product1.getId() + ",\"Ebook, \"\"Second\"\" Edition\",19.90,false\n"
+            + product2.getId() + ",License Key,5.00,true\n"));
+  }
+
+  @Test
+  @DisplayName("Given unsupported format, when exporting, then return bad request")
+  void givenUnsupportedFormat_whenExporting_thenReturnBadRequest() throws Exception {
+    // Act & Assert
+    mockMvc.perform(get("/products/export").param("format", "xml"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @DisplayName("Given export started, when streaming, then use the export timeout and free "
+      + "its slot once written")
+  void givenExportStarted_whenStreaming_thenUseExportTimeoutAndFreeSlotOnceWritten()
+      throws Exception {
+    // Act
+    MvcResult result = mockMvc.perform(get("/products/export"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk());
+
+    // Assert
+    Duration timeout = productProperties.getExport().getTimeout();
+    assertEquals(timeout.toMillis(), result.getRequest().getAsyncContext().getTimeout());
+    List<ProductExportService.ExportSlot> slots = reserveAllSlots();
+    slots.forEach(ProductExportService.ExportSlot::release);
+  }
+
+  @Test
+  @DisplayName("Given every export slot taken, when exporting, then return service unavailable")
+  void givenEveryExportSlotTaken_whenExporting_thenReturnServiceUnavailable() throws Exception {
+    // Arrange
+    List<ProductExportService.ExportSlot> slots = reserveAllSlots();
+
+    // Act & Assert
+    try {
+      mockMvc.perform(get("/products/export"))
+          .andExpect(status().isServiceUnavailable());
+    } finally {
+      slots.forEach(ProductExportService.ExportSlot::release);
+    }
+  }
+
+  @Test
+  @DisplayName("Given no token, when exporting, then return unauthorized")
+  void givenNoToken_whenExporting_thenReturnUnauthorized() throws Exception {
+    // Arrange
+    MockMvc securedMockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+        .apply(springSecurity())
+        .build();
+
+    // Act & Assert
+    securedMockMvc.perform(get("/products/export"))
+        .andExpect(status().isUnauthorized());
+  }
+
+  private List<ProductExportService.ExportSlot> reserveAllSlots() {
+    List<ProductExportService.ExportSlot> slots = new ArrayList<>();
+    for (int i = 0; i < productProperties.getExport().getMaxConcurrent(); i++) {
+      slots.add(productExportService.reserveSlot());
+    }
+    return slots;
+  }
+}
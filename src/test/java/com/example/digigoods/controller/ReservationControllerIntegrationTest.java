@@ -0,0 +1,202 @@
+package com.example.digigoods.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.ReservationRequest;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.ReservationStatus;
+import com.example.digigoods.model.StockReservation;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.StockReservationRepository;
+import com.example.digigoods.repository.UserRepository;
+import com.example.digigoods.service.JwtService;
+import com.example.digigoods.service.ReservationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Integration tests for ReservationController.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@Transactional
+class ReservationControllerIntegrationTest {
+
+  @Autowired
+  private WebApplicationContext webApplicationContext;
+
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private StockReservationRepository stockReservationRepository;
+
+  @Autowired
+  private ReservationService reservationService;
+
+  @Autowired
+  private JwtService jwtService;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  private User user;
+  private Product product;
+  private String token;
+
+  @BeforeEach
+  void setUp() {
+    // Set up MockMvc
+    mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+    user = new User();
+    user.setUsername("reservationuser");
+    user.setPassword("password");
+    user = userRepository.save(user);
+    token = jwtService.generateToken(user.getId(), user.getUsername());
+
+    product = new Product();
+    product.setName("Limited Product");
+    product.setPrice(new BigDecimal("40.00"));
+    product.setStock(3);
+    product = productRepository.save(product);
+    // Write the test data before checkouts touch it with plain JDBC updates
+    entityManager.flush();
+  }
+
+  @Test
+  @DisplayName("Given available stock, when reserving and checking out, "
+      + "then reserved stock is sold")
+  void givenAvailableStock_whenReservingAndCheckingOut_thenReservedStockIsSold()
+      throws Exception {
+    // Arrange
+    String reservationId = reserve(List.of(product.getId(), product.getId()));
+    assertEquals(1, reloadProduct().getAvailableStock());
+
+    CheckoutRequest request = new CheckoutRequest(user.getId(),
+        List.of(product.getId(), product.getId()), List.of(), reservationId);
+
+    // Act
+    mockMvc.perform(post("/orders")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.finalPrice").value(80.00));
+
+    // Assert
+    Product reloaded = reloadProduct();
+    assertEquals(1, reloaded.getStock());
+    assertEquals(0, reloaded.getReservedStock());
+  }
+
+  @Test
+  @DisplayName("Given reserved stock, when reserving more than available, then return bad request")
+  void givenReservedStock_whenReservingMoreThanAvailable_thenReturnBadRequest() throws Exception {
+    // Arrange
+    reserve(List.of(product.getId(), product.getId()));
+    ReservationRequest request = new ReservationRequest(user.getId(),
+        List.of(product.getId(), product.getId()));
+
+    // Act & Assert
+    mockMvc.perform(post("/reservations")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Insufficient stock for product "
+            + product.getId() + ". Requested: 2, Available: 1"));
+  }
+
+  @Test
+  @DisplayName("Given held reservation, when releasing, then stock becomes available again")
+  void givenHeldReservation_whenReleasing_thenStockBecomesAvailableAgain() throws Exception {
+    // Arrange
+    String reservationId = reserve(List.of(product.getId()));
+
+    // Act
+    mockMvc.perform(delete("/reservations/" + reservationId)
+            .header("Authorization", "Bearer " + token))
+        .andExpect(status().isNoContent());
+
+    // Assert
+    assertEquals(3, reloadProduct().getAvailableStock());
+  }
+
+  @Test
+  @DisplayName("Given expired reservation, when sweeping, then release it and reject checkout")
+  void givenExpiredReservation_whenSweeping_thenReleaseItAndRejectCheckout() throws Exception {
+    // Arrange
+    final String reservationId = reserve(List.of(product.getId()));
+    for (StockReservation row : stockReservationRepository.findAll()) {
+      row.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+    }
+    entityManager.flush();
+
+    // Act
+    int released = reservationService.releaseExpiredBatch();
+
+    // Assert
+    assertEquals(1, released);
+    assertEquals(3, reloadProduct().getAvailableStock());
+    assertEquals(ReservationStatus.EXPIRED,
+        stockReservationRepository.findAll().get(0).getStatus());
+
+    CheckoutRequest request = new CheckoutRequest(user.getId(), List.of(product.getId()),
+        List.of(), reservationId);
+    mockMvc.perform(post("/orders")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isBadRequest());
+  }
+
+  private String reserve(List<Long> productIds) throws Exception {
+    ReservationRequest request = new ReservationRequest(user.getId(), productIds);
+    String response = mockMvc.perform(post("/reservations")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.reservationId").exists())
+        .andExpect(jsonPath("$.expiresAt").exists())
+        .andReturn().getResponse().getContentAsString();
+    return objectMapper.readTree(response).get("reservationId").asText();
+  }
+
+  private Product reloadProduct() {
+    entityManager.flush();
+    entityManager.clear();
+    return productRepository.findById(product.getId()).orElseThrow();
+  }
+}
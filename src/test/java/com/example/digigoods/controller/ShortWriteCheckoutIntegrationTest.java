@@ -0,0 +1,158 @@
+package com.example.digigoods.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.digigoods.config.CheckoutProperties;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.model.Order;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.OrderRepository;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.UserRepository;
+import com.example.digigoods.service.CatalogVersions;
+import com.example.digigoods.service.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Integration tests for checkouts in short-write mode.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@Transactional
+class ShortWriteCheckoutIntegrationTest {
+
+  @Autowired
+  private WebApplicationContext webApplicationContext;
+
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  @Autowired
+  private JwtService jwtService;
+
+  @Autowired
+  private CheckoutProperties checkoutProperties;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @MockitoSpyBean
+  private CatalogVersions catalogVersions;
+
+  private User user;
+  private Product product;
+  private String token;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+    orderRepository.deleteAll();
+    productRepository.deleteAll();
+
+    user = new User();
+    user.setUsername("shortwriteuser");
+    user.setPassword("password");
+    user = userRepository.save(user);
+    token = jwtService.generateToken(user.getId(), user.getUsername());
+
+    product = new Product();
+    product.setName("Short Write Product");
+    product.setPrice(new BigDecimal("100.00"));
+    product.setStock(10);
+    product = productRepository.save(product);
+    // Write the test data before checkouts touch it with plain JDBC updates
+    entityManager.flush();
+
+    checkoutProperties.setMode(CheckoutProperties.Mode.SHORT_WRITE);
+  }
+
+  @AfterEach
+  void tearDown() {
+    checkoutProperties.setMode(CheckoutProperties.Mode.PER_REQUEST);
+  }
+
+  @Test
+  @DisplayName("Given unchanged catalog, when checking out, then write the priced order")
+  void givenUnchangedCatalog_whenCheckingOut_thenWritePricedOrder() throws Exception {
+    // Arrange
+    CheckoutRequest request = new CheckoutRequest(user.getId(),
+        List.of(product.getId(), product.getId()), List.of());
+
+    // Act & Assert
+    checkout(request)
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.finalPrice").value(200.00));
+
+    entityManager.flush();
+    entityManager.clear();
+    assertEquals(8, productRepository.findById(product.getId()).orElseThrow().getStock());
+  }
+
+  @Test
+  @DisplayName("Given price changed after pricing, when writing order, then price it again")
+  void givenPriceChangedAfterPricing_whenWritingOrder_thenPriceItAgain() throws Exception {
+    // Arrange
+    // The price changes after the order was priced, just before the write locks the version
+    doAnswer(invocation -> {
+      product.setPrice(new BigDecimal("120.00"));
+      productRepository.saveAndFlush(product);
+      return invocation.callRealMethod();
+    }).when(catalogVersions).lockCurrent();
+    CheckoutRequest request = new CheckoutRequest(user.getId(), List.of(product.getId()),
+        List.of());
+
+    // Act & Assert
+    checkout(request)
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.finalPrice").value(120.00));
+
+    entityManager.flush();
+    entityManager.clear();
+    List<Order> orders = orderRepository.findAll();
+    assertEquals(1, orders.size());
+    assertEquals(new BigDecimal("120.00"), orders.get(0).getOriginalSubtotal());
+  }
+
+  private ResultActions checkout(CheckoutRequest request) throws Exception {
+    return mockMvc.perform(post("/orders")
+        .header("Authorization", "Bearer " + token)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(request)));
+  }
+}
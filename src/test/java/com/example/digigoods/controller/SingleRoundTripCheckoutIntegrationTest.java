@@ -0,0 +1,246 @@
+package com.example.digigoods.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.digigoods.config.CheckoutProperties;
+import com.example.digigoods.dto.CartLine;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.DiscountType;
+import com.example.digigoods.model.Order;
+import com.example.digigoods.model.OrderLine;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.model.User;
+import com.example.digigoods.repository.DiscountRepository;
+import com.example.digigoods.repository.OrderRepository;
+import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.UserRepository;
+import com.example.digigoods.service.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Integration tests for checkouts in single-round-trip mode, run against the H2 version of
+ * the place_order function.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@Transactional
+class SingleRoundTripCheckoutIntegrationTest {
+
+  @Autowired
+  private WebApplicationContext webApplicationContext;
+
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  @Autowired
+  private DiscountRepository discountRepository;
+
+  @Autowired
+  private JwtService jwtService;
+
+  @Autowired
+  private CheckoutProperties checkoutProperties;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  private User user;
+  private Product product1;
+  private Product product2;
+  private String token;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+    orderRepository.deleteAll();
+    productRepository.deleteAll();
+
+    user = new User();
+    user.setUsername("roundtripuser");
+    user.setPassword("password");
+    user = userRepository.save(user);
+    token = jwtService.generateToken(user.getId(), user.getUsername());
+
+    product1 = new Product();
+    product1.setName("Round Trip Product 1");
+    product1.setPrice(new BigDecimal("19.99"));
+    product1.setStock(10);
+    product1 = productRepository.save(product1);
+
+    product2 = new Product();
+    product2.setName("Round Trip Product 2");
+    product2.setPrice(new BigDecimal("7.35"));
+    product2.setStock(5);
+    product2 = productRepository.save(product2);
+
+    saveDiscount("RT-PRODUCT12", "12.50", DiscountType.PRODUCT_SPECIFIC, 5);
+    saveDiscount("RT-PRODUCT7", "7.50", DiscountType.PRODUCT_SPECIFIC, 5);
+    saveDiscount("RT-GENERAL10", "10.00", DiscountType.GENERAL, 5);
+    saveDiscount("RT-GENERAL3", "3.33", DiscountType.GENERAL, 1);
+    // Write the test data before the place_order function reads it with plain JDBC
+    entityManager.flush();
+  }
+
+  @AfterEach
+  void tearDown() {
+    checkoutProperties.setMode(CheckoutProperties.Mode.PER_REQUEST);
+  }
+
+  @Test
+  @DisplayName("Given product-specific and general discounts, when checking out in one round "
+      + "trip, then price and store the order like the per-request mode")
+  void givenMixedDiscounts_whenCheckingOutInOneRoundTrip_thenMatchPerRequestMode()
+      throws Exception {
+    // Arrange
+    CheckoutRequest request = new CheckoutRequest(user.getId(), null,
+        List.of("RT-GENERAL10", "RT-PRODUCT12", "RT-PRODUCT7"), null, null,
+        List.of(new CartLine(product1.getId(), 3), new CartLine(product2.getId(), 2)));
+    String perRequestPrice = checkout(request)
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+
+    // Write the first order before the place_order function reads stock with plain JDBC
+    entityManager.flush();
+
+    // Act
+    checkoutProperties.setMode(CheckoutProperties.Mode.SINGLE_ROUND_TRIP);
+    String singleRoundTripPrice = checkout(request)
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+
+    // Assert
+    assertEquals(perRequestPrice, singleRoundTripPrice);
+    entityManager.clear();
+    List<Order> orders = orderRepository.findAll();
+    assertEquals(2, orders.size());
+    for (Order order : orders) {
+      assertEquals(new BigDecimal("74.67"), order.getOriginalSubtotal());
+      assertEquals(3, order.getAppliedDiscounts().size());
+      assertEquals(List.of(3, 2), order.getLines().stream()
+          .sorted(Comparator.comparing(line -> line.getProduct().getId()))
+          .map(OrderLine::getQuantity)
+          .toList());
+    }
+    assertEquals(orders.get(0).getFinalPrice(), orders.get(1).getFinalPrice());
+    assertEquals(4, productRepository.findById(product1.getId()).orElseThrow().getStock());
+    assertEquals(3, discountRepository.findByCode("RT-GENERAL10").orElseThrow()
+        .getRemainingUses());
+  }
+
+  @Test
+  @DisplayName("Given insufficient stock, when checking out in one round trip, then reject "
+      + "the order with the stock details")
+  void givenInsufficientStock_whenCheckingOutInOneRoundTrip_thenRejectWithStockDetails()
+      throws Exception {
+    // Arrange
+    checkoutProperties.setMode(CheckoutProperties.Mode.SINGLE_ROUND_TRIP);
+    CheckoutRequest request = new CheckoutRequest(user.getId(), null, List.of(), null, null,
+        List.of(new CartLine(product1.getId(), 2), new CartLine(product2.getId(), 6)));
+
+    // Act & Assert
+    checkout(request)
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Insufficient stock for product "
+            + product2.getId() + ". Requested: 6, Available: 5"));
+  }
+
+  @Test
+  @DisplayName("Given discount with one remaining use, when ordering twice in one round trip, "
+      + "then reject second order")
+  void givenDiscountWithOneRemainingUse_whenOrderingTwiceInOneRoundTrip_thenRejectSecondOrder()
+      throws Exception {
+    // Arrange
+    checkoutProperties.setMode(CheckoutProperties.Mode.SINGLE_ROUND_TRIP);
+    CheckoutRequest request = new CheckoutRequest(user.getId(), List.of(product1.getId()),
+        List.of("RT-GENERAL3"));
+    checkout(request).andExpect(status().isOk());
+
+    // Act & Assert
+    checkout(request)
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message")
+            .value("Invalid discount code 'RT-GENERAL3': discount has no remaining uses"));
+  }
+
+  @Test
+  @DisplayName("Given free product, when checking out in one round trip, then place the order "
+      + "at zero like the per-request mode")
+  void givenFreeProduct_whenCheckingOutInOneRoundTrip_thenPlaceOrderAtZero() throws Exception {
+    // Arrange
+    Product freeProduct = productRepository.save(
+        new Product(null, "Round Trip Free Product", BigDecimal.ZERO, 5));
+    entityManager.flush();
+    CheckoutRequest request = new CheckoutRequest(user.getId(), List.of(freeProduct.getId()),
+        List.of("RT-GENERAL10"));
+    checkout(request)
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.finalPrice").value(0.0));
+    entityManager.flush();
+
+    // Act & Assert
+    checkoutProperties.setMode(CheckoutProperties.Mode.SINGLE_ROUND_TRIP);
+    checkout(request)
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.finalPrice").value(0.0));
+  }
+
+  private ResultActions checkout(CheckoutRequest request) throws Exception {
+    return mockMvc.perform(post("/orders")
+        .header("Authorization", "Bearer " + token)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(request)));
+  }
+
+  private void saveDiscount(String code, String percentage, DiscountType type,
+                            int remainingUses) {
+    Discount discount = new Discount();
+    discount.setCode(code);
+    discount.setPercentage(new BigDecimal(percentage));
+    discount.setType(type);
+    discount.setValidFrom(LocalDate.now().minusDays(1));
+    discount.setValidUntil(LocalDate.now().plusDays(30));
+    discount.setRemainingUses(remainingUses);
+    if (type == DiscountType.PRODUCT_SPECIFIC) {
+      discount.setApplicableProducts(new HashSet<>(Set.of(product1)));
+    }
+    discountRepository.save(discount);
+  }
+}
@@ -13,6 +13,39 @@ import org.junit.jupiter.api.Test;
  */
 class ExceptionClassesTest {
 
+  @Nested
+  @DisplayName("CheckoutOverloadedException Tests")
+  class CheckoutOverloadedExceptionTest {
+
+    @Test
+    @DisplayName("Given custom message, when creating exception, "
+        + "then message should be set correctly")
+    void givenCustomMessage_whenCreatingException_thenMessageShouldBeSetCorrectly() {
+      // Arrange
+      String customMessage = "Checkout is shutting down";
+
+      // Act
+      CheckoutOverloadedException exception = new CheckoutOverloadedException(customMessage);
+
+      // Assert
+      assertEquals(customMessage, exception.getMessage());
+      assertTrue(exception instanceof RuntimeException);
+    }
+
+    @Test
+    @DisplayName("Given no parameters, when creating exception, "
+        + "then default message should be used")
+    void givenNoParameters_whenCreatingException_thenDefaultMessageShouldBeUsed() {
+      // Arrange & Act
+      CheckoutOverloadedException exception = new CheckoutOverloadedException();
+
+      // Assert
+      assertEquals("Checkout is temporarily overloaded, please retry later",
+          exception.getMessage());
+      assertTrue(exception instanceof RuntimeException);
+    }
+  }
+
   @Nested
   @DisplayName("ExcessiveDiscountException Tests")
   class ExcessiveDiscountExceptionTest {
@@ -47,6 +80,39 @@ class ExceptionClassesTest {
     }
   }
 
+  @Nested
+  @DisplayName("IdempotencyConflictException Tests")
+  class IdempotencyConflictExceptionTest {
+
+    @Test
+    @DisplayName("Given custom message, when creating exception, "
+        + "then message should be set correctly")
+    void givenCustomMessage_whenCreatingException_thenMessageShouldBeSetCorrectly() {
+      // Arrange
+      String customMessage = "Custom idempotency conflict message";
+
+      // Act
+      IdempotencyConflictException exception = new IdempotencyConflictException(customMessage);
+
+      // Assert
+      assertEquals(customMessage, exception.getMessage());
+      assertTrue(exception instanceof RuntimeException);
+    }
+
+    @Test
+    @DisplayName("Given no parameters, when creating exception, "
+        + "then default message should be used")
+    void givenNoParameters_whenCreatingException_thenDefaultMessageShouldBeUsed() {
+      // Arrange & Act
+      IdempotencyConflictException exception = new IdempotencyConflictException();
+
+      // Assert
+      assertEquals("A request with this idempotency key is still being processed",
+          exception.getMessage());
+      assertTrue(exception instanceof RuntimeException);
+    }
+  }
+
   @Nested
   @DisplayName("InsufficientStockException Tests")
   class InsufficientStockExceptionTest {
@@ -123,6 +189,73 @@ class ExceptionClassesTest {
     }
   }
 
+  @Nested
+  @DisplayName("InvalidIdempotencyKeyException Tests")
+  class InvalidIdempotencyKeyExceptionTest {
+
+    @Test
+    @DisplayName("Given custom message, when creating exception, "
+        + "then message should be set correctly")
+    void givenCustomMessage_whenCreatingException_thenMessageShouldBeSetCorrectly() {
+      // Arrange
+      String customMessage = "Custom invalid idempotency key message";
+
+      // Act
+      InvalidIdempotencyKeyException exception =
+          new InvalidIdempotencyKeyException(customMessage);
+
+      // Assert
+      assertEquals(customMessage, exception.getMessage());
+      assertTrue(exception instanceof RuntimeException);
+    }
+
+    @Test
+    @DisplayName("Given no parameters, when creating exception, "
+        + "then default message should be used")
+    void givenNoParameters_whenCreatingException_thenDefaultMessageShouldBeUsed() {
+      // Arrange & Act
+      InvalidIdempotencyKeyException exception = new InvalidIdempotencyKeyException();
+
+      // Assert
+      assertEquals("Idempotency key must be between 1 and 255 characters",
+          exception.getMessage());
+      assertTrue(exception instanceof RuntimeException);
+    }
+  }
+
+  @Nested
+  @DisplayName("InvalidReservationException Tests")
+  class InvalidReservationExceptionTest {
+
+    @Test
+    @DisplayName("Given custom message, when creating exception, "
+        + "then message should be set correctly")
+    void givenCustomMessage_whenCreatingException_thenMessageShouldBeSetCorrectly() {
+      // Arrange
+      String customMessage = "Custom invalid reservation message";
+
+      // Act
+      InvalidReservationException exception = new InvalidReservationException(customMessage);
+
+      // Assert
+      assertEquals(customMessage, exception.getMessage());
+      assertTrue(exception instanceof RuntimeException);
+    }
+
+    @Test
+    @DisplayName("Given reservation ID and reason, when creating exception, "
+        + "then formatted message should be created")
+    void givenReservationIdAndReason_whenCreatingException_thenFormattedMessageShouldBeCreated() {
+      // Arrange & Act
+      InvalidReservationException exception =
+          new InvalidReservationException("abc", "reservation has expired");
+
+      // Assert
+      assertEquals("Invalid reservation 'abc': reservation has expired", exception.getMessage());
+      assertTrue(exception instanceof RuntimeException);
+    }
+  }
+
   @Nested
   @DisplayName("MissingJwtTokenException Tests")
   class MissingJwtTokenExceptionTest {
@@ -155,6 +288,26 @@ class ExceptionClassesTest {
     }
   }
 
+  @Nested
+  @DisplayName("OrderStatusNotFoundException Tests")
+  class OrderStatusNotFoundExceptionTest {
+
+    @Test
+    @DisplayName("Given order token, when creating exception, "
+        + "then message should contain token")
+    void givenOrderToken_whenCreatingException_thenMessageShouldContainToken() {
+      // Arrange
+      String orderToken = "abc-123";
+
+      // Act
+      OrderStatusNotFoundException exception = new OrderStatusNotFoundException(orderToken);
+
+      // Assert
+      assertEquals("Order status not found for token: abc-123", exception.getMessage());
+      assertTrue(exception instanceof RuntimeException);
+    }
+  }
+
   @Nested
   @DisplayName("ProductNotFoundException Tests")
   class ProductNotFoundExceptionTest {
@@ -231,10 +384,15 @@ class ExceptionClassesTest {
     @DisplayName("All custom exceptions should extend RuntimeException")
     void allCustomExceptionsShouldExtendRuntimeException() {
       // Arrange & Act & Assert
+      assertTrue(new CheckoutOverloadedException() instanceof RuntimeException);
       assertTrue(new ExcessiveDiscountException() instanceof RuntimeException);
+      assertTrue(new IdempotencyConflictException() instanceof RuntimeException);
       assertTrue(new InsufficientStockException("test") instanceof RuntimeException);
       assertTrue(new InvalidDiscountException("test") instanceof RuntimeException);
+      assertTrue(new InvalidIdempotencyKeyException() instanceof RuntimeException);
+      assertTrue(new InvalidReservationException("test") instanceof RuntimeException);
       assertTrue(new MissingJwtTokenException() instanceof RuntimeException);
+      assertTrue(new OrderStatusNotFoundException("test") instanceof RuntimeException);
       assertTrue(new ProductNotFoundException("test") instanceof RuntimeException);
       assertTrue(new UnauthorizedAccessException() instanceof RuntimeException);
     }
@@ -243,10 +401,15 @@ class ExceptionClassesTest {
     @DisplayName("All custom exceptions should have non-null messages")
     void allCustomExceptionsShouldHaveNonNullMessages() {
       // Arrange & Act & Assert
+      assertNotNull(new CheckoutOverloadedException().getMessage());
       assertNotNull(new ExcessiveDiscountException().getMessage());
+      assertNotNull(new IdempotencyConflictException().getMessage());
       assertNotNull(new InsufficientStockException("test").getMessage());
       assertNotNull(new InvalidDiscountException("test").getMessage());
+      assertNotNull(new InvalidIdempotencyKeyException().getMessage());
+      assertNotNull(new InvalidReservationException("test").getMessage());
       assertNotNull(new MissingJwtTokenException().getMessage());
+      assertNotNull(new OrderStatusNotFoundException("test").getMessage());
       assertNotNull(new ProductNotFoundException("test").getMessage());
       assertNotNull(new UnauthorizedAccessException().getMessage());
     }
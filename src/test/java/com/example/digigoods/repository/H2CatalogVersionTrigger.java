@@ -0,0 +1,74 @@
+package com.example.digigoods.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * H2 version of the catalog version triggers created by Liquibase, registered by the test
+ * {@code schema.sql}. Like the PostgreSQL triggers, it bumps the product or discount version
+ * when a row is inserted or deleted, or when a column prices or discount rules depend on
+ * is updated. It runs on the caller's connection, so it joins the caller's transaction.
+ */
+public final class H2CatalogVersionTrigger implements org.h2.api.Trigger {
+
+  private static final Map<String, Set<String>> WATCHED_COLUMNS = Map.of(
+      "PRODUCTS", Set.of("NAME", "PRICE", "INVENTORY_POLICY"),
+      "DISCOUNTS", Set.of("CODE", "PERCENTAGE", "TYPE", "VALID_FROM", "VALID_UNTIL"));
+
+  private String bumpSql;
+  private int[] watchedIndexes;
+
+  @Override
+  public void init(Connection connection, String schemaName, String triggerName,
+                   String tableName, boolean before, int type) throws SQLException {
+    String version = tableName.equalsIgnoreCase("PRODUCTS") ? "products" : "discounts";
+    bumpSql = "UPDATE catalog_versions SET " + version + " = " + version + " + 1 WHERE id = 1";
+
+    // Tables without watched columns, like the junction table, bump on every change
+    Set<String> watched = WATCHED_COLUMNS.get(tableName.toUpperCase(Locale.ROOT));
+    if (watched == null) {
+      return;
+    }
+    List<Integer> indexes = new ArrayList<>();
+    try (ResultSet columns = connection.getMetaData()
+        .getColumns(null, schemaName, tableName, null)) {
+      while (columns.next()) {
+        if (watched.contains(columns.getString("COLUMN_NAME").toUpperCase(Locale.ROOT))) {
+          indexes.add(columns.getInt("ORDINAL_POSITION") - 1);
+        }
+      }
+    }
+    watchedIndexes = indexes.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  @Override
+  public void fire(Connection connection, Object[] oldRow, Object[] newRow)
+      throws SQLException {
+    if (oldRow != null && newRow != null && !watchedColumnChanged(oldRow, newRow)) {
+      return;
+    }
+    try (PreparedStatement statement = connection.prepareStatement(bumpSql)) {
+      statement.executeUpdate();
+    }
+  }
+
+  private boolean watchedColumnChanged(Object[] oldRow, Object[] newRow) {
+    if (watchedIndexes == null) {
+      return true;
+    }
+    for (int index : watchedIndexes) {
+      if (!Objects.equals(oldRow[index], newRow[index])) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
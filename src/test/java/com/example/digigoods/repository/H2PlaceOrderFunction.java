@@ -0,0 +1,231 @@
+package com.example.digigoods.repository;
+
+import com.example.digigoods.service.PricingEngine;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.h2.tools.SimpleResultSet;
+
+/**
+ * H2 version of the {@code place_order} PostgreSQL function, registered as a Java alias by
+ * the test {@code schema.sql}. It follows the same steps on the caller's connection, so
+ * it joins the caller's transaction.
+ */
+public final class H2PlaceOrderFunction {
+
+  private static final String COLUMN_LIST_URL = "jdbc:columnlist:connection";
+
+  private H2PlaceOrderFunction() {
+  }
+
+  /**
+   * Validate, price and write an order.
+   *
+   * @param connection the caller's connection, passed by H2
+   * @param userId the ID of the ordering user
+   * @param productIds the product IDs, sorted
+   * @param quantities the quantity of each product
+   * @param discountCodes the discount codes, in the order they are applied
+   * @param today the date discounts must be valid on
+   * @param maxDiscountBasisPoints the largest allowed discount of the original subtotal
+   * @return one row with the status of the checkout
+   * @throws SQLException if a statement fails
+   */
+  public static ResultSet placeOrder(Connection connection, Long userId, Long[] productIds,
+                                     Integer[] quantities, String[] discountCodes, Date today,
+                                     Integer maxDiscountBasisPoints) throws SQLException {
+    SimpleResultSet result = new SimpleResultSet();
+    result.addColumn("STATUS", Types.VARCHAR, 40, 0);
+    result.addColumn("DETAIL", Types.VARCHAR, 1000, 0);
+    result.addColumn("PRODUCT_ID", Types.BIGINT, 19, 0);
+    result.addColumn("REQUESTED", Types.INTEGER, 10, 0);
+    result.addColumn("AVAILABLE", Types.INTEGER, 10, 0);
+    result.addColumn("ORIGINAL_SUBTOTAL", Types.BIGINT, 19, 0);
+    result.addColumn("FINAL_PRICE", Types.BIGINT, 19, 0);
+    // H2 calls table functions once without arguments to learn their columns
+    if (COLUMN_LIST_URL.equals(connection.getMetaData().getURL())) {
+      return result;
+    }
+
+    SortedMap<Long, Integer> lines = new TreeMap<>();
+    for (int i = 0; i < productIds.length; i++) {
+      lines.put(productIds[i], quantities[i]);
+    }
+
+    // 2. Product Validation
+    Map<Long, Long> unitPrices = new TreeMap<>();
+    List<Long> unlimitedIds = new ArrayList<>();
+    for (Long productId : lines.keySet()) {
+      List<Long> price = queryLongs(connection,
+          "SELECT CAST(price * 100 AS BIGINT) FROM products WHERE id = ?", productId);
+      if (!price.isEmpty()) {
+        unitPrices.put(productId, price.get(0));
+      }
+      unlimitedIds.addAll(queryLongs(connection, "SELECT id FROM products "
+          + "WHERE id = ? AND inventory_policy = 'UNLIMITED'", productId));
+    }
+    if (unitPrices.size() != lines.size()) {
+      List<String> missing = new ArrayList<>();
+      lines.keySet().stream()
+          .filter(id -> !unitPrices.containsKey(id))
+          .forEach(id -> missing.add(String.valueOf(id)));
+      return failure(result, "PRODUCT_NOT_FOUND", String.join(", ", missing));
+    }
+
+    // 4. Discount Validation
+    Map<Long, Discount> discounts = new LinkedHashMap<>();
+    for (String code : discountCodes) {
+      Discount discount = findDiscount(connection, code);
+      if (discount == null) {
+        return failure(result, "DISCOUNT_NOT_FOUND", code);
+      }
+      if (discounts.putIfAbsent(discount.id, discount) != null) {
+        return failure(result, "DISCOUNT_DUPLICATE", code);
+      }
+    }
+    LocalDate date = today.toLocalDate();
+    for (Discount discount : discounts.values()) {
+      if (date.isBefore(discount.validFrom)) {
+        return failure(result, "DISCOUNT_NOT_YET_VALID", discount.code);
+      }
+      if (date.isAfter(discount.validUntil)) {
+        return failure(result, "DISCOUNT_EXPIRED", discount.code);
+      }
+      if (discount.remainingUses <= 0) {
+        return failure(result, "DISCOUNT_NO_REMAINING_USES", discount.code);
+      }
+    }
+
+    // 3. Original Subtotal and 5. Discount Application
+    long original = 0;
+    long price = 0;
+    for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+      int basisPoints = 0;
+      for (Discount discount : discounts.values()) {
+        if ("PRODUCT_SPECIFIC".equals(discount.type)
+            && !queryLongs(connection, "SELECT product_id FROM discount_applicable_products "
+                + "WHERE discount_id = ? AND product_id = ?", discount.id, line.getKey())
+            .isEmpty()) {
+          basisPoints += discount.basisPoints;
+        }
+      }
+      long unitPrice = unitPrices.get(line.getKey());
+      original += unitPrice * line.getValue();
+      price += PricingEngine.applyDiscount(unitPrice, basisPoints) * line.getValue();
+    }
+    for (Discount discount : discounts.values()) {
+      if ("GENERAL".equals(discount.type)) {
+        price = PricingEngine.applyDiscount(price, discount.basisPoints);
+      }
+    }
+
+    // 6. Maximum Discount Rule
+    if (PricingEngine.discountBasisPoints(original, price) > maxDiscountBasisPoints) {
+      return failure(result, "EXCESSIVE_DISCOUNT", null);
+    }
+
+    // 7. Final Commit
+    for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+      if (unlimitedIds.contains(line.getKey())) {
+        continue;
+      }
+      if (update(connection, "UPDATE products SET stock = stock - ? "
+          + "WHERE id = ? AND stock - reserved_stock >= ?",
+          line.getValue(), line.getKey(), line.getValue()) == 0) {
+        long available = queryLongs(connection,
+            "SELECT stock - reserved_stock FROM products WHERE id = ?", line.getKey()).get(0);
+        result.addRow("INSUFFICIENT_STOCK", null, line.getKey(), line.getValue(),
+            (int) available, null, null);
+        return result;
+      }
+    }
+    for (Discount discount : new TreeMap<>(discounts).values()) {
+      if (update(connection, "UPDATE discounts SET remaining_uses = remaining_uses - 1 "
+          + "WHERE id = ? AND remaining_uses >= 1", discount.id) == 0) {
+        return failure(result, "DISCOUNT_NO_REMAINING_USES", discount.code);
+      }
+    }
+
+    long orderId = queryLongs(connection, "SELECT NEXT VALUE FOR orders_seq").get(0);
+    update(connection, "INSERT INTO orders (id, user_id, original_subtotal, final_price, "
+        + "order_date) VALUES (?, ?, ?, ?, ?)", orderId, userId,
+        PricingEngine.toAmount(original), PricingEngine.toAmount(price),
+        Timestamp.valueOf(LocalDateTime.now()));
+    for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+      update(connection, "INSERT INTO order_lines (order_id, product_id, quantity, unit_price) "
+          + "VALUES (?, ?, ?, ?)", orderId, line.getKey(), line.getValue(),
+          PricingEngine.toAmount(unitPrices.get(line.getKey())));
+    }
+    for (Long discountId : discounts.keySet()) {
+      update(connection, "INSERT INTO order_applied_discounts (order_id, discount_id) "
+          + "VALUES (?, ?)", orderId, discountId);
+    }
+
+    result.addRow("CREATED", null, null, null, null, original, price);
+    return result;
+  }
+
+  private static ResultSet failure(SimpleResultSet result, String status, String detail) {
+    result.addRow(status, detail, null, null, null, null, null);
+    return result;
+  }
+
+  private static Discount findDiscount(Connection connection, String code) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(
+        "SELECT id, code, CAST(percentage * 100 AS INTEGER), type, valid_from, valid_until, "
+            + "remaining_uses FROM discounts WHERE code = ?")) {
+      statement.setString(1, code);
+      try (ResultSet rs = statement.executeQuery()) {
+        if (!rs.next()) {
+          return null;
+        }
+        return new Discount(rs.getLong(1), rs.getString(2), rs.getInt(3), rs.getString(4),
+            rs.getDate(5).toLocalDate(), rs.getDate(6).toLocalDate(), rs.getInt(7));
+      }
+    }
+  }
+
+  private static List<Long> queryLongs(Connection connection, String sql, Object... args)
+      throws SQLException {
+    try (PreparedStatement statement = prepare(connection, sql, args);
+        ResultSet rs = statement.executeQuery()) {
+      List<Long> values = new ArrayList<>();
+      while (rs.next()) {
+        values.add(rs.getLong(1));
+      }
+      return values;
+    }
+  }
+
+  private static int update(Connection connection, String sql, Object... args)
+      throws SQLException {
+    try (PreparedStatement statement = prepare(connection, sql, args)) {
+      return statement.executeUpdate();
+    }
+  }
+
+  private static PreparedStatement prepare(Connection connection, String sql, Object... args)
+      throws SQLException {
+    PreparedStatement statement = connection.prepareStatement(sql);
+    for (int i = 0; i < args.length; i++) {
+      statement.setObject(i + 1, args[i]);
+    }
+    return statement;
+  }
+
+  private record Discount(long id, String code, int basisPoints, String type,
+                          LocalDate validFrom, LocalDate validUntil, int remainingUses) {
+  }
+}
@@ -0,0 +1,169 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.config.CheckoutProperties;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.dto.OrderStatusResponse;
+import com.example.digigoods.exception.CheckoutOverloadedException;
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.exception.OrderStatusNotFoundException;
+import com.example.digigoods.exception.UnauthorizedAccessException;
+import com.example.digigoods.model.AsyncCheckoutStatus;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncCheckoutServiceTest {
+
+  @Mock
+  private Clock clock;
+
+  private CheckoutProperties properties;
+  private AsyncCheckoutService asyncCheckoutService;
+  private CheckoutRequest request;
+
+  @BeforeEach
+  void setUp() {
+    properties = new CheckoutProperties();
+    properties.getAsync().setWorkers(1);
+    properties.getAsync().setQueueCapacity(1);
+    properties.getAsync().setStatusRetention(Duration.ofMinutes(5));
+    asyncCheckoutService = new AsyncCheckoutService(properties, clock);
+    request = new CheckoutRequest(1L, List.of(1L), List.of());
+  }
+
+  @AfterEach
+  void tearDown() {
+    asyncCheckoutService.shutdown();
+  }
+
+  @Test
+  @DisplayName("Given successful checkout, when polling status, then report completed order")
+  void givenSuccessfulCheckout_whenPollingStatus_thenReportCompletedOrder() throws Exception {
+    // Arrange
+    when(clock.instant()).thenReturn(Instant.EPOCH);
+    OrderResponse orderResponse =
+        new OrderResponse("Order created successfully!", new BigDecimal("30.00"));
+
+    // Act
+    String orderToken = asyncCheckoutService.submit(request, 1L, () -> orderResponse);
+    OrderStatusResponse status = awaitFinished(orderToken);
+
+    // Assert
+    assertEquals(AsyncCheckoutStatus.COMPLETED, status.getStatus());
+    assertEquals("Order created successfully!", status.getMessage());
+    assertEquals(new BigDecimal("30.00"), status.getFinalPrice());
+  }
+
+  @Test
+  @DisplayName("Given failing checkout, when polling status, then report failure message")
+  void givenFailingCheckout_whenPollingStatus_thenReportFailureMessage() throws Exception {
+    // Arrange
+    when(clock.instant()).thenReturn(Instant.EPOCH);
+
+    // Act
+    String orderToken = asyncCheckoutService.submit(request, 1L, () -> {
+      throw new InsufficientStockException(1L, 2, 1);
+    });
+    OrderStatusResponse status = awaitFinished(orderToken);
+
+    // Assert
+    assertEquals(AsyncCheckoutStatus.FAILED, status.getStatus());
+    assertEquals("Insufficient stock for product 1. Requested: 2, Available: 1",
+        status.getMessage());
+    assertNull(status.getFinalPrice());
+  }
+
+  @Test
+  @DisplayName("Given another user's token, when polling status, then throw not found")
+  void givenAnotherUsersToken_whenPollingStatus_thenThrowNotFound() {
+    // Arrange
+    String orderToken = asyncCheckoutService.submit(request, 1L,
+        () -> new OrderResponse("Order created successfully!", BigDecimal.TEN));
+
+    // Act & Assert
+    assertThrows(OrderStatusNotFoundException.class,
+        () -> asyncCheckoutService.getStatus(orderToken, 2L));
+  }
+
+  @Test
+  @DisplayName("Given order for another user, when submitting, then throw unauthorized")
+  void givenOrderForAnotherUser_whenSubmitting_thenThrowUnauthorized() {
+    // Act & Assert
+    assertThrows(UnauthorizedAccessException.class,
+        () -> asyncCheckoutService.submit(request, 2L, () -> null));
+  }
+
+  @Test
+  @DisplayName("Given busy workers and full queue, when submitting, then throw overloaded")
+  void givenBusyWorkersAndFullQueue_whenSubmitting_thenThrowOverloaded() throws Exception {
+    // Arrange
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    asyncCheckoutService.submit(request, 1L, () -> {
+      running.countDown();
+      awaitQuietly(release);
+      return null;
+    });
+    running.await(5, TimeUnit.SECONDS);
+    asyncCheckoutService.submit(request, 1L, () -> null);
+
+    // Act & Assert
+    assertThrows(CheckoutOverloadedException.class,
+        () -> asyncCheckoutService.submit(request, 1L, () -> null));
+    release.countDown();
+  }
+
+  @Test
+  @DisplayName("Given status older than retention, when purging, then forget it")
+  void givenStatusOlderThanRetention_whenPurging_thenForgetIt() throws Exception {
+    // Arrange
+    when(clock.instant()).thenReturn(Instant.EPOCH);
+    String orderToken = asyncCheckoutService.submit(request, 1L,
+        () -> new OrderResponse("Order created successfully!", BigDecimal.TEN));
+    awaitFinished(orderToken);
+    when(clock.instant()).thenReturn(Instant.EPOCH.plus(Duration.ofMinutes(6)));
+
+    // Act
+    asyncCheckoutService.purgeFinished();
+
+    // Assert
+    assertThrows(OrderStatusNotFoundException.class,
+        () -> asyncCheckoutService.getStatus(orderToken, 1L));
+  }
+
+  private OrderStatusResponse awaitFinished(String orderToken) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    OrderStatusResponse status = asyncCheckoutService.getStatus(orderToken, 1L);
+    while (status.getStatus() == AsyncCheckoutStatus.PENDING && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+      status = asyncCheckoutService.getStatus(orderToken, 1L);
+    }
+    return status;
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
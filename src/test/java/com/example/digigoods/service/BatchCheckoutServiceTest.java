@@ -0,0 +1,94 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.dto.BatchCheckoutResponse;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.exception.ProductNotFoundException;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class BatchCheckoutServiceTest {
+
+  @Mock
+  private CheckoutService checkoutService;
+
+  @Mock
+  private ProductService productService;
+
+  @Mock
+  private DiscountService discountService;
+
+  @Mock
+  private DiscountIndex discountIndex;
+
+  @Mock
+  private OrderWriter orderWriter;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @InjectMocks
+  private BatchCheckoutService batchCheckoutService;
+
+  @Test
+  @DisplayName("Given failing carts, when processing batch, then report each outcome")
+  void givenFailingCarts_whenProcessingBatch_thenReportEachOutcome() {
+    // Arrange
+    CheckoutRequest goodRequest = request(1L);
+    CheckoutRequest unknownRequest = request(2L);
+    CheckoutRequest outOfStockRequest = request(3L);
+    PricedOrder good = pricedOrder(goodRequest);
+    PricedOrder outOfStock = pricedOrder(outOfStockRequest);
+    when(checkoutService.priceOrder(eq(goodRequest), eq(1L), any())).thenReturn(good);
+    when(checkoutService.priceOrder(eq(unknownRequest), eq(1L), any()))
+        .thenThrow(new ProductNotFoundException("Products not found with IDs: [2]"));
+    when(checkoutService.priceOrder(eq(outOfStockRequest), eq(1L), any()))
+        .thenReturn(outOfStock);
+    InsufficientStockException stockFailure = new InsufficientStockException("out of stock");
+    when(orderWriter.writeAll(List.of(good, outOfStock))).thenThrow(stockFailure);
+    when(orderWriter.write(good))
+        .thenReturn(new OrderResponse("Order created successfully!", BigDecimal.TEN));
+    when(orderWriter.write(outOfStock)).thenThrow(stockFailure);
+
+    // Act
+    BatchCheckoutResponse response = batchCheckoutService.processBatch(
+        List.of(goodRequest, unknownRequest, outOfStockRequest), 1L);
+
+    // Assert
+    assertEquals(1, response.getCreated());
+    assertEquals(2, response.getFailed());
+    assertTrue(response.getResults().get(0).isCreated());
+    assertEquals(BigDecimal.TEN, response.getResults().get(0).getFinalPrice());
+    assertFalse(response.getResults().get(1).isCreated());
+    assertEquals("Products not found with IDs: [2]", response.getResults().get(1).getMessage());
+    assertFalse(response.getResults().get(2).isCreated());
+    assertEquals("out of stock", response.getResults().get(2).getMessage());
+    assertNull(response.getResults().get(2).getFinalPrice());
+  }
+
+  private static CheckoutRequest request(Long productId) {
+    return new CheckoutRequest(1L, List.of(productId), List.of());
+  }
+
+  private static PricedOrder pricedOrder(CheckoutRequest request) {
+    return new PricedOrder(request, request.quantities(), List.of(), List.of(), BigDecimal.TEN,
+        BigDecimal.TEN, BigDecimal.TEN);
+  }
+}
@@ -0,0 +1,75 @@
+package com.example.digigoods.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Reference {@link BigDecimal} pricing, as done by checkout before {@link PricingEngine}.
+ */
+public final class BigDecimalPricing {
+
+  private static final BigDecimal MAX_DISCOUNT_PERCENTAGE = new BigDecimal("75.00");
+  private static final BigDecimal HUNDRED = new BigDecimal("100.00");
+
+  private BigDecimalPricing() {
+  }
+
+  /**
+   * Sum up the line prices.
+   *
+   * @param linePrices the price of each cart line
+   * @return the original subtotal
+   */
+  public static BigDecimal originalSubtotal(BigDecimal[] linePrices) {
+    BigDecimal total = BigDecimal.ZERO;
+    for (BigDecimal linePrice : linePrices) {
+      total = total.add(linePrice);
+    }
+    return total;
+  }
+
+  /**
+   * Apply product-specific discounts per line, then general discounts to the subtotal.
+   *
+   * @param linePrices the price of each cart line
+   * @param linePercentages the summed product-specific discount percentage of each line
+   * @param generalPercentages the general discount percentages, in the order applied
+   * @return the final price
+   */
+  public static BigDecimal finalPrice(BigDecimal[] linePrices, BigDecimal[] linePercentages,
+                                      BigDecimal[] generalPercentages) {
+    BigDecimal total = BigDecimal.ZERO;
+    for (int i = 0; i < linePrices.length; i++) {
+      BigDecimal itemPrice = linePrices[i];
+      if (linePercentages[i].compareTo(BigDecimal.ZERO) > 0) {
+        BigDecimal discountAmount = itemPrice.multiply(linePercentages[i])
+            .divide(HUNDRED, 2, RoundingMode.HALF_UP);
+        itemPrice = itemPrice.subtract(discountAmount);
+      }
+      total = total.add(itemPrice);
+    }
+
+    BigDecimal currentPrice = total;
+    for (BigDecimal percentage : generalPercentages) {
+      BigDecimal discountAmount = currentPrice.multiply(percentage)
+          .divide(HUNDRED, 2, RoundingMode.HALF_UP);
+      currentPrice = currentPrice.subtract(discountAmount);
+    }
+    return currentPrice;
+  }
+
+  /**
+   * Check the maximum discount rule.
+   *
+   * @param originalSubtotal the original subtotal
+   * @param finalPrice the final price
+   * @return true if more than 75% was discounted
+   */
+  public static boolean exceedsMaximumDiscount(BigDecimal originalSubtotal,
+                                               BigDecimal finalPrice) {
+    BigDecimal totalDiscount = originalSubtotal.subtract(finalPrice);
+    BigDecimal discountPercentage = totalDiscount.multiply(HUNDRED)
+        .divide(originalSubtotal, 2, RoundingMode.HALF_UP);
+    return discountPercentage.compareTo(MAX_DISCOUNT_PERCENTAGE) > 0;
+  }
+}
@@ -0,0 +1,90 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.config.CatalogProperties;
+import com.example.digigoods.dto.ProductPage;
+import com.example.digigoods.dto.ProductSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotsTest {
+
+  private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+  @Mock
+  private ProductCatalogService productCatalogService;
+
+  @Mock
+  private DiscountService discountService;
+
+  @Mock
+  private CatalogVersions catalogVersions;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private Clock clock;
+
+  private CatalogSnapshots catalogSnapshots;
+
+  @BeforeEach
+  void setUp() {
+    catalogSnapshots = new CatalogSnapshots(productCatalogService, discountService,
+        catalogVersions, new ObjectMapper(), transactionManager, new CatalogProperties(), clock,
+        Runnable::run);
+  }
+
+  @Test
+  @DisplayName("Given product changed on another node, when getting the first page, then "
+      + "serve the previous snapshot until max-age has passed")
+  void givenProductChangedOnAnotherNode_whenGettingFirstPage_thenServePreviousUntilMaxAge() {
+    // Arrange
+    when(productCatalogService.getPage(anyString(), isNull(), anyInt()))
+        .thenReturn(page("10.00"));
+    when(clock.instant()).thenReturn(START);
+    final String built = firstPageTag();
+    // The local change counter is not bumped by changes made elsewhere
+    when(productCatalogService.getPage(anyString(), isNull(), anyInt()))
+        .thenReturn(page("12.00"));
+
+    // Act
+    when(clock.instant()).thenReturn(START.plus(Duration.ofSeconds(5)));
+    String atMaxAge = firstPageTag();
+    when(clock.instant()).thenReturn(START.plus(Duration.ofSeconds(6)));
+    String pastMaxAge = firstPageTag();
+    String rebuilt = firstPageTag();
+
+    // Assert
+    assertEquals(built, atMaxAge);
+    assertEquals(built, pastMaxAge);
+    assertNotEquals(built, rebuilt);
+  }
+
+  private String firstPageTag() {
+    return catalogSnapshots.firstProductPage("id").orElseThrow().items().contentTag();
+  }
+
+  private static ProductPage page(String price) {
+    return new ProductPage(
+        List.of(new ProductSummary(1L, "Product 1", new BigDecimal(price), true)), null);
+  }
+}
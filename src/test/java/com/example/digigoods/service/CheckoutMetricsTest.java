@@ -0,0 +1,83 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.digigoods.config.CheckoutProperties;
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.service.CheckoutMetrics.Stage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CheckoutMetricsTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private CheckoutProperties properties;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    properties = new CheckoutProperties();
+  }
+
+  @Test
+  @DisplayName("Given failing stage, when recording, then time it as failure and count the "
+      + "exception type")
+  void givenFailingStage_whenRecording_thenTimeAsFailureAndCountExceptionType() {
+    // Arrange
+    CheckoutMetrics metrics = new CheckoutMetrics(meterRegistry, properties);
+    metrics.record(Stage.SUBTOTAL, () -> 1_000L);
+
+    // Act
+    assertThrows(InsufficientStockException.class, () -> metrics.run(Stage.COMMIT, () -> {
+      throw new InsufficientStockException(1L, 2, 1);
+    }));
+
+    // Assert
+    assertEquals(1, meterRegistry.get("digigoods.checkout.stage")
+        .tags("stage", "subtotal", "outcome", "success").timer().count());
+    assertEquals(1, meterRegistry.get("digigoods.checkout.stage")
+        .tags("stage", "commit", "outcome", "failure").timer().count());
+    assertEquals(1.0, meterRegistry.get("digigoods.checkout.failures")
+        .tags("stage", "commit", "exception", "InsufficientStockException").counter().count());
+  }
+
+  @Test
+  @DisplayName("Given repeated failures, when recording, then count them on one counter per "
+      + "exception type")
+  void givenRepeatedFailures_whenRecording_thenCountOnOneCounterPerExceptionType() {
+    // Arrange
+    CheckoutMetrics metrics = new CheckoutMetrics(meterRegistry, properties);
+
+    // Act
+    for (int i = 0; i < 3; i++) {
+      assertThrows(InsufficientStockException.class, () -> metrics.run(Stage.COMMIT, () -> {
+        throw new InsufficientStockException(1L, 2, 1);
+      }));
+    }
+
+    // Assert
+    assertEquals(1, meterRegistry.find("digigoods.checkout.failures").counters().size());
+    assertEquals(3.0, meterRegistry.get("digigoods.checkout.failures")
+        .tags("stage", "commit", "exception", "InsufficientStockException").counter().count());
+  }
+
+  @Test
+  @DisplayName("Given stage metrics disabled, when recording, then run the stage without "
+      + "registering meters")
+  void givenStageMetricsDisabled_whenRecording_thenRunWithoutRegisteringMeters() {
+    // Arrange
+    properties.setStageMetrics(false);
+    CheckoutMetrics metrics = new CheckoutMetrics(meterRegistry, properties);
+
+    // Act
+    Long subtotal = metrics.record(Stage.SUBTOTAL, () -> 1_000L);
+
+    // Assert
+    assertEquals(1_000L, subtotal);
+    assertTrue(meterRegistry.getMeters().isEmpty());
+  }
+}
@@ -0,0 +1,167 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.config.DiscountProperties;
+import com.example.digigoods.model.Discount;
+import com.example.digigoods.model.DiscountType;
+import com.example.digigoods.repository.DiscountRepository;
+import com.example.digigoods.repository.DiscountRepository.ApplicableProduct;
+import com.example.digigoods.service.DiscountIndex.ProductDiscounts;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class DiscountIndexTest {
+
+  @Mock
+  private DiscountRepository discountRepository;
+
+  @Mock
+  private CatalogVersions catalogVersions;
+
+  @Mock
+  private Clock clock;
+
+  private DiscountIndex discountIndex;
+  private Discount tenPercent;
+  private Discount fivePercent;
+
+  @BeforeEach
+  void setUp() {
+    discountIndex = new DiscountIndex(discountRepository, catalogVersions,
+        new DiscountProperties(), clock);
+
+    tenPercent = discount(1L, "10.00");
+    fivePercent = discount(2L, "5.50");
+    when(catalogVersions.current()).thenReturn(new CatalogVersions.Version(1, 1));
+  }
+
+  @Test
+  @DisplayName("Given overlapping discounts, when looking up products, then sum basis points")
+  void givenOverlappingDiscounts_whenLookingUpProducts_thenSumBasisPoints() {
+    // Arrange
+    when(discountRepository.findApplicableProducts(DiscountType.PRODUCT_SPECIFIC))
+        .thenReturn(List.of(row(1L, 30L), row(1L, 10L), row(2L, 10L), row(2L, 20L)));
+
+    // Act
+    ProductDiscounts productDiscounts =
+        discountIndex.forDiscounts(List.of(tenPercent, fivePercent));
+
+    // Assert
+    assertEquals(1550, productDiscounts.basisPointsFor(10L));
+    assertEquals(550, productDiscounts.basisPointsFor(20L));
+    assertEquals(1000, productDiscounts.basisPointsFor(30L));
+    assertEquals(0, productDiscounts.basisPointsFor(40L));
+  }
+
+  @Test
+  @DisplayName("Given built index, when looking up again, then reuse it without querying")
+  void givenBuiltIndex_whenLookingUpAgain_thenReuseItWithoutQuerying() {
+    // Arrange
+    when(discountRepository.findApplicableProducts(DiscountType.PRODUCT_SPECIFIC))
+        .thenReturn(List.of(row(1L, 10L), row(2L, 20L)));
+    discountIndex.forDiscounts(List.of(tenPercent));
+
+    // Act
+    discountIndex.forDiscounts(List.of(tenPercent, fivePercent));
+    discountIndex.forDiscounts(List.of(fivePercent));
+
+    // Assert
+    verify(discountRepository, times(1)).findApplicableProducts(DiscountType.PRODUCT_SPECIFIC);
+  }
+
+  @Test
+  @DisplayName("Given unknown discount, when looking up, then rebuild index")
+  void givenUnknownDiscount_whenLookingUp_thenRebuildIndex() {
+    // Arrange
+    when(discountRepository.findApplicableProducts(DiscountType.PRODUCT_SPECIFIC))
+        .thenReturn(List.of(row(1L, 10L)))
+        .thenReturn(List.of(row(1L, 10L), row(2L, 20L)));
+    discountIndex.forDiscounts(List.of(tenPercent));
+
+    // Act
+    ProductDiscounts productDiscounts = discountIndex.forDiscounts(List.of(fivePercent));
+
+    // Assert
+    assertEquals(550, productDiscounts.basisPointsFor(20L));
+    verify(discountRepository, times(2)).findApplicableProducts(DiscountType.PRODUCT_SPECIFIC);
+  }
+
+  @Test
+  @DisplayName("Given discount version changed elsewhere, when looking up within and after "
+      + "the check interval, then rebuild index only after it")
+  void givenDiscountVersionChangedElsewhere_whenLookingUp_thenRebuildAfterCheckInterval() {
+    // Arrange
+    when(discountRepository.findApplicableProducts(DiscountType.PRODUCT_SPECIFIC))
+        .thenReturn(List.of(row(1L, 10L)))
+        .thenReturn(List.of(row(1L, 30L)));
+    discountIndex.forDiscounts(List.of(tenPercent));
+    when(catalogVersions.current()).thenReturn(new CatalogVersions.Version(1, 2));
+
+    // Act
+    ProductDiscounts withinInterval = discountIndex.forDiscounts(List.of(tenPercent));
+    when(clock.millis()).thenReturn(Duration.ofSeconds(1).toMillis());
+    ProductDiscounts afterInterval = discountIndex.forDiscounts(List.of(tenPercent));
+
+    // Assert
+    assertEquals(1000, withinInterval.basisPointsFor(10L));
+    assertEquals(0, afterInterval.basisPointsFor(10L));
+    assertEquals(1000, afterInterval.basisPointsFor(30L));
+    verify(catalogVersions, times(2)).current();
+  }
+
+  @Test
+  @DisplayName("Given discount changed on this node, when looking up, then rebuild index "
+      + "without waiting for the check interval")
+  void givenDiscountChangedOnThisNode_whenLookingUp_thenRebuildWithoutWaiting() {
+    // Arrange
+    when(discountRepository.findApplicableProducts(DiscountType.PRODUCT_SPECIFIC))
+        .thenReturn(List.of(row(1L, 10L)))
+        .thenReturn(List.of(row(1L, 30L)));
+    discountIndex.forDiscounts(List.of(tenPercent));
+    when(catalogVersions.localChanges()).thenReturn(1L);
+    when(catalogVersions.current()).thenReturn(new CatalogVersions.Version(1, 2));
+
+    // Act
+    ProductDiscounts productDiscounts = discountIndex.forDiscounts(List.of(tenPercent));
+    discountIndex.forDiscounts(List.of(tenPercent));
+
+    // Assert
+    assertEquals(1000, productDiscounts.basisPointsFor(30L));
+    verify(catalogVersions, times(2)).current();
+  }
+
+  private static Discount discount(Long id, String percentage) {
+    Discount discount = new Discount();
+    discount.setId(id);
+    discount.setPercentage(new BigDecimal(percentage));
+    discount.setType(DiscountType.PRODUCT_SPECIFIC);
+    return discount;
+  }
+
+  private static ApplicableProduct row(Long discountId, Long productId) {
+    return new ApplicableProduct() {
+      @Override
+      public Long getDiscountId() {
+        return discountId;
+      }
+
+      @Override
+      public Long getProductId() {
+        return productId;
+      }
+    };
+  }
+}
@@ -0,0 +1,151 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.config.DiscountProperties;
+import com.example.digigoods.repository.DiscountUsageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class DiscountQuotaManagerTest {
+
+  @Mock
+  private DiscountUsageRepository discountUsageRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private Clock clock;
+
+  private SimpleMeterRegistry meterRegistry;
+  private DiscountQuotaManager discountQuotaManager;
+
+  @BeforeEach
+  void setUp() {
+    DiscountProperties properties = new DiscountProperties();
+    properties.getHotQuota().setEnabled(true);
+    properties.getHotQuota().setDiscountIds(Set.of(1L));
+    properties.getHotQuota().setLeaseSize(10);
+    properties.getHotQuota().setLeaseTtl(Duration.ofSeconds(30));
+    properties.getHotQuota().setStripes(4);
+
+    meterRegistry = new SimpleMeterRegistry();
+    discountQuotaManager = new DiscountQuotaManager(discountUsageRepository, properties,
+        transactionManager, meterRegistry, clock);
+  }
+
+  @Test
+  @DisplayName("Given leased uses, when redeeming concurrently, then never hand out more "
+      + "uses than leased")
+  void givenLeasedUses_whenRedeemingConcurrently_thenNeverHandOutMoreUsesThanLeased() {
+    // Arrange
+    when(clock.millis()).thenReturn(0L);
+    when(discountUsageRepository.leaseUses(1L, 11)).thenReturn(50, 0);
+    AtomicInteger granted = new AtomicInteger();
+
+    // Act
+    CompletableFuture.allOf(IntStream.range(0, 80)
+        .mapToObj(i -> CompletableFuture.runAsync(() -> {
+          if (discountQuotaManager.take(1L, 1)) {
+            granted.incrementAndGet();
+          }
+        }))
+        .toArray(CompletableFuture[]::new)).join();
+
+    // Assert
+    assertEquals(50, granted.get());
+    assertEquals(80.0, meterRegistry.get("digigoods.discount.lease.requests").counters().stream()
+        .mapToDouble(Counter::count).sum());
+  }
+
+  @Test
+  @DisplayName("Given exhausted remaining uses, when taking, then refuse and keep leftover")
+  void givenExhaustedRemainingUses_whenTaking_thenRefuseAndKeepLeftover() {
+    // Arrange
+    when(clock.millis()).thenReturn(0L);
+    when(discountUsageRepository.leaseUses(1L, 15)).thenReturn(3);
+
+    // Act
+    boolean taken = discountQuotaManager.take(1L, 5);
+
+    // Assert
+    assertFalse(taken);
+    assertTrue(discountQuotaManager.take(1L, 3));
+    verify(discountUsageRepository, times(1)).leaseUses(anyLong(), anyInt());
+  }
+
+  @Test
+  @DisplayName("Given expired lease, when sweeping, then return unused uses to database")
+  void givenExpiredLease_whenSweeping_thenReturnUnusedUsesToDatabase() {
+    // Arrange
+    when(clock.millis()).thenReturn(0L);
+    when(discountUsageRepository.leaseUses(1L, 11)).thenReturn(11);
+    discountQuotaManager.take(1L, 1);
+
+    // Act
+    when(clock.millis()).thenReturn(Duration.ofSeconds(31).toMillis());
+    discountQuotaManager.returnExpiredLeases();
+
+    // Assert
+    verify(discountUsageRepository).incrementRemainingUses(1L, 10);
+    assertEquals(10.0,
+        meterRegistry.get("digigoods.discount.lease.returned").counter().count());
+  }
+
+  @Test
+  @DisplayName("Given lease returned before the checkout rolls back, when sweeping later, then "
+      + "return the rolled back uses to database")
+  void givenLeaseReturnedBeforeRollback_whenSweepingLater_thenReturnRolledBackUsesToDatabase() {
+    // Arrange
+    when(clock.millis()).thenReturn(0L);
+    when(discountUsageRepository.leaseUses(1L, 11)).thenReturn(11);
+    discountQuotaManager.take(1L, 1);
+    List<TransactionSynchronization> synchronizations;
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      discountQuotaManager.take(1L, 1);
+      synchronizations = TransactionSynchronizationManager.getSynchronizations();
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    when(clock.millis()).thenReturn(Duration.ofSeconds(31).toMillis());
+    discountQuotaManager.returnExpiredLeases();
+
+    // Act
+    synchronizations.forEach(synchronization ->
+        synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    when(clock.millis()).thenReturn(Duration.ofSeconds(62).toMillis());
+    discountQuotaManager.returnExpiredLeases();
+
+    // Assert
+    verify(discountUsageRepository).incrementRemainingUses(1L, 9);
+    verify(discountUsageRepository).incrementRemainingUses(1L, 1);
+    assertEquals(10.0,
+        meterRegistry.get("digigoods.discount.lease.returned").counter().count());
+  }
+}
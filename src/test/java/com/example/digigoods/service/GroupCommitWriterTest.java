@@ -0,0 +1,144 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.config.CheckoutProperties;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.exception.CheckoutOverloadedException;
+import com.example.digigoods.exception.InsufficientStockException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class GroupCommitWriterTest {
+
+  @Mock
+  private OrderWriter orderWriter;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private CheckoutProperties properties;
+  private GroupCommitWriter groupCommitWriter;
+
+  @BeforeEach
+  void setUp() {
+    properties = new CheckoutProperties();
+    properties.getGroupCommit().setMaxBatchSize(3);
+    properties.getGroupCommit().setMaxWait(Duration.ofSeconds(1));
+  }
+
+  @AfterEach
+  void tearDown() {
+    groupCommitWriter.stop();
+  }
+
+  @Test
+  @DisplayName("Given concurrent orders, when submitting, then write them in one transaction")
+  void givenConcurrentOrders_whenSubmitting_thenWriteThemInOneTransaction() throws Exception {
+    // Arrange
+    createWriter();
+    PricedOrder first = pricedOrder(1L);
+    PricedOrder second = pricedOrder(2L);
+    PricedOrder third = pricedOrder(3L);
+    when(orderWriter.writeAll(List.of(first, second, third)))
+        .thenReturn(List.of(response("10.00"), response("20.00"), response("30.00")));
+
+    // Act
+    CompletableFuture<OrderResponse> firstResult = groupCommitWriter.submit(first);
+    CompletableFuture<OrderResponse> secondResult = groupCommitWriter.submit(second);
+    CompletableFuture<OrderResponse> thirdResult = groupCommitWriter.submit(third);
+
+    // Assert
+    assertEquals(new BigDecimal("10.00"), firstResult.get(5, TimeUnit.SECONDS).getFinalPrice());
+    assertEquals(new BigDecimal("20.00"), secondResult.get(5, TimeUnit.SECONDS).getFinalPrice());
+    assertEquals(new BigDecimal("30.00"), thirdResult.get(5, TimeUnit.SECONDS).getFinalPrice());
+    verify(orderWriter, times(1)).writeAll(anyList());
+  }
+
+  @Test
+  @DisplayName("Given failing batch, when writing, then each caller gets its own outcome")
+  void givenFailingBatch_whenWriting_thenEachCallerGetsItsOwnOutcome() throws Exception {
+    // Arrange
+    properties.getGroupCommit().setMaxBatchSize(2);
+    createWriter();
+    PricedOrder good = pricedOrder(1L);
+    PricedOrder bad = pricedOrder(2L);
+    InsufficientStockException outOfStock = new InsufficientStockException("out of stock");
+    when(orderWriter.writeAll(List.of(good, bad))).thenThrow(outOfStock);
+    when(orderWriter.write(good)).thenReturn(response("10.00"));
+    when(orderWriter.write(bad)).thenThrow(outOfStock);
+
+    // Act
+    CompletableFuture<OrderResponse> goodResult = groupCommitWriter.submit(good);
+    CompletableFuture<OrderResponse> badResult = groupCommitWriter.submit(bad);
+
+    // Assert
+    assertEquals(new BigDecimal("10.00"), goodResult.get(5, TimeUnit.SECONDS).getFinalPrice());
+    ExecutionException failure = assertThrows(ExecutionException.class,
+        () -> badResult.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(InsufficientStockException.class, failure.getCause());
+  }
+
+  @Test
+  @DisplayName("Given full queue, when submitting, then throw CheckoutOverloadedException")
+  void givenFullQueue_whenSubmitting_thenThrowCheckoutOverloadedException() throws Exception {
+    // Arrange
+    properties.getGroupCommit().setMaxBatchSize(1);
+    properties.getGroupCommit().setQueueCapacity(1);
+    createWriter();
+    CountDownLatch writing = new CountDownLatch(1);
+    CountDownLatch releaseWriter = new CountDownLatch(1);
+    when(orderWriter.writeAll(anyList())).thenAnswer(invocation -> {
+      writing.countDown();
+      releaseWriter.await(5, TimeUnit.SECONDS);
+      return List.of(response("10.00"));
+    });
+
+    groupCommitWriter.submit(pricedOrder(1L));
+    assertTrue(writing.await(5, TimeUnit.SECONDS));
+    groupCommitWriter.submit(pricedOrder(2L));
+
+    // Act & Assert
+    assertThrows(CheckoutOverloadedException.class,
+        () -> groupCommitWriter.submit(pricedOrder(3L)));
+    releaseWriter.countDown();
+  }
+
+  private void createWriter() {
+    groupCommitWriter = new GroupCommitWriter(orderWriter, properties, transactionManager,
+        new SimpleMeterRegistry());
+  }
+
+  private static PricedOrder pricedOrder(Long productId) {
+    CheckoutRequest request = new CheckoutRequest(1L, List.of(productId), List.of());
+    return new PricedOrder(request, request.quantities(), List.of(), List.of(), BigDecimal.TEN,
+        BigDecimal.TEN, BigDecimal.TEN);
+  }
+
+  private static OrderResponse response(String finalPrice) {
+    return new OrderResponse("Order created successfully!", new BigDecimal(finalPrice));
+  }
+}
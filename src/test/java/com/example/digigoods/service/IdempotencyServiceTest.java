@@ -0,0 +1,271 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.config.IdempotencyProperties;
+import com.example.digigoods.dto.CartLine;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.OrderResponse;
+import com.example.digigoods.exception.IdempotencyConflictException;
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.exception.InvalidIdempotencyKeyException;
+import com.example.digigoods.model.IdempotencyRecord;
+import com.example.digigoods.model.IdempotencyStatus;
+import com.example.digigoods.repository.IdempotencyRecordRepository;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+  @Mock
+  private IdempotencyRecordRepository idempotencyRecordRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private IdempotencyService idempotencyService;
+  private CheckoutRequest request;
+  private OrderResponse orderResponse;
+
+  @BeforeEach
+  void setUp() {
+    idempotencyService = new IdempotencyService(idempotencyRecordRepository,
+        new IdempotencyProperties(), transactionManager);
+    request = new CheckoutRequest(1L, List.of(1L, 2L), List.of());
+    orderResponse = new OrderResponse("Order created successfully!", new BigDecimal("30.00"));
+  }
+
+  @Test
+  @DisplayName("Given completed key, when replaying, then return cached response without "
+      + "running checkout")
+  void givenCompletedKey_whenReplaying_thenReturnCachedResponseWithoutRunningCheckout() {
+    // Arrange
+    when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1"))
+        .thenReturn(Optional.empty());
+    when(idempotencyRecordRepository.save(any(IdempotencyRecord.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+    when(idempotencyRecordRepository.complete(any(), anyInt(), any(), any())).thenReturn(1);
+    AtomicInteger checkouts = new AtomicInteger();
+
+    // Act
+    OrderResponse first = idempotencyService.execute(1L, "key-1", request, onWritten -> {
+      checkouts.incrementAndGet();
+      onWritten.accept(orderResponse);
+      return orderResponse;
+    });
+    OrderResponse replay = idempotencyService.execute(1L, "key-1", request, onWritten -> {
+      checkouts.incrementAndGet();
+      return orderResponse;
+    });
+
+    // Assert
+    assertSame(first, replay);
+    assertEquals(1, checkouts.get());
+  }
+
+  @Test
+  @DisplayName("Given completed record in database, when replaying, then return stored response")
+  void givenCompletedRecordInDatabase_whenReplaying_thenReturnStoredResponse() {
+    // Arrange
+    IdempotencyRecord stored = new IdempotencyRecord(1L, 1L, "key-1",
+        IdempotencyService.requestHash(request), IdempotencyStatus.COMPLETED, 0,
+        "Order created successfully!", new BigDecimal("30.00"), LocalDateTime.now());
+    when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1"))
+        .thenReturn(Optional.of(stored));
+
+    // Act
+    OrderResponse replay = idempotencyService.execute(1L, "key-1", request, onWritten -> {
+      throw new AssertionError("checkout must not run");
+    });
+
+    // Assert
+    assertEquals(new BigDecimal("30.00"), replay.getFinalPrice());
+    verify(idempotencyRecordRepository, never()).save(any());
+  }
+
+  @Test
+  @DisplayName("Given key used for another request, when executing, then throw conflict")
+  void givenKeyUsedForAnotherRequest_whenExecuting_thenThrowConflict() {
+    // Arrange
+    IdempotencyRecord stored = new IdempotencyRecord(1L, 1L, "key-1", "other-hash",
+        IdempotencyStatus.COMPLETED, 0, "Order created successfully!", new BigDecimal("30.00"),
+        LocalDateTime.now());
+    when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1"))
+        .thenReturn(Optional.of(stored));
+
+    // Act & Assert
+    assertThrows(IdempotencyConflictException.class,
+        () -> idempotencyService.execute(1L, "key-1", request, onWritten -> orderResponse));
+  }
+
+  @Test
+  @DisplayName("Given request in flight, when replaying concurrently, then wait for its result")
+  void givenRequestInFlight_whenReplayingConcurrently_thenWaitForItsResult() throws Exception {
+    // Arrange
+    when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1"))
+        .thenReturn(Optional.empty());
+    when(idempotencyRecordRepository.save(any(IdempotencyRecord.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+    when(idempotencyRecordRepository.complete(any(), anyInt(), any(), any())).thenReturn(1);
+    CountDownLatch checkoutStarted = new CountDownLatch(1);
+    CountDownLatch releaseCheckout = new CountDownLatch(1);
+    AtomicInteger checkouts = new AtomicInteger();
+
+    CompletableFuture<OrderResponse> original = CompletableFuture.supplyAsync(
+        () -> idempotencyService.execute(1L, "key-1", request, onWritten -> {
+          checkouts.incrementAndGet();
+          checkoutStarted.countDown();
+          awaitQuietly(releaseCheckout);
+          onWritten.accept(orderResponse);
+          return orderResponse;
+        }));
+    assertEquals(true, checkoutStarted.await(5, TimeUnit.SECONDS));
+
+    // Act
+    CompletableFuture<OrderResponse> replay = CompletableFuture.supplyAsync(
+        () -> idempotencyService.execute(1L, "key-1", request, onWritten -> {
+          checkouts.incrementAndGet();
+          return orderResponse;
+        }));
+    releaseCheckout.countDown();
+
+    // Assert
+    assertSame(orderResponse, original.get(5, TimeUnit.SECONDS));
+    assertSame(orderResponse, replay.get(5, TimeUnit.SECONDS));
+    assertEquals(1, checkouts.get());
+  }
+
+  @Test
+  @DisplayName("Given failing checkout, when executing, then forget key and rethrow")
+  void givenFailingCheckout_whenExecuting_thenForgetKeyAndRethrow() {
+    // Arrange
+    when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1"))
+        .thenReturn(Optional.empty());
+    when(idempotencyRecordRepository.save(any(IdempotencyRecord.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+
+    // Act & Assert
+    assertThrows(InsufficientStockException.class,
+        () -> idempotencyService.execute(1L, "key-1", request, onWritten -> {
+          throw new InsufficientStockException("out of stock");
+        }));
+    verify(idempotencyRecordRepository).deletePending(any(), anyInt());
+  }
+
+  @Test
+  @DisplayName("Given recent pending record, when executing, then throw conflict")
+  void givenRecentPendingRecord_whenExecuting_thenThrowConflict() {
+    // Arrange
+    IdempotencyRecord pending = new IdempotencyRecord(1L, 1L, "key-1",
+        IdempotencyService.requestHash(request), IdempotencyStatus.PENDING, 0, null, null,
+        LocalDateTime.now());
+    when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1"))
+        .thenReturn(Optional.of(pending));
+
+    // Act & Assert
+    assertThrows(IdempotencyConflictException.class,
+        () -> idempotencyService.execute(1L, "key-1", request, onWritten -> orderResponse));
+    verify(idempotencyRecordRepository, never()).save(any());
+  }
+
+  @Test
+  @DisplayName("Given blank key, when executing, then throw InvalidIdempotencyKeyException")
+  void givenBlankKey_whenExecuting_thenThrowInvalidIdempotencyKeyException() {
+    // Act & Assert
+    assertThrows(InvalidIdempotencyKeyException.class,
+        () -> idempotencyService.execute(1L, " ", request, onWritten -> orderResponse));
+  }
+
+  @Test
+  @DisplayName("Given abandoned key completed meanwhile, when taking over, then return stored "
+      + "response without running checkout")
+  void givenAbandonedKeyCompletedMeanwhile_whenTakingOver_thenReturnStoredResponse() {
+    // Arrange
+    String hash = IdempotencyService.requestHash(request);
+    IdempotencyRecord pending = new IdempotencyRecord(1L, 1L, "key-1", hash,
+        IdempotencyStatus.PENDING, 0, null, null, LocalDateTime.now().minusHours(1));
+    IdempotencyRecord completed = new IdempotencyRecord(1L, 1L, "key-1", hash,
+        IdempotencyStatus.COMPLETED, 0, "Order created successfully!",
+        new BigDecimal("30.00"), pending.getCreatedAt());
+    when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1"))
+        .thenReturn(Optional.of(pending), Optional.of(completed));
+    when(idempotencyRecordRepository.takeOver(eq(1L), eq(0), any(), any())).thenReturn(0);
+
+    // Act
+    OrderResponse response = idempotencyService.execute(1L, "key-1", request, onWritten -> {
+      throw new AssertionError("checkout must not run");
+    });
+
+    // Assert
+    assertEquals(new BigDecimal("30.00"), response.getFinalPrice());
+  }
+
+  @Test
+  @DisplayName("Given key taken over while checking out, when completing, then fail the "
+      + "checkout with conflict")
+  void givenKeyTakenOverWhileCheckingOut_whenCompleting_thenFailCheckoutWithConflict() {
+    // Arrange
+    when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1"))
+        .thenReturn(Optional.empty());
+    when(idempotencyRecordRepository.save(any(IdempotencyRecord.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+    when(idempotencyRecordRepository.complete(any(), anyInt(), any(), any())).thenReturn(0);
+
+    // Act & Assert
+    assertThrows(IdempotencyConflictException.class,
+        () -> idempotencyService.execute(1L, "key-1", request, onWritten -> {
+          onWritten.accept(orderResponse);
+          return orderResponse;
+        }));
+  }
+
+  @Test
+  @DisplayName("Given same cart in both formats, when hashing, then hashes are equal")
+  void givenSameCartInBothFormats_whenHashing_thenHashesAreEqual() {
+    // Arrange
+    CheckoutRequest productIds = new CheckoutRequest(1L, List.of(2L, 1L, 2L), List.of("A"));
+    CheckoutRequest lines = new CheckoutRequest(1L, null, List.of("A"), null, null,
+        List.of(new CartLine(1L, 1), new CartLine(2L, 2)));
+    CheckoutRequest otherCode = new CheckoutRequest(1L, List.of(1L, 2L, 2L), List.of("B"));
+
+    // Act
+    String productIdsHash = IdempotencyService.requestHash(productIds);
+    String linesHash = IdempotencyService.requestHash(lines);
+    String otherCodeHash = IdempotencyService.requestHash(otherCode);
+
+    // Assert
+    assertEquals(productIdsHash, linesHash);
+    assertNotEquals(productIdsHash, otherCodeHash);
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
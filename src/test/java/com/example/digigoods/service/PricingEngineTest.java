@@ -0,0 +1,134 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class PricingEngineTest {
+
+  private static final long SEED = 20_240_901L;
+  private static final int CARTS = 20_000;
+
+  @Test
+  @DisplayName("Given random dividends, when rounding, then match BigDecimal HALF_UP")
+  void givenRandomDividends_whenRounding_thenMatchBigDecimalHalfUp() {
+    // Arrange
+    Random random = new Random(SEED);
+
+    for (int i = 0; i < 100_000; i++) {
+      long dividend = random.nextLong(-1_000_000_000L, 1_000_000_000L);
+      long divisor = random.nextBoolean() ? 10_000 : random.nextLong(1, 1_000_000L);
+      if (random.nextBoolean()) {
+        divisor = -divisor;
+      }
+
+      // Act
+      long rounded = PricingEngine.roundHalfUp(dividend, divisor);
+
+      // Assert
+      long expected = BigDecimal.valueOf(dividend)
+          .divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_UP)
+          .longValueExact();
+      assertEquals(expected, rounded, dividend + " / " + divisor);
+    }
+  }
+
+  @Test
+  @DisplayName("Given random carts, when pricing, then agree with BigDecimal pricing exactly")
+  void givenRandomCarts_whenPricing_thenAgreeWithBigDecimalPricingExactly() {
+    // Arrange
+    Random random = new Random(SEED);
+
+    for (int cart = 0; cart < CARTS; cart++) {
+      int lines = random.nextInt(1, 25);
+      long[] lineCents = new long[lines];
+      int[] lineBasisPoints = new int[lines];
+      BigDecimal[] linePrices = new BigDecimal[lines];
+      BigDecimal[] linePercentages = new BigDecimal[lines];
+      for (int i = 0; i < lines; i++) {
+        lineCents[i] = randomCents(random);
+        lineBasisPoints[i] = randomBasisPoints(random, 15_000);
+        linePrices[i] = BigDecimal.valueOf(lineCents[i], 2);
+        linePercentages[i] = BigDecimal.valueOf(lineBasisPoints[i], 2);
+      }
+      int[] generalBasisPoints = new int[random.nextInt(0, 4)];
+      BigDecimal[] generalPercentages = new BigDecimal[generalBasisPoints.length];
+      for (int i = 0; i < generalBasisPoints.length; i++) {
+        generalBasisPoints[i] = randomBasisPoints(random, 10_000);
+        generalPercentages[i] = BigDecimal.valueOf(generalBasisPoints[i], 2);
+      }
+
+      // Act
+      long originalCents = 0;
+      long intermediateCents = 0;
+      for (int i = 0; i < lines; i++) {
+        originalCents += lineCents[i];
+        intermediateCents += PricingEngine.applyDiscount(lineCents[i], lineBasisPoints[i]);
+      }
+      long finalCents = intermediateCents;
+      for (int basisPoints : generalBasisPoints) {
+        finalCents = PricingEngine.applyDiscount(finalCents, basisPoints);
+      }
+
+      // Assert
+      BigDecimal expectedOriginal = BigDecimalPricing.originalSubtotal(linePrices);
+      BigDecimal expectedFinal = BigDecimalPricing.finalPrice(linePrices, linePercentages,
+          generalPercentages);
+      assertEquals(expectedOriginal, PricingEngine.toAmount(originalCents), "cart " + cart);
+      assertEquals(expectedFinal, PricingEngine.toAmount(finalCents), "cart " + cart);
+      if (originalCents != 0) {
+        assertEquals(BigDecimalPricing.exceedsMaximumDiscount(expectedOriginal, expectedFinal),
+            PricingEngine.discountBasisPoints(originalCents, finalCents) > 7_500,
+            "cart " + cart);
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Given half cent discount, when applying discount, then round half up")
+  void givenHalfCentDiscount_whenApplyingDiscount_thenRoundHalfUp() {
+    // Act & Assert
+    assertEquals(4, PricingEngine.applyDiscount(5, 1_000));
+    assertEquals(-4, PricingEngine.applyDiscount(-5, 1_000));
+    assertEquals(9_000, PricingEngine.applyDiscount(10_000, 1_000));
+  }
+
+  @Test
+  @DisplayName("Given zero original amount, when calculating discount share, then return zero")
+  void givenZeroOriginalAmount_whenCalculatingDiscountShare_thenReturnZero() {
+    // Act & Assert
+    assertEquals(0, PricingEngine.discountBasisPoints(0, 0));
+  }
+
+  @Test
+  @DisplayName("Given amount with fractional cents, when converting, then throw")
+  void givenAmountWithFractionalCents_whenConverting_thenThrow() {
+    // Act & Assert
+    assertEquals(12_345, PricingEngine.toCents(new BigDecimal("123.45")));
+    assertEquals(10_000, PricingEngine.toCents(new BigDecimal("100")));
+    assertThrows(ArithmeticException.class,
+        () -> PricingEngine.toCents(new BigDecimal("1.005")));
+  }
+
+  private static long randomCents(Random random) {
+    return switch (random.nextInt(4)) {
+      case 0 -> random.nextLong(0, 100);
+      case 1 -> random.nextLong(0, 10_000);
+      default -> random.nextLong(0, 10_000_000);
+    };
+  }
+
+  private static int randomBasisPoints(Random random, int max) {
+    return switch (random.nextInt(5)) {
+      case 0 -> 0;
+      case 1 -> random.nextInt(0, 101) * 100;
+      case 2 -> 5 * random.nextInt(0, max / 5 + 1);
+      default -> random.nextInt(0, max + 1);
+    };
+  }
+}
@@ -0,0 +1,236 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.config.ProductProperties;
+import com.example.digigoods.dto.ProductPage;
+import com.example.digigoods.model.Product;
+import com.example.digigoods.repository.ProductRepository;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCacheTest {
+
+  private static final Set<Long> IDS = Set.of(1L);
+  private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+  @Mock
+  private ProductRepository productRepository;
+
+  @Mock
+  private CatalogVersions catalogVersions;
+
+  @Mock
+  private Clock clock;
+
+  private final List<Runnable> refreshes = new CopyOnWriteArrayList<>();
+  private ProductProperties properties;
+  private ProductCache productCache;
+
+  @BeforeEach
+  void setUp() {
+    properties = new ProductProperties();
+    properties.getCache().setMaxSize(10);
+    productCache = new ProductCache(properties, catalogVersions, clock, refreshes::add);
+    when(catalogVersions.current()).thenReturn(new CatalogVersions.Version(1, 1));
+  }
+
+  @AfterEach
+  void tearDown() {
+    endTransaction();
+  }
+
+  @Test
+  @DisplayName("Given cached product, when reading at the same product version, then serve it "
+      + "without querying")
+  void givenCachedProduct_whenReadingAtSameProductVersion_thenServeItWithoutQuerying() {
+    // Arrange
+    when(productRepository.findAllByIdIn(IDS)).thenReturn(List.of(product(1L, "10.00")));
+    getProducts();
+
+    // Act
+    List<Product> products = getProducts();
+
+    // Assert
+    assertEquals(new BigDecimal("10.00"), products.get(0).getPrice());
+    verify(productRepository, times(1)).findAllByIdIn(IDS);
+  }
+
+  @Test
+  @DisplayName("Given changed product version, when reading, then load the product again")
+  void givenChangedProductVersion_whenReading_thenLoadProductAgain() {
+    // Arrange
+    when(productRepository.findAllByIdIn(IDS))
+        .thenReturn(List.of(product(1L, "10.00")), List.of(product(1L, "12.00")));
+    getProducts();
+    when(catalogVersions.current()).thenReturn(new CatalogVersions.Version(2, 1));
+
+    // Act
+    List<Product> products = getProducts();
+
+    // Assert
+    assertEquals(new BigDecimal("12.00"), products.get(0).getPrice());
+    verify(productRepository, times(2)).findAllByIdIn(IDS);
+  }
+
+  @Test
+  @DisplayName("Given product loaded in a transaction, when reading before and after it "
+      + "commits, then cache it only once committed")
+  void givenProductLoadedInTransaction_whenReadingBeforeAndAfterCommit_thenCacheOnceCommitted() {
+    // Arrange
+    when(productRepository.findAllByIdIn(IDS)).thenReturn(List.of(product(1L, "10.00")));
+    TransactionSynchronizationManager.initSynchronization();
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+    getProducts();
+    List<TransactionSynchronization> synchronizations =
+        TransactionSynchronizationManager.getSynchronizations();
+    endTransaction();
+
+    // Act
+    getProducts();
+    synchronizations.forEach(TransactionSynchronization::afterCommit);
+    getProducts();
+
+    // Assert
+    verify(productRepository, times(2)).findAllByIdIn(IDS);
+  }
+
+  @Test
+  @DisplayName("Given full cache, when loading more products, then evict the least recently "
+      + "read")
+  void givenFullCache_whenLoadingMoreProducts_thenEvictLeastRecentlyRead() {
+    // Arrange
+    properties.getCache().setMaxSize(2);
+    when(productRepository.findAllByIdIn(anyCollection())).thenAnswer(invocation ->
+        invocation.<Collection<Long>>getArgument(0).stream()
+            .map(id -> product(id, "10.00"))
+            .toList());
+    getProducts(1L);
+    getProducts(2L);
+    getProducts(1L);
+
+    // Act
+    getProducts(3L);
+    getProducts(3L);
+    getProducts(1L);
+    getProducts(2L);
+
+    // Assert
+    verify(productRepository, times(1)).findAllByIdIn(Set.of(3L));
+    verify(productRepository, times(1)).findAllByIdIn(Set.of(1L));
+    verify(productRepository, times(2)).findAllByIdIn(Set.of(2L));
+  }
+
+  @Test
+  @DisplayName("Given cached page, when the database is unavailable, then serve the page stale "
+      + "until stale-if-error has passed")
+  void givenCachedPage_whenDatabaseUnavailable_thenServeStaleUntilStaleIfErrorPassed() {
+    // Arrange
+    ProductPage page = new ProductPage(List.of(), null);
+    when(clock.instant()).thenReturn(START);
+    getPage(() -> page);
+    when(catalogVersions.current()).thenThrow(new CannotGetJdbcConnectionException("down"));
+    Supplier<ProductPage> unavailable = () -> {
+      throw new CannotGetJdbcConnectionException("down");
+    };
+
+    // Act
+    when(clock.instant()).thenReturn(START.plus(Duration.ofMinutes(5)));
+    ProductCache.CachedPage stale = getPage(unavailable);
+
+    // Assert
+    assertSame(page, stale.page());
+    when(clock.instant()).thenReturn(START.plus(Duration.ofMinutes(6)));
+    assertThrows(CannotGetJdbcConnectionException.class, () -> getPage(unavailable));
+  }
+
+  @Test
+  @DisplayName("Given page past max-age, when read concurrently, then serve it and refresh it "
+      + "exactly once")
+  void givenPagePastMaxAge_whenReadConcurrently_thenServeItAndRefreshItExactlyOnce()
+      throws Exception {
+    // Arrange
+    AtomicInteger loads = new AtomicInteger();
+    Supplier<ProductPage> loader = () -> {
+      loads.incrementAndGet();
+      return new ProductPage(List.of(), null);
+    };
+    when(clock.instant()).thenReturn(START);
+    final ProductPage cached = getPage(loader).page();
+    when(clock.instant()).thenReturn(START.plus(Duration.ofSeconds(31)));
+    ExecutorService readers = Executors.newFixedThreadPool(8);
+    CountDownLatch start = new CountDownLatch(1);
+
+    // Act
+    List<Future<ProductCache.CachedPage>> reads = new ArrayList<>();
+    for (int i = 0; i < 32; i++) {
+      reads.add(readers.submit(() -> {
+        start.await();
+        return getPage(loader);
+      }));
+    }
+    start.countDown();
+    for (Future<ProductCache.CachedPage> read : reads) {
+      assertSame(cached, read.get().page());
+    }
+    readers.shutdown();
+    refreshes.forEach(Runnable::run);
+
+    // Assert
+    assertEquals(1, refreshes.size());
+    assertEquals(2, loads.get());
+  }
+
+  private static void endTransaction() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    TransactionSynchronizationManager.setActualTransactionActive(false);
+  }
+
+  private List<Product> getProducts() {
+    return productCache.getProducts(IDS, productRepository::findAllByIdIn);
+  }
+
+  private List<Product> getProducts(Long productId) {
+    return productCache.getProducts(Set.of(productId), productRepository::findAllByIdIn);
+  }
+
+  private ProductCache.CachedPage getPage(Supplier<ProductPage> loader) {
+    return productCache.getPage("id", null, 50, loader);
+  }
+
+  private static Product product(Long id, String price) {
+    return new Product(id, "Product " + id, new BigDecimal(price), 5);
+  }
+}
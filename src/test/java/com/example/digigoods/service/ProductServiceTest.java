@@ -3,23 +3,31 @@ package com.example.digigoods.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyList;
-import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.example.digigoods.config.ProductProperties;
 import com.example.digigoods.exception.InsufficientStockException;
 import com.example.digigoods.exception.ProductNotFoundException;
 import com.example.digigoods.model.Product;
+import com.example.digigoods.repository.CatalogVersionRepository;
 import com.example.digigoods.repository.ProductRepository;
+import com.example.digigoods.repository.ProductStockRepository;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,9 +36,22 @@ class ProductServiceTest {
   @Mock
   private ProductRepository productRepository;
 
+  @Mock
+  private ProductStockRepository productStockRepository;
+
+  @Mock
+  private StockLeaseManager stockLeaseManager;
+
+  @Spy
+  private ProductCache productCache = new ProductCache(uncachedProducts(),
+      new CatalogVersions(mock(CatalogVersionRepository.class)));
+
   @InjectMocks
   private ProductService productService;
 
+  @Captor
+  private ArgumentCaptor<SortedMap<Long, Integer>> quantitiesCaptor;
+
   private Product product1;
   private Product product2;
 
@@ -72,19 +93,22 @@ class ProductServiceTest {
 
   @Test
   @DisplayName("Given sufficient stock, when validating and updating stock, "
-      + "then update stock successfully")
+      + "then decrement stock in product ID order")
   void givenSufficientStock_whenValidatingAndUpdatingStock_thenUpdateStockSuccessfully() {
     // Arrange
-    List<Long> productIds = List.of(1L, 1L, 2L); // 2 of product1, 1 of product2
-    when(productRepository.findAllByIdIn(List.of(1L, 2L))).thenReturn(List.of(product1, product2));
+    List<Long> productIds = List.of(2L, 1L, 1L); // 2 of product1, 1 of product2
+    when(productStockRepository.decrementStock(any())).thenReturn(new int[]{1, 1});
 
     // Act
     productService.validateAndUpdateStock(productIds);
 
     // Assert
-    assertEquals(3, product1.getStock()); // 5 - 2 = 3
-    assertEquals(2, product2.getStock()); // 3 - 1 = 2
-    verify(productRepository, times(2)).save(any(Product.class));
+    verify(productStockRepository).decrementStock(quantitiesCaptor.capture());
+    SortedMap<Long, Integer> quantities = quantitiesCaptor.getValue();
+    assertEquals(List.of(1L, 2L), List.copyOf(quantities.keySet()));
+    assertEquals(2, quantities.get(1L));
+    assertEquals(1, quantities.get(2L));
+    verify(productStockRepository, never()).findStockByIds(any());
   }
 
   @Test
@@ -93,10 +117,49 @@ class ProductServiceTest {
   void givenInsufficientStock_whenValidatingAndUpdatingStock_thenThrowInsufficientStockException() {
     // Arrange
     List<Long> productIds = List.of(1L, 1L, 1L, 1L, 1L, 1L); // 6 of product1, but only 5 in stock
-    when(productRepository.findAllByIdIn(anyList())).thenReturn(List.of(product1));
+    when(productStockRepository.decrementStock(any())).thenReturn(new int[]{0});
+    when(productStockRepository.findStockByIds(List.of(1L))).thenReturn(Map.of(1L, 5));
 
     // Act & Assert
-    assertThrows(InsufficientStockException.class,
+    InsufficientStockException exception = assertThrows(InsufficientStockException.class,
         () -> productService.validateAndUpdateStock(productIds));
+    assertEquals("Insufficient stock for product 1. Requested: 6, Available: 5",
+        exception.getMessage());
+  }
+
+  @Test
+  @DisplayName("Given unknown product, when validating and updating stock, "
+      + "then throw ProductNotFoundException")
+  void givenUnknownProduct_whenValidatingAndUpdatingStock_thenThrowProductNotFoundException() {
+    // Arrange
+    List<Long> productIds = List.of(1L, 99L);
+    when(productStockRepository.decrementStock(any())).thenReturn(new int[]{1, 0});
+    when(productStockRepository.findStockByIds(List.of(99L))).thenReturn(Map.of());
+
+    // Act & Assert
+    assertThrows(ProductNotFoundException.class,
+        () -> productService.validateAndUpdateStock(productIds));
+  }
+
+  @Test
+  @DisplayName("Given product with unlimited inventory, when decrementing stock, then accept "
+      + "its unmatched update")
+  void givenUnlimitedProduct_whenDecrementingStock_thenAcceptItsUnmatchedUpdate() {
+    // Arrange
+    List<Long> productIds = List.of(1L, 2L);
+    when(productStockRepository.decrementStock(any())).thenReturn(new int[]{1, 0});
+    when(productStockRepository.findUnlimitedIds(List.of(2L))).thenReturn(List.of(2L));
+
+    // Act
+    productService.validateAndUpdateStock(productIds);
+
+    // Assert
+    verify(productStockRepository, never()).findStockByIds(any());
+  }
+
+  private static ProductProperties uncachedProducts() {
+    ProductProperties properties = new ProductProperties();
+    properties.getCache().setEnabled(false);
+    return properties;
   }
 }
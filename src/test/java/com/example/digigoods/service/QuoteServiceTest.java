@@ -0,0 +1,144 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.config.CheckoutProperties;
+import com.example.digigoods.dto.CheckoutRequest;
+import com.example.digigoods.dto.QuoteResponse;
+import com.example.digigoods.model.Discount;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class QuoteServiceTest {
+
+  private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+
+  private CatalogVersions catalogVersions;
+  private CheckoutProperties properties;
+  private CheckoutRequest request;
+  private Discount discount;
+
+  @BeforeEach
+  void setUp() {
+    catalogVersions = mock(CatalogVersions.class);
+    when(catalogVersions.current()).thenReturn(new CatalogVersions.Version(1, 1));
+    properties = new CheckoutProperties();
+    properties.getQuote().setSecret("testQuoteSecretThatIsAtLeast32Bytes");
+    properties.getQuote().setTtl(Duration.ofMinutes(2));
+    request = new CheckoutRequest(1L, List.of(10L, 10L, 20L), List.of("SAVE10"));
+
+    discount = new Discount();
+    discount.setId(5L);
+    discount.setCode("SAVE10");
+    discount.setValidUntil(LocalDate.of(2025, 12, 31));
+  }
+
+  @Test
+  @DisplayName("Given issued quote, when redeeming same cart, then return quoted prices")
+  void givenIssuedQuote_whenRedeemingSameCart_thenReturnQuotedPrices() {
+    // Arrange
+    QuoteService quoteService = quoteServiceAt(NOW);
+    QuoteResponse response = quoteService.issue(pricedOrder(), catalogVersions.current());
+    request.setQuoteToken(response.getQuoteToken());
+
+    // Act
+    Optional<QuoteService.Quote> quote = quoteService.redeem(request, catalogVersions::current);
+
+    // Assert
+    assertTrue(quote.isPresent());
+    assertEquals(List.of(5L), quote.get().discountIds());
+    assertEquals(25_000, quote.get().originalSubtotal());
+    assertEquals(20_250, quote.get().finalPrice());
+    assertEquals(new BigDecimal("25.00"), response.getProductDiscount());
+    assertEquals(new BigDecimal("22.50"), response.getGeneralDiscount());
+  }
+
+  @Test
+  @DisplayName("Given tampered token, when redeeming, then reject it")
+  void givenTamperedToken_whenRedeeming_thenRejectIt() {
+    // Arrange
+    QuoteService quoteService = quoteServiceAt(NOW);
+    String token = quoteService.issue(pricedOrder(), catalogVersions.current()).getQuoteToken();
+    int separator = token.indexOf('.');
+    String payload = new String(Base64.getUrlDecoder().decode(token.substring(0, separator)),
+        StandardCharsets.UTF_8);
+    String forged = Base64.getUrlEncoder().withoutPadding().encodeToString(
+        payload.replace(":20250:", ":100:").getBytes(StandardCharsets.UTF_8))
+        + token.substring(separator);
+    request.setQuoteToken(forged);
+
+    // Act & Assert
+    assertTrue(quoteService.redeem(request, catalogVersions::current).isEmpty());
+  }
+
+  @Test
+  @DisplayName("Given changed cart, expired quote or changed catalog, when redeeming, "
+      + "then reject quote")
+  void givenChangedCartExpiredQuoteOrChangedCatalog_whenRedeeming_thenRejectQuote() {
+    // Arrange
+    String token = quoteServiceAt(NOW).issue(pricedOrder(), catalogVersions.current())
+        .getQuoteToken();
+    CheckoutRequest otherCart = new CheckoutRequest(1L, List.of(10L, 20L), List.of("SAVE10"),
+        null, token);
+    request.setQuoteToken(token);
+
+    // Act & Assert
+    assertTrue(quoteServiceAt(NOW).redeem(otherCart, catalogVersions::current).isEmpty());
+    assertTrue(quoteServiceAt(NOW.plus(Duration.ofMinutes(3)))
+        .redeem(request, catalogVersions::current).isEmpty());
+    when(catalogVersions.current()).thenReturn(new CatalogVersions.Version(1, 2));
+    assertTrue(quoteServiceAt(NOW).redeem(request, catalogVersions::current).isEmpty());
+  }
+
+  @Test
+  @DisplayName("Given discount expiring before TTL, when issuing, then expire with discount")
+  void givenDiscountExpiringBeforeTtl_whenIssuing_thenExpireWithDiscount() {
+    // Arrange
+    discount.setValidUntil(LocalDate.of(2025, 6, 1));
+    QuoteService quoteService = quoteServiceAt(Instant.parse("2025-06-01T23:59:30Z"));
+
+    // Act
+    QuoteResponse response = quoteService.issue(pricedOrder(), catalogVersions.current());
+
+    // Assert
+    assertEquals(LocalDate.of(2025, 6, 2).atStartOfDay(), response.getExpiresAt());
+  }
+
+  @Test
+  @DisplayName("Given missing or short quote secret, when creating the service, then fail")
+  void givenMissingOrShortQuoteSecret_whenCreatingService_thenFail() {
+    // Arrange
+    CheckoutProperties missing = new CheckoutProperties();
+    CheckoutProperties tooShort = new CheckoutProperties();
+    tooShort.getQuote().setSecret("a".repeat(31));
+    Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+
+    // Act & Assert
+    assertThrows(IllegalStateException.class, () -> new QuoteService(missing, clock));
+    assertThrows(IllegalStateException.class, () -> new QuoteService(tooShort, clock));
+  }
+
+  private QuoteService quoteServiceAt(Instant now) {
+    return new QuoteService(properties, Clock.fixed(now, ZoneOffset.UTC));
+  }
+
+  private PricedOrder pricedOrder() {
+    return new PricedOrder(request, request.quantities(), List.of(), List.of(discount),
+        new BigDecimal("250.00"), new BigDecimal("225.00"), new BigDecimal("202.50"));
+  }
+}
@@ -0,0 +1,186 @@
+package com.example.digigoods.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.digigoods.config.StockProperties;
+import com.example.digigoods.exception.InsufficientStockException;
+import com.example.digigoods.repository.ProductStockRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class StockLeaseManagerTest {
+
+  @Mock
+  private ProductStockRepository productStockRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private Clock clock;
+
+  private SimpleMeterRegistry meterRegistry;
+  private StockLeaseManager stockLeaseManager;
+
+  @BeforeEach
+  void setUp() {
+    StockProperties properties = new StockProperties();
+    properties.getHotSku().setEnabled(true);
+    properties.getHotSku().setProductIds(Set.of(1L));
+    properties.getHotSku().setLeaseSize(10);
+    properties.getHotSku().setLeaseTtl(Duration.ofSeconds(30));
+    properties.getHotSku().setStripes(4);
+
+    meterRegistry = new SimpleMeterRegistry();
+    stockLeaseManager = new StockLeaseManager(productStockRepository, properties,
+        transactionManager, meterRegistry, clock);
+  }
+
+  @Test
+  @DisplayName("Given configured product, when checking hot SKU, then only that product is hot")
+  void givenConfiguredProduct_whenCheckingHotSku_thenOnlyThatProductIsHot() {
+    // Act & Assert
+    assertTrue(stockLeaseManager.isHot(1L));
+    assertFalse(stockLeaseManager.isHot(2L));
+  }
+
+  @Test
+  @DisplayName("Given leased stock, when decrementing repeatedly, then refill only once")
+  void givenLeasedStock_whenDecrementingRepeatedly_thenRefillOnlyOnce() {
+    // Arrange
+    when(clock.millis()).thenReturn(0L);
+    when(productStockRepository.leaseStock(1L, 12)).thenReturn(12);
+
+    // Act
+    stockLeaseManager.decrement(1L, 2);
+    for (int i = 0; i < 5; i++) {
+      stockLeaseManager.decrement(1L, 1);
+    }
+
+    // Assert
+    verify(productStockRepository, times(1)).leaseStock(anyLong(), anyInt());
+    assertEquals(1.0, meterRegistry.get("digigoods.stock.lease.refills").counter().count());
+    assertEquals(1.0, meterRegistry.get("digigoods.stock.lease.requests")
+        .tag("result", "miss").counter().count());
+    assertEquals(5.0, meterRegistry.get("digigoods.stock.lease.requests")
+        .tag("result", "hit").counter().count());
+    // Hit, miss, refill and return counters, registered once with the lease
+    assertEquals(4, meterRegistry.getMeters().size());
+  }
+
+  @Test
+  @DisplayName("Given exhausted database stock, when decrementing, "
+      + "then throw InsufficientStockException")
+  void givenExhaustedDatabaseStock_whenDecrementing_thenThrowInsufficientStockException() {
+    // Arrange
+    when(clock.millis()).thenReturn(0L);
+    when(productStockRepository.leaseStock(1L, 15)).thenReturn(3);
+
+    // Act & Assert
+    InsufficientStockException exception = assertThrows(InsufficientStockException.class,
+        () -> stockLeaseManager.decrement(1L, 5));
+    assertEquals("Insufficient stock for product 1. Requested: 5, Available: 3",
+        exception.getMessage());
+  }
+
+  @Test
+  @DisplayName("Given expired lease, when sweeping, then return unused stock to database")
+  void givenExpiredLease_whenSweeping_thenReturnUnusedStockToDatabase() {
+    // Arrange
+    when(clock.millis()).thenReturn(0L);
+    when(productStockRepository.leaseStock(1L, 11)).thenReturn(11);
+    stockLeaseManager.decrement(1L, 1);
+
+    // Act
+    stockLeaseManager.returnExpiredLeases();
+    verify(productStockRepository, never()).incrementStock(anyLong(), anyInt());
+    when(clock.millis()).thenReturn(Duration.ofSeconds(31).toMillis());
+    stockLeaseManager.returnExpiredLeases();
+
+    // Assert
+    verify(productStockRepository).incrementStock(1L, 10);
+    assertEquals(10.0, meterRegistry.get("digigoods.stock.lease.returned").counter().count());
+  }
+
+  @Test
+  @DisplayName("Given lease returned before the checkout rolls back, when sweeping later, then "
+      + "return the rolled back stock to database")
+  void givenLeaseReturnedBeforeRollback_whenSweepingLater_thenReturnRolledBackStockToDatabase() {
+    // Arrange
+    when(clock.millis()).thenReturn(0L);
+    when(productStockRepository.leaseStock(1L, 11)).thenReturn(11);
+    stockLeaseManager.decrement(1L, 1);
+    List<TransactionSynchronization> synchronizations;
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      stockLeaseManager.decrement(1L, 1);
+      synchronizations = TransactionSynchronizationManager.getSynchronizations();
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    when(clock.millis()).thenReturn(Duration.ofSeconds(31).toMillis());
+    stockLeaseManager.returnExpiredLeases();
+
+    // Act
+    synchronizations.forEach(synchronization ->
+        synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    when(clock.millis()).thenReturn(Duration.ofSeconds(62).toMillis());
+    stockLeaseManager.returnExpiredLeases();
+
+    // Assert
+    verify(productStockRepository).incrementStock(1L, 9);
+    verify(productStockRepository).incrementStock(1L, 1);
+    assertEquals(10.0, meterRegistry.get("digigoods.stock.lease.returned").counter().count());
+  }
+
+  @Test
+  @DisplayName("Given refill in a transaction, when it commits or rolls back, then lease the "
+      + "refilled stock only once committed")
+  void givenRefillInTransaction_whenCommittingOrRollingBack_thenLeaseRefilledStockOnceCommitted() {
+    // Arrange
+    when(clock.millis()).thenReturn(0L);
+    when(productStockRepository.leaseStock(1L, 11)).thenReturn(11);
+    TransactionSynchronizationManager.initSynchronization();
+    List<TransactionSynchronization> synchronizations;
+    try {
+      stockLeaseManager.decrement(1L, 1);
+      synchronizations = TransactionSynchronizationManager.getSynchronizations();
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    // Act
+    synchronizations.forEach(synchronization ->
+        synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    stockLeaseManager.returnAllLeases();
+    synchronizations.forEach(TransactionSynchronization::afterCommit);
+    stockLeaseManager.returnAllLeases();
+
+    // Assert
+    // The rolled back refill already returned its stock, only the committed leftover is leased
+    verify(productStockRepository, times(1)).incrementStock(anyLong(), anyInt());
+    verify(productStockRepository).incrementStock(1L, 10);
+  }
+}
@@ -0,0 +1,18 @@
+-- H2 stand-in for the place_order PostgreSQL function created by Liquibase
+CREATE ALIAS IF NOT EXISTS place_order FOR "com.example.digigoods.repository.H2PlaceOrderFunction.placeOrder";
+
+-- Catalog versions and the H2 stand-in for their PostgreSQL triggers created by Liquibase
+CREATE TABLE IF NOT EXISTS catalog_versions (
+    id INT PRIMARY KEY,
+    products BIGINT DEFAULT 0 NOT NULL,
+    discounts BIGINT DEFAULT 0 NOT NULL
+);
+INSERT INTO catalog_versions (id, products, discounts)
+SELECT 1, 0, 0 WHERE NOT EXISTS (SELECT 1 FROM catalog_versions);
+CREATE TRIGGER IF NOT EXISTS products_catalog_version AFTER INSERT, UPDATE, DELETE ON products
+    FOR EACH ROW CALL 'com.example.digigoods.repository.H2CatalogVersionTrigger';
+CREATE TRIGGER IF NOT EXISTS discounts_catalog_version AFTER INSERT, UPDATE, DELETE ON discounts
+    FOR EACH ROW CALL 'com.example.digigoods.repository.H2CatalogVersionTrigger';
+CREATE TRIGGER IF NOT EXISTS discount_applicable_products_catalog_version
+    AFTER INSERT, UPDATE, DELETE ON discount_applicable_products
+    FOR EACH ROW CALL 'com.example.digigoods.repository.H2CatalogVersionTrigger';